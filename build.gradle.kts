@@ -9,6 +9,7 @@ plugins {
 
     id("com.diffplug.spotless") version "7.0.4"
     id("tech.yanand.maven-central-publish") version "1.3.0"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "io.github.lipiridi"
@@ -39,6 +40,37 @@ dependencies {
     annotationProcessor("org.springframework.boot:spring-boot-configuration-processor:$springBootVersion")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa:$springBootVersion")
     implementation("org.springframework.boot:spring-boot-starter-validation:$springBootVersion")
+    compileOnly("io.micrometer:micrometer-core:1.15.0")
+    compileOnly("org.hibernate.reactive:hibernate-reactive-core:2.4.8.Final")
+    compileOnly("io.projectreactor:reactor-core:3.7.6")
+
+    jmh("com.h2database:h2:2.3.232")
+
+    testImplementation("org.springframework.boot:spring-boot-starter-test:$springBootVersion")
+    testImplementation("com.h2database:h2:2.3.232")
+    testImplementation("io.micrometer:micrometer-core:1.15.0")
+    testImplementation("org.hibernate.reactive:hibernate-reactive-core:2.4.8.Final")
+    testImplementation("io.projectreactor:reactor-core:3.7.6")
+    testImplementation("io.vertx:vertx-pg-client:4.5.14")
+    testImplementation("org.testcontainers:junit-jupiter:1.21.0")
+    testImplementation("org.testcontainers:postgresql:1.21.0")
+    testRuntimeOnly("com.ongres.scram:client:2.1")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.12.2")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+jmh {
+    // Run a subset with -PjmhIncludes=SearchBenchmark
+    properties("jmhIncludes").takeIf { it.isNotEmpty() }?.let { includes.set(listOf(it)) }
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
 }
 
 tasks.withType<Javadoc> {
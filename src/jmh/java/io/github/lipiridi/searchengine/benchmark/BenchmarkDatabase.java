@@ -0,0 +1,55 @@
+package io.github.lipiridi.searchengine.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * In-memory H2 database with all benchmark models, bootstrapped without a Spring context
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    static final int ROWS = 10_000;
+
+    private final LocalContainerEntityManagerFactoryBean factoryBean;
+
+    BenchmarkDatabase(String name, Map<String, Object> jpaProperties) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+
+        Map<String, Object> properties = new HashMap<>(jpaProperties);
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.jdbc.batch_size", 500);
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("io.github.lipiridi.searchengine.benchmark.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(properties);
+        factoryBean.afterPropertiesSet();
+
+        seed();
+    }
+
+    EntityManagerFactory getEntityManagerFactory() {
+        return factoryBean.getObject();
+    }
+
+    private void seed() {
+        try (EntityManager entityManager = getEntityManagerFactory().createEntityManager()) {
+            entityManager.getTransaction().begin();
+            for (BenchmarkModel model : BenchmarkModel.values()) {
+                model.seed(entityManager, ROWS);
+            }
+            entityManager.getTransaction().commit();
+        }
+    }
+
+    @Override
+    public void close() {
+        factoryBean.destroy();
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.lipiridi.searchengine.benchmark;
+
+import io.github.lipiridi.searchengine.FilterType;
+import io.github.lipiridi.searchengine.benchmark.model.DeepEntity;
+import io.github.lipiridi.searchengine.benchmark.model.DeepItem;
+import io.github.lipiridi.searchengine.benchmark.model.LevelOne;
+import io.github.lipiridi.searchengine.benchmark.model.LevelThree;
+import io.github.lipiridi.searchengine.benchmark.model.LevelTwo;
+import io.github.lipiridi.searchengine.benchmark.model.NarrowEntity;
+import io.github.lipiridi.searchengine.benchmark.model.Status;
+import io.github.lipiridi.searchengine.benchmark.model.WideEntity;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.Sort;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.query.SortDirection;
+
+/**
+ * Synthetic entity models of different widths and nesting depths together with a typical search request for each
+ */
+public enum BenchmarkModel {
+    NARROW(NarrowEntity.class) {
+        @Override
+        SearchRequest createSearchRequest() {
+            return new SearchRequest(
+                    1,
+                    20,
+                    false,
+                    List.of(new Sort("createdAt", SortDirection.DESCENDING)),
+                    List.of(
+                            new Filter("name", FilterType.LIKE, "name1"),
+                            new Filter("amount", FilterType.GREATER_THAN, "100"),
+                            new Filter("status", FilterType.IN, Set.of("NEW", "ACTIVE"))));
+        }
+
+        @Override
+        void seed(EntityManager entityManager, int rows) {
+            Status[] statuses = Status.values();
+            Instant now = Instant.now();
+            for (int i = 0; i < rows; i++) {
+                entityManager.persist(
+                        new NarrowEntity("name" + i, statuses[i % statuses.length], now.minusSeconds(i), i % 1000));
+                flushPeriodically(entityManager, i);
+            }
+        }
+    },
+
+    WIDE(WideEntity.class) {
+        @Override
+        SearchRequest createSearchRequest() {
+            return new SearchRequest(
+                    1,
+                    20,
+                    false,
+                    List.of(new Sort("number01", SortDirection.ASCENDING), new Sort("id", SortDirection.ASCENDING)),
+                    List.of(
+                            new Filter("text01", FilterType.EQUAL, "text3"),
+                            new Filter("number02", FilterType.LESS_THAN, "150"),
+                            new Filter("amount03", FilterType.GREATER_THAN_OR_EQUAL, "300"),
+                            new Filter("flag04", FilterType.EQUAL, "false"),
+                            new Filter("text05", FilterType.LIKE, "text"),
+                            new Filter("number06", FilterType.NOT_EQUAL, "7")));
+        }
+
+        @Override
+        void seed(EntityManager entityManager, int rows) {
+            for (int i = 0; i < rows; i++) {
+                entityManager.persist(new WideEntity(i));
+                flushPeriodically(entityManager, i);
+            }
+        }
+    },
+
+    DEEP(DeepEntity.class) {
+        @Override
+        SearchRequest createSearchRequest() {
+            return new SearchRequest(
+                    1,
+                    20,
+                    false,
+                    List.of(new Sort("levelOneName", SortDirection.ASCENDING)),
+                    List.of(
+                            new Filter("levelOneLevelTwoLevelThreeName", FilterType.EQUAL, "three1"),
+                            new Filter("itemsName", FilterType.IN, Set.of("item1", "item2")),
+                            new Filter("name", FilterType.LIKE, "deep")));
+        }
+
+        @Override
+        void seed(EntityManager entityManager, int rows) {
+            List<LevelOne> levels = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                LevelThree levelThree = new LevelThree("three" + i % 10);
+                LevelTwo levelTwo = new LevelTwo("two" + i % 50, levelThree);
+                LevelOne levelOne = new LevelOne("one" + i, levelTwo);
+                entityManager.persist(levelThree);
+                entityManager.persist(levelTwo);
+                entityManager.persist(levelOne);
+                levels.add(levelOne);
+            }
+
+            for (int i = 0; i < rows; i++) {
+                DeepEntity deepEntity = new DeepEntity("deep" + i, levels.get(i % levels.size()));
+                for (int j = 0; j < i % 4; j++) {
+                    DeepItem deepItem = new DeepItem("item" + j);
+                    entityManager.persist(deepItem);
+                    deepEntity.getItems().add(deepItem);
+                }
+                entityManager.persist(deepEntity);
+                flushPeriodically(entityManager, i);
+            }
+        }
+    };
+
+    private final Class<?> entityClass;
+
+    BenchmarkModel(Class<?> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    abstract SearchRequest createSearchRequest();
+
+    abstract void seed(EntityManager entityManager, int rows);
+
+    private static void flushPeriodically(EntityManager entityManager, int row) {
+        if (row % 500 == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.lipiridi.searchengine.benchmark;
+
+import io.github.lipiridi.searchengine.SearchField;
+import io.github.lipiridi.searchengine.SearchFieldCreator;
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.util.FieldConvertUtils;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Request validation work that runs for every search: resolving request fields and converting filter values
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FilterConversionBenchmark {
+
+    @Param
+    private BenchmarkModel model;
+
+    private Map<String, SearchField> searchFieldMap;
+    private SearchRequest searchRequest;
+
+    @Setup
+    public void setUp() {
+        searchFieldMap = new SearchFieldCreator(SearchEngineProperties.NamingConvention.CAMEL_CASE)
+                .createFromClass(model.getEntityClass()).stream()
+                        .collect(Collectors.toMap(SearchField::id, Function.identity()));
+        searchRequest = model.createSearchRequest();
+    }
+
+    @Benchmark
+    public void resolveSearchFields(Blackhole blackhole) {
+        for (Filter filter : searchRequest.filters()) {
+            blackhole.consume(FieldConvertUtils.resolveSearchField(searchFieldMap, filter));
+        }
+        for (Sort sort : searchRequest.sorts()) {
+            blackhole.consume(FieldConvertUtils.resolveSearchField(searchFieldMap, sort));
+        }
+    }
+
+    @Benchmark
+    public void convertFilterValues(Blackhole blackhole) {
+        for (Filter filter : searchRequest.filters()) {
+            SearchField searchField = searchFieldMap.get(filter.field());
+            for (String value : filter.value()) {
+                blackhole.consume(FieldConvertUtils.getConvertedValue(value, searchField));
+            }
+        }
+    }
+}
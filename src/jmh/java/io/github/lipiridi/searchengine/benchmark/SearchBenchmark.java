@@ -0,0 +1,95 @@
+package io.github.lipiridi.searchengine.benchmark;
+
+import io.github.lipiridi.searchengine.SearchService;
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import jakarta.persistence.EntityManager;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * End-to-end search against H2. Comparing the query caching modes separates the cost of criteria construction
+ * (NONE vs CRITERIA) from the cost of SQL rendering by Hibernate (CRITERIA vs SQL).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    public enum QueryCaching {
+        // Criteria queries are built and rendered to SQL for every search
+        NONE,
+        // Compiled criteria queries are reused by the query plan cache
+        CRITERIA,
+        // Hibernate additionally reuses the SQL rendered for the cached criteria queries
+        SQL
+    }
+
+    @Param
+    private BenchmarkModel model;
+
+    @Param
+    private QueryCaching queryCaching;
+
+    private BenchmarkDatabase database;
+    private EntityManager entityManager;
+    private SearchService searchService;
+    private SearchRequest searchRequest;
+    private SearchRequest searchRequestWithoutTotals;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase(
+                "search_" + model.name().toLowerCase() + "_"
+                        + queryCaching.name().toLowerCase(),
+                Map.of("hibernate.criteria.plan_cache_enabled", queryCaching == QueryCaching.SQL));
+        entityManager = database.getEntityManagerFactory().createEntityManager();
+
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setQueryPlanCacheSize(queryCaching == QueryCaching.NONE ? 0 : 256);
+        searchService = new SearchService(entityManager, searchEngineProperties);
+
+        searchRequest = model.createSearchRequest();
+        searchRequestWithoutTotals = new SearchRequest(
+                searchRequest.page(), searchRequest.size(), true, searchRequest.sorts(), searchRequest.filters());
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        database.close();
+    }
+
+    @Benchmark
+    public SearchResponse<?> search() {
+        try {
+            return searchService.search(searchRequest, model.getEntityClass());
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    @Benchmark
+    public SearchResponse<?> searchWithoutTotals() {
+        try {
+            return searchService.search(searchRequestWithoutTotals, model.getEntityClass());
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    @Benchmark
+    public long totalElements() {
+        return searchService.totalElements(searchRequest, model.getEntityClass());
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.lipiridi.searchengine.benchmark;
+
+import io.github.lipiridi.searchengine.SearchField;
+import io.github.lipiridi.searchengine.SearchFieldCreator;
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reflection scan of @Searchable fields, which runs once per entity at startup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchFieldCreatorBenchmark {
+
+    @Param
+    private BenchmarkModel model;
+
+    private SearchFieldCreator searchFieldCreator;
+
+    @Setup
+    public void setUp() {
+        searchFieldCreator = new SearchFieldCreator(SearchEngineProperties.NamingConvention.CAMEL_CASE);
+    }
+
+    @Benchmark
+    public List<SearchField> createFromClass() {
+        return searchFieldCreator.createFromClass(model.getEntityClass());
+    }
+}
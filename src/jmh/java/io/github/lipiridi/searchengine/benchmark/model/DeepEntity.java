@@ -0,0 +1,47 @@
+package io.github.lipiridi.searchengine.benchmark.model;
+
+import io.github.lipiridi.searchengine.Searchable;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Root of a chain of three to-one associations with a collection on the root
+ */
+@Entity
+public class DeepEntity {
+
+    @Id
+    @GeneratedValue
+    @Searchable
+    private Long id;
+
+    @Searchable
+    private String name;
+
+    @Searchable
+    @ManyToOne(fetch = FetchType.LAZY)
+    private LevelOne levelOne;
+
+    @Searchable
+    @OneToMany
+    @JoinColumn(name = "deep_entity_id")
+    private Set<DeepItem> items = new HashSet<>();
+
+    protected DeepEntity() {}
+
+    public DeepEntity(String name, LevelOne levelOne) {
+        this.name = name;
+        this.levelOne = levelOne;
+    }
+
+    public Set<DeepItem> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.lipiridi.searchengine.benchmark.model;
+
+import io.github.lipiridi.searchengine.Searchable;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+
+@Entity
+public class DeepItem {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Searchable
+    private String name;
+
+    protected DeepItem() {}
+
+    public DeepItem(String name) {
+        this.name = name;
+    }
+}
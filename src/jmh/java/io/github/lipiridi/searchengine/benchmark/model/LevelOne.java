@@ -0,0 +1,30 @@
+package io.github.lipiridi.searchengine.benchmark.model;
+
+import io.github.lipiridi.searchengine.Searchable;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+
+@Entity
+public class LevelOne {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Searchable
+    private String name;
+
+    @Searchable
+    @ManyToOne(fetch = FetchType.LAZY)
+    private LevelTwo levelTwo;
+
+    protected LevelOne() {}
+
+    public LevelOne(String name, LevelTwo levelTwo) {
+        this.name = name;
+        this.levelTwo = levelTwo;
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.lipiridi.searchengine.benchmark.model;
+
+import io.github.lipiridi.searchengine.Searchable;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+
+@Entity
+public class LevelTwo {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Searchable
+    private String name;
+
+    @Searchable
+    @ManyToOne(fetch = FetchType.LAZY)
+    private LevelThree levelThree;
+
+    protected LevelTwo() {}
+
+    public LevelTwo(String name, LevelThree levelThree) {
+        this.name = name;
+        this.levelThree = levelThree;
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.lipiridi.searchengine.benchmark.model;
+
+import io.github.lipiridi.searchengine.Searchable;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import java.time.Instant;
+
+@Entity
+public class NarrowEntity {
+
+    @Id
+    @GeneratedValue
+    @Searchable
+    private Long id;
+
+    @Searchable
+    private String name;
+
+    @Searchable
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Searchable
+    private Instant createdAt;
+
+    @Searchable
+    private int amount;
+
+    protected NarrowEntity() {}
+
+    public NarrowEntity(String name, Status status, Instant createdAt, int amount) {
+        this.name = name;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.amount = amount;
+    }
+}
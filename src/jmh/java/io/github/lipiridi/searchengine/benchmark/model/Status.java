@@ -0,0 +1,8 @@
+package io.github.lipiridi.searchengine.benchmark.model;
+
+public enum Status {
+    NEW,
+    ACTIVE,
+    SUSPENDED,
+    CLOSED
+}
@@ -0,0 +1,183 @@
+package io.github.lipiridi.searchengine.benchmark.model;
+
+import io.github.lipiridi.searchengine.Searchable;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+
+/**
+ * Flat entity with 40 searchable columns
+ */
+@Entity
+public class WideEntity {
+
+    @Id
+    @GeneratedValue
+    @Searchable
+    private Long id;
+
+    @Searchable
+    private String text01;
+
+    @Searchable
+    private String text02;
+
+    @Searchable
+    private String text03;
+
+    @Searchable
+    private String text04;
+
+    @Searchable
+    private String text05;
+
+    @Searchable
+    private String text06;
+
+    @Searchable
+    private String text07;
+
+    @Searchable
+    private String text08;
+
+    @Searchable
+    private String text09;
+
+    @Searchable
+    private String text10;
+
+    @Searchable
+    private int number01;
+
+    @Searchable
+    private int number02;
+
+    @Searchable
+    private int number03;
+
+    @Searchable
+    private int number04;
+
+    @Searchable
+    private int number05;
+
+    @Searchable
+    private int number06;
+
+    @Searchable
+    private int number07;
+
+    @Searchable
+    private int number08;
+
+    @Searchable
+    private int number09;
+
+    @Searchable
+    private int number10;
+
+    @Searchable
+    private Long amount01;
+
+    @Searchable
+    private Long amount02;
+
+    @Searchable
+    private Long amount03;
+
+    @Searchable
+    private Long amount04;
+
+    @Searchable
+    private Long amount05;
+
+    @Searchable
+    private Long amount06;
+
+    @Searchable
+    private Long amount07;
+
+    @Searchable
+    private Long amount08;
+
+    @Searchable
+    private Long amount09;
+
+    @Searchable
+    private Long amount10;
+
+    @Searchable
+    private boolean flag01;
+
+    @Searchable
+    private boolean flag02;
+
+    @Searchable
+    private boolean flag03;
+
+    @Searchable
+    private boolean flag04;
+
+    @Searchable
+    private boolean flag05;
+
+    @Searchable
+    private boolean flag06;
+
+    @Searchable
+    private boolean flag07;
+
+    @Searchable
+    private boolean flag08;
+
+    @Searchable
+    private boolean flag09;
+
+    @Searchable
+    private boolean flag10;
+
+    protected WideEntity() {}
+
+    public WideEntity(long seed) {
+        text01 = "text" + (seed % 10);
+        text02 = "text" + (seed % 20);
+        text03 = "text" + (seed % 30);
+        text04 = "text" + (seed % 40);
+        text05 = "text" + (seed % 50);
+        text06 = "text" + (seed % 60);
+        text07 = "text" + (seed % 70);
+        text08 = "text" + (seed % 80);
+        text09 = "text" + (seed % 90);
+        text10 = "text" + (seed % 100);
+        number01 = (int) (seed % 100);
+        number02 = (int) (seed % 200);
+        number03 = (int) (seed % 300);
+        number04 = (int) (seed % 400);
+        number05 = (int) (seed % 500);
+        number06 = (int) (seed % 600);
+        number07 = (int) (seed % 700);
+        number08 = (int) (seed % 800);
+        number09 = (int) (seed % 900);
+        number10 = (int) (seed % 1000);
+        amount01 = seed * 1;
+        amount02 = seed * 2;
+        amount03 = seed * 3;
+        amount04 = seed * 4;
+        amount05 = seed * 5;
+        amount06 = seed * 6;
+        amount07 = seed * 7;
+        amount08 = seed * 8;
+        amount09 = seed * 9;
+        amount10 = seed * 10;
+        flag01 = seed % 2 == 0;
+        flag02 = seed % 3 == 0;
+        flag03 = seed % 4 == 0;
+        flag04 = seed % 5 == 0;
+        flag05 = seed % 6 == 0;
+        flag06 = seed % 7 == 0;
+        flag07 = seed % 8 == 0;
+        flag08 = seed % 9 == 0;
+        flag09 = seed % 10 == 0;
+        flag10 = seed % 11 == 0;
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.lipiridi.searchengine;
+
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.ParameterExpression;
+import java.util.List;
+import org.hibernate.query.sqm.tree.SqmCopyContext;
+import org.hibernate.query.sqm.tree.select.SqmSelectStatement;
+
+/**
+ * Criteria query with its parameters in the order their values are bound
+ */
+record CompiledQuery<T>(CriteriaQuery<T> criteriaQuery, List<ParameterExpression<?>> parameters) {
+
+    /**
+     * Hibernate creates queries from the criteria tree itself instead of copying it, so cached queries are copied for
+     * every use and are never shared between sessions. Criteria parameters are immutable and kept by the copy, their
+     * values are bound to each query.
+     */
+    CompiledQuery<T> copy() {
+        SqmSelectStatement<T> statement = ((SqmSelectStatement<T>) criteriaQuery).copy(SqmCopyContext.simpleContext());
+        return new CompiledQuery<>(statement, parameters);
+    }
+}
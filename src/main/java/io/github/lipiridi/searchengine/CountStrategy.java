@@ -0,0 +1,16 @@
+package io.github.lipiridi.searchengine;
+
+public enum CountStrategy {
+    /**
+     * Total elements are counted by the count query over all matching rows
+     */
+    EXACT,
+    /**
+     * Counting stops at the configured cap, larger totals are reported as the cap and marked as not exact
+     */
+    CAPPED,
+    /**
+     * Total elements are taken from the database statistics when possible, otherwise they are capped
+     */
+    ESTIMATED
+}
@@ -0,0 +1,9 @@
+package io.github.lipiridi.searchengine;
+
+import jakarta.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Entities of a page with the cursor of the next keyset page
+ */
+record FetchResult<E>(List<E> entities, @Nullable String nextCursor) {}
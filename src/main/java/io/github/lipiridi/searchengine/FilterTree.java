@@ -0,0 +1,40 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.dto.FilterGroup;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filter group with resolved search fields. Filters are the leaves, branches combine their children by the operator
+ * and constants replace branches that are always true or false.
+ */
+sealed interface FilterTree permits SearchFilterPair, FilterTree.Branch, FilterTree.Constant {
+
+    /**
+     * @return filters in depth-first order, which is the order of their query parameters
+     */
+    default List<SearchFilterPair> getSearchFilterPairs() {
+        List<SearchFilterPair> searchFilterPairs = new ArrayList<>();
+        collectSearchFilterPairs(this, searchFilterPairs);
+        return searchFilterPairs;
+    }
+
+    private static void collectSearchFilterPairs(FilterTree filterTree, List<SearchFilterPair> searchFilterPairs) {
+        switch (filterTree) {
+            case SearchFilterPair searchFilterPair -> searchFilterPairs.add(searchFilterPair);
+            case Branch branch ->
+                branch.children().forEach(child -> collectSearchFilterPairs(child, searchFilterPairs));
+            case Constant constant -> {}
+        }
+    }
+
+    /**
+     * {@code NOT} branches have exactly one child
+     */
+    record Branch(FilterGroup.Operator operator, List<FilterTree> children) implements FilterTree {}
+
+    enum Constant implements FilterTree {
+        TRUE,
+        FALSE
+    }
+}
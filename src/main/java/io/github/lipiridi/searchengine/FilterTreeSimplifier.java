@@ -0,0 +1,179 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.FilterTree.Branch;
+import io.github.lipiridi.searchengine.FilterTree.Constant;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.FilterGroup.Operator;
+import io.github.lipiridi.searchengine.util.FieldConvertUtils;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Flattens nested groups of the same operator, removes duplicate filters and folds constants. Equal values of the same
+ * field are merged into one {@code IN} filter for {@code OR} and intersected for {@code AND}, so that contradicting
+ * filters are reduced to {@link Constant#FALSE}.
+ */
+final class FilterTreeSimplifier {
+
+    private FilterTreeSimplifier() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    static FilterTree simplify(FilterTree filterTree) {
+        return switch (filterTree) {
+            case SearchFilterPair searchFilterPair -> searchFilterPair;
+            case Constant constant -> constant;
+            case Branch branch
+            when branch.operator() == Operator.NOT ->
+                negate(simplify(branch.children().getFirst()));
+            case Branch branch -> simplifyJunction(branch.operator(), branch.children());
+        };
+    }
+
+    private static FilterTree negate(FilterTree filterTree) {
+        return switch (filterTree) {
+            case Constant constant -> constant == Constant.TRUE ? Constant.FALSE : Constant.TRUE;
+            case Branch branch
+            when branch.operator() == Operator.NOT -> branch.children().getFirst();
+            default -> new Branch(Operator.NOT, List.of(filterTree));
+        };
+    }
+
+    private static FilterTree simplifyJunction(Operator operator, List<FilterTree> children) {
+        Constant absorbingConstant = operator == Operator.AND ? Constant.FALSE : Constant.TRUE;
+        Constant neutralConstant = operator == Operator.AND ? Constant.TRUE : Constant.FALSE;
+
+        Set<FilterTree> simplifiedChildren = new LinkedHashSet<>();
+        for (FilterTree child : children) {
+            FilterTree simplifiedChild = simplify(child);
+            if (simplifiedChild == absorbingConstant) {
+                return absorbingConstant;
+            }
+
+            if (simplifiedChild instanceof Branch branch && branch.operator() == operator) {
+                simplifiedChildren.addAll(branch.children());
+            } else if (simplifiedChild != neutralConstant) {
+                simplifiedChildren.add(simplifiedChild);
+            }
+        }
+
+        List<FilterTree> mergedChildren =
+                operator == Operator.AND ? mergeConjunction(simplifiedChildren) : mergeDisjunction(simplifiedChildren);
+        if (mergedChildren.contains(absorbingConstant)) {
+            return absorbingConstant;
+        }
+
+        return switch (mergedChildren.size()) {
+            case 0 -> neutralConstant;
+            case 1 -> mergedChildren.getFirst();
+            default -> new Branch(operator, mergedChildren);
+        };
+    }
+
+    /**
+     * Values of a collection field may belong to different elements, so only single valued fields are intersected
+     */
+    private static List<FilterTree> mergeConjunction(Collection<FilterTree> children) {
+        List<FilterTree> mergedChildren = new ArrayList<>();
+        Map<SearchField, Integer> valueFilterIndexes = new HashMap<>();
+        Set<SearchField> nullFields = new HashSet<>();
+        Set<SearchField> restrictedFields = new HashSet<>();
+
+        for (FilterTree child : children) {
+            if (!(child instanceof SearchFilterPair searchFilterPair)
+                    || searchFilterPair.searchField().distinct()) {
+                mergedChildren.add(child);
+                continue;
+            }
+
+            SearchField searchField = searchFilterPair.searchField();
+            FilterType filterType = searchFilterPair.filter().type();
+            if (filterType == FilterType.IS_NULL) {
+                nullFields.add(searchField);
+            } else {
+                restrictedFields.add(searchField);
+            }
+
+            Integer valueFilterIndex = valueFilterIndexes.get(searchField);
+            if (!isValueFilter(filterType)) {
+                mergedChildren.add(child);
+            } else if (valueFilterIndex == null) {
+                valueFilterIndexes.put(searchField, mergedChildren.size());
+                mergedChildren.add(child);
+            } else {
+                Map<Object, String> values =
+                        getConvertedValues((SearchFilterPair) mergedChildren.get(valueFilterIndex));
+                values.keySet().retainAll(getConvertedValues(searchFilterPair).keySet());
+                if (values.isEmpty()) {
+                    return List.of(Constant.FALSE);
+                }
+
+                mergedChildren.set(valueFilterIndex, withValues(searchFilterPair, values.values()));
+            }
+        }
+
+        for (SearchField nullField : nullFields) {
+            if (restrictedFields.contains(nullField)) {
+                return List.of(Constant.FALSE);
+            }
+        }
+
+        return mergedChildren;
+    }
+
+    private static List<FilterTree> mergeDisjunction(Collection<FilterTree> children) {
+        List<FilterTree> mergedChildren = new ArrayList<>();
+        Map<SearchField, Integer> valueFilterIndexes = new HashMap<>();
+
+        for (FilterTree child : children) {
+            if (!(child instanceof SearchFilterPair searchFilterPair)
+                    || !isValueFilter(searchFilterPair.filter().type())) {
+                mergedChildren.add(child);
+                continue;
+            }
+
+            SearchField searchField = searchFilterPair.searchField();
+            Integer valueFilterIndex = valueFilterIndexes.get(searchField);
+            if (valueFilterIndex == null) {
+                valueFilterIndexes.put(searchField, mergedChildren.size());
+                mergedChildren.add(child);
+                continue;
+            }
+
+            Map<Object, String> values = getConvertedValues((SearchFilterPair) mergedChildren.get(valueFilterIndex));
+            getConvertedValues(searchFilterPair).forEach(values::putIfAbsent);
+            mergedChildren.set(valueFilterIndex, withValues(searchFilterPair, values.values()));
+        }
+
+        return mergedChildren;
+    }
+
+    private static boolean isValueFilter(FilterType filterType) {
+        return filterType == FilterType.EQUAL || filterType == FilterType.IN;
+    }
+
+    /**
+     * Original values by their converted values, so that different spellings of the same value are merged
+     */
+    private static Map<Object, String> getConvertedValues(SearchFilterPair searchFilterPair) {
+        Map<Object, String> values = new LinkedHashMap<>();
+        for (String value : searchFilterPair.filter().value()) {
+            values.putIfAbsent(FieldConvertUtils.getConvertedValue(value, searchFilterPair.searchField()), value);
+        }
+
+        return values;
+    }
+
+    private static SearchFilterPair withValues(SearchFilterPair searchFilterPair, Collection<String> values) {
+        FilterType filterType = values.size() == 1 ? FilterType.EQUAL : FilterType.IN;
+        Filter filter = new Filter(searchFilterPair.filter().field(), filterType, Set.copyOf(values));
+        return new SearchFilterPair(filter, searchFilterPair.searchField());
+    }
+}
@@ -12,6 +12,12 @@ public enum FilterType {
     NOT_IN(FilterUtils.getCommonSupportedClasses()),
     LIKE(List.of(String.class)),
     NOT_LIKE(List.of(String.class)),
+    // Case-sensitive prefix match, which can use a B-tree index of the column
+    STARTS_WITH(List.of(String.class)),
+    // Compares lower-cased values, which can use an index on the lower-cased column
+    EQUAL_IGNORE_CASE(List.of(String.class)),
+    // Matched by the dialect's full text function, allowed only for fields that declare it in @Searchable
+    FULL_TEXT(List.of(String.class), false, true),
     GREATER_THAN(FilterUtils.getComparableSupportedClasses()),
     LESS_THAN(FilterUtils.getComparableSupportedClasses()),
     GREATER_THAN_OR_EQUAL(FilterUtils.getComparableSupportedClasses()),
@@ -19,14 +25,20 @@ public enum FilterType {
 
     private final List<Class<?>> supportedClasses;
     private final boolean nullAllowed;
+    private final boolean declarationRequired;
 
     FilterType(List<Class<?>> supportedClasses) {
         this(supportedClasses, false);
     }
 
     FilterType(List<Class<?>> supportedClasses, boolean nullAllowed) {
+        this(supportedClasses, nullAllowed, false);
+    }
+
+    FilterType(List<Class<?>> supportedClasses, boolean nullAllowed, boolean declarationRequired) {
         this.supportedClasses = supportedClasses;
         this.nullAllowed = nullAllowed;
+        this.declarationRequired = declarationRequired;
     }
 
     public List<Class<?>> getSupportedClasses() {
@@ -36,4 +48,11 @@ public enum FilterType {
     public boolean isNullAllowed() {
         return nullAllowed;
     }
+
+    /**
+     * @return whether fields support the filter only when it is listed in {@link Searchable#filterTypes()}
+     */
+    public boolean isDeclarationRequired() {
+        return declarationRequired;
+    }
 }
@@ -1,55 +1,291 @@
 package io.github.lipiridi.searchengine;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
-import jakarta.persistence.ManyToOne;
-import jakarta.persistence.MappedSuperclass;
-import jakarta.persistence.OneToOne;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.AttributeNode;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Subgraph;
 import jakarta.persistence.criteria.Fetch;
 import jakarta.persistence.criteria.FetchParent;
 import jakarta.persistence.criteria.JoinType;
-import java.lang.reflect.Field;
-import org.hibernate.annotations.FetchMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.engine.FetchStyle;
+import org.hibernate.engine.FetchTiming;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.graph.spi.RootGraphImplementor;
+import org.hibernate.metamodel.mapping.AttributeMapping;
+import org.hibernate.metamodel.mapping.EntityAssociationMapping;
+import org.hibernate.metamodel.mapping.EntityMappingType;
+import org.hibernate.metamodel.mapping.PluralAttributeMapping;
+import org.hibernate.query.sqm.tree.SqmNode;
+import org.hibernate.sql.results.graph.FetchOptions;
 
+/**
+ * Adds fetch joins to entity queries. Fetch plans are resolved once per entity and profile from the Hibernate mapping
+ * model, so mappings from XML and superclasses are taken into account and entity classes are not reflected on every
+ * query.
+ */
 public class GraphBuilder {
 
+    @Nullable
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    private final Map<String, List<String>> batchCollections;
+    private final Map<Class<?>, List<FetchNode>> eagerFetchPlans = new ConcurrentHashMap<>();
+    private final Map<FetchProfileKey, List<FetchNode>> profileFetchPlans = new ConcurrentHashMap<>();
+    private final Map<FetchProfileKey, List<String>> profileBatchCollections = new ConcurrentHashMap<>();
+
+    /**
+     * The session factory is resolved from the first query that joins are added to
+     */
+    public GraphBuilder() {
+        this.batchCollections = Map.of();
+    }
+
+    public GraphBuilder(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory, Map.of());
+    }
+
+    /**
+     * @param batchCollections collections that are loaded for the whole page by entity name, when the search request
+     *     doesn't name a fetch profile
+     */
+    public GraphBuilder(EntityManagerFactory entityManagerFactory, Map<String, List<String>> batchCollections) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.batchCollections = batchCollections;
+    }
+
     public void addEagerJoins(FetchParent<?, ?> root, Class<?> entityClass) {
-        for (Field field : entityClass.getDeclaredFields()) {
-            if (shouldSkipJoin(field)) {
-                continue;
+        if (sessionFactory == null && root instanceof SqmNode sqmNode) {
+            sessionFactory = sqmNode.nodeBuilder().getSessionFactory();
+        }
+
+        addFetches(root, getFetchPlan(entityClass, null));
+    }
+
+    public void addFetches(FetchParent<?, ?> fetchParent, List<FetchNode> fetchPlan) {
+        for (FetchNode fetchNode : fetchPlan) {
+            Fetch<?, ?> fetch = fetchParent.fetch(fetchNode.attributeName(), JoinType.LEFT);
+            addFetches(fetch, fetchNode.children());
+        }
+    }
+
+    /**
+     * @param fetchProfile name of a {@link SearchFetchProfile} of the entity or of a named entity graph, leave null to
+     *     fetch the associations that are mapped as eager joins
+     */
+    public List<FetchNode> getFetchPlan(Class<?> entityClass, @Nullable String fetchProfile) {
+        if (fetchProfile == null) {
+            return eagerFetchPlans.computeIfAbsent(
+                    entityClass, type -> createEagerFetchPlan(getEntityMappingType(type), Set.of()));
+        }
+
+        return profileFetchPlans.computeIfAbsent(
+                new FetchProfileKey(entityClass, fetchProfile),
+                key -> createProfileFetchPlan(entityClass, fetchProfile));
+    }
+
+    /**
+     * @return names of the collections of the entity that are initialized for all entities of the page at once
+     */
+    public List<String> getBatchCollections(Class<?> entityClass, @Nullable String fetchProfile) {
+        return profileBatchCollections.computeIfAbsent(new FetchProfileKey(entityClass, fetchProfile), key -> {
+            EntityMappingType entityMappingType = getEntityMappingType(entityClass);
+            if (fetchProfile == null) {
+                return validateBatchCollections(
+                        entityMappingType,
+                        "Batch collections",
+                        batchCollections.getOrDefault(entityClass.getSimpleName(), List.of()));
+            }
+
+            SearchFetchProfile searchFetchProfile = findSearchFetchProfile(entityClass, fetchProfile);
+            if (searchFetchProfile != null) {
+                return validateBatchCollections(
+                        entityMappingType,
+                        "Fetch profile '%s'".formatted(fetchProfile),
+                        List.of(searchFetchProfile.collections()));
             }
 
-            Fetch<?, ?> fetch = root.fetch(field.getName(), JoinType.LEFT);
+            // Collections of nested entities are not loaded, as the page contains only the root entities
+            return getEntityGraph(entityClass, fetchProfile).getAttributeNodes().stream()
+                    .map(AttributeNode::getAttributeName)
+                    .filter(attributeName ->
+                            entityMappingType.findAttributeMapping(attributeName) instanceof PluralAttributeMapping)
+                    .toList();
+        });
+    }
 
-            Class<?> fieldType = field.getType();
-            if (fieldType.isAnnotationPresent(Entity.class)) {
-                addEagerJoins(fetch, fieldType);
+    private List<String> validateBatchCollections(
+            EntityMappingType entityMappingType, String source, List<String> collections) {
+        for (String collection : collections) {
+            if (!(entityMappingType.findAttributeMapping(collection) instanceof PluralAttributeMapping)) {
+                throw new HibernateSearchEngineException(
+                        "%s of %s can only contain collections. Invalid attribute: '%s'"
+                                .formatted(
+                                        source, entityMappingType.getJavaType().getJavaTypeClass(), collection));
             }
         }
 
-        // Handle inheritance by looking at superclasses
-        Class<?> superclass = entityClass.getSuperclass();
-        if (superclass != null && superclass.isAnnotationPresent(MappedSuperclass.class)) {
-            addEagerJoins(root, superclass);
+        return List.copyOf(collections);
+    }
+
+    /**
+     * Sets the value of the attribute of the source entity to the target entity
+     */
+    public void copyAttribute(Class<?> entityClass, String attributeName, Object source, Object target) {
+        AttributeMapping attributeMapping = getEntityMappingType(entityClass).findAttributeMapping(attributeName);
+        attributeMapping.setValue(target, attributeMapping.getValue(source));
+    }
+
+    /**
+     * Circular associations are not followed again, their back reference is usually already loaded
+     */
+    private List<FetchNode> createEagerFetchPlan(EntityMappingType entityMappingType, Set<Class<?>> parentTypes) {
+        Set<Class<?>> pathTypes = new HashSet<>(parentTypes);
+        pathTypes.add(entityMappingType.getJavaType().getJavaTypeClass());
+
+        List<FetchNode> fetchPlan = new ArrayList<>();
+        entityMappingType.forEachAttributeMapping((AttributeMapping attributeMapping) -> {
+            if (!(attributeMapping instanceof EntityAssociationMapping associationMapping)
+                    || attributeMapping instanceof PluralAttributeMapping) {
+                return;
+            }
+
+            FetchOptions fetchOptions = attributeMapping.getMappedFetchOptions();
+            EntityMappingType associatedType = associationMapping.getAssociatedEntityMappingType();
+            if (fetchOptions.getTiming() != FetchTiming.IMMEDIATE
+                    || fetchOptions.getStyle() != FetchStyle.JOIN
+                    || pathTypes.contains(associatedType.getJavaType().getJavaTypeClass())) {
+                return;
+            }
+
+            fetchPlan.add(new FetchNode(
+                    attributeMapping.getAttributeName(), createEagerFetchPlan(associatedType, pathTypes)));
+        });
+
+        return List.copyOf(fetchPlan);
+    }
+
+    private List<FetchNode> createProfileFetchPlan(Class<?> entityClass, String fetchProfile) {
+        EntityMappingType entityMappingType = getEntityMappingType(entityClass);
+        SearchFetchProfile searchFetchProfile = findSearchFetchProfile(entityClass, fetchProfile);
+        if (searchFetchProfile != null) {
+            return createFetchPlan(entityMappingType, fetchProfile, List.of(searchFetchProfile.attributePaths()), true);
+        }
+
+        List<String> attributePaths = new ArrayList<>();
+        collectAttributePaths("", getEntityGraph(entityClass, fetchProfile).getAttributeNodes(), attributePaths);
+        return createFetchPlan(entityMappingType, fetchProfile, attributePaths, false);
+    }
+
+    @Nullable
+    private SearchFetchProfile findSearchFetchProfile(Class<?> entityClass, String fetchProfile) {
+        for (SearchFetchProfile searchFetchProfile : entityClass.getAnnotationsByType(SearchFetchProfile.class)) {
+            if (searchFetchProfile.name().equals(fetchProfile)) {
+                return searchFetchProfile;
+            }
+        }
+
+        return null;
+    }
+
+    private RootGraphImplementor<?> getEntityGraph(Class<?> entityClass, String fetchProfile) {
+        SessionFactoryImplementor sessionFactory = getSessionFactory();
+        RootGraphImplementor<?> entityGraph = sessionFactory.findEntityGraphByName(fetchProfile);
+        if (entityGraph == null
+                || !entityGraph.appliesTo(sessionFactory.getJpaMetamodel().entity(entityClass))) {
+            throw new HibernateSearchEngineException(
+                    "Fetch profile '%s' was not found for entity %s".formatted(fetchProfile, entityClass));
+        }
+
+        return entityGraph;
+    }
+
+    private void collectAttributePaths(
+            String parentPath, List<? extends AttributeNode<?>> attributeNodes, List<String> attributePaths) {
+        for (AttributeNode<?> attributeNode : attributeNodes) {
+            String attributePath = parentPath + attributeNode.getAttributeName();
+            attributePaths.add(attributePath);
+            for (Subgraph<?> subgraph : attributeNode.getSubgraphs().values()) {
+                collectAttributePaths(attributePath + ".", subgraph.getAttributeNodes(), attributePaths);
+            }
         }
     }
 
-    private boolean shouldSkipJoin(Field field) {
-        if (FetchType.LAZY == resolveFetchType(field)) {
-            return true;
+    /**
+     * Collections can't be fetched with a paginated query, so they are rejected in the attribute paths of search fetch
+     * profiles and loaded separately for entity graphs. Basic attributes of entity graphs are skipped.
+     */
+    private List<FetchNode> createFetchPlan(
+            EntityMappingType entityMappingType,
+            String fetchProfile,
+            List<String> attributePaths,
+            boolean associationsOnly) {
+        Class<?> entityClass = entityMappingType.getJavaType().getJavaTypeClass();
+        FetchNodeBuilder rootBuilder = new FetchNodeBuilder();
+        for (String attributePath : attributePaths) {
+            EntityMappingType mappingType = entityMappingType;
+            FetchNodeBuilder nodeBuilder = rootBuilder;
+            for (String attributeName : attributePath.split("\\.")) {
+                AttributeMapping attributeMapping = mappingType.findAttributeMapping(attributeName);
+                if (attributeMapping == null) {
+                    throw new HibernateSearchEngineException("Fetch profile '%s' of %s contains unknown attribute '%s'"
+                            .formatted(fetchProfile, entityClass, attributePath));
+                }
+
+                boolean association = attributeMapping instanceof EntityAssociationMapping
+                        && !(attributeMapping instanceof PluralAttributeMapping);
+                if (!association && associationsOnly) {
+                    throw new HibernateSearchEngineException(
+                            "Fetch profile '%s' of %s can only contain single valued associations. Invalid attribute: '%s'"
+                                    .formatted(fetchProfile, entityClass, attributePath));
+                }
+                if (!association) {
+                    break;
+                }
+
+                nodeBuilder = nodeBuilder.children.computeIfAbsent(attributeName, name -> new FetchNodeBuilder());
+                mappingType = ((EntityAssociationMapping) attributeMapping).getAssociatedEntityMappingType();
+            }
         }
 
-        org.hibernate.annotations.Fetch fetchAnnotation = field.getAnnotation(org.hibernate.annotations.Fetch.class);
-        return fetchAnnotation != null && fetchAnnotation.value() != FetchMode.JOIN;
+        return rootBuilder.build();
+    }
+
+    private EntityMappingType getEntityMappingType(Class<?> entityClass) {
+        return getSessionFactory().getMappingMetamodel().getEntityDescriptor(entityClass);
     }
 
-    private FetchType resolveFetchType(Field field) {
-        if (field.isAnnotationPresent(ManyToOne.class)) {
-            return field.getAnnotation(ManyToOne.class).fetch();
-        } else if (field.isAnnotationPresent(OneToOne.class)) {
-            return field.getAnnotation(OneToOne.class).fetch();
-        } else {
-            return FetchType.LAZY;
+    private SessionFactoryImplementor getSessionFactory() {
+        SessionFactoryImplementor currentSessionFactory = sessionFactory;
+        if (currentSessionFactory == null) {
+            throw new HibernateSearchEngineException(
+                    "GraphBuilder created without an entity manager factory has to add eager joins to a query first");
+        }
+
+        return currentSessionFactory;
+    }
+
+    /**
+     * Association that is fetched with its nested associations
+     */
+    public record FetchNode(String attributeName, List<FetchNode> children) {}
+
+    private record FetchProfileKey(Class<?> entityClass, @Nullable String fetchProfile) {}
+
+    private static class FetchNodeBuilder {
+
+        private final Map<String, FetchNodeBuilder> children = new LinkedHashMap<>();
+
+        List<FetchNode> build() {
+            return children.entrySet().stream()
+                    .map(child -> new FetchNode(child.getKey(), child.getValue().build()))
+                    .toList();
         }
     }
 }
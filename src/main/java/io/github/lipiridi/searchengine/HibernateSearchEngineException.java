@@ -4,4 +4,8 @@ public class HibernateSearchEngineException extends RuntimeException {
     public HibernateSearchEngineException(String message) {
         super(message);
     }
+
+    public HibernateSearchEngineException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
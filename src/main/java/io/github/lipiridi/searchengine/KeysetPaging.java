@@ -0,0 +1,185 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.PredicateBuilder.JoinHolder;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.util.CursorUtils;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hibernate.query.SortDirection;
+
+/**
+ * Cursor based pagination: pages are ordered by the sorts with the id as tiebreaker and restricted to the rows that
+ * follow the position of the cursor, which encodes the sort keys of the last row of the previous page
+ */
+class KeysetPaging {
+
+    private final SearchFieldRegistry searchFieldRegistry;
+
+    KeysetPaging(SearchFieldRegistry searchFieldRegistry) {
+        this.searchFieldRegistry = searchFieldRegistry;
+    }
+
+    static boolean isKeysetPagination(SearchRequest searchRequest) {
+        return searchRequest.pagination() == PaginationType.KEYSET || searchRequest.cursor() != null;
+    }
+
+    /**
+     * Keyset pagination requires a unique order, so the entity id is appended as the last sort key. Collections have
+     * several values per entity, so they can't be keyset sort keys.
+     */
+    List<SearchSortPair> addKeysetTiebreaker(Class<?> entityClass, List<SearchSortPair> searchSortPairs) {
+        SearchField idSearchField = searchFieldRegistry.getIdSearchField(entityClass);
+        List<SearchSortPair> keysetSortPairs = new ArrayList<>();
+        for (SearchSortPair searchSortPair : searchSortPairs) {
+            SearchField searchField = searchSortPair.searchField();
+            if (searchField.distinct() || !Comparable.class.isAssignableFrom(searchField.fieldType())) {
+                throw new HibernateSearchEngineException("Keyset pagination is not supported for sorting by field '%s'"
+                        .formatted(searchSortPair.sort().field()));
+            }
+
+            keysetSortPairs.add(
+                    new SearchSortPair(searchSortPair.sort(), searchField, isNullable(entityClass, searchField)));
+        }
+
+        if (searchSortPairs.stream()
+                .noneMatch(searchSortPair -> searchSortPair.searchField().path().equals(idSearchField.path()))) {
+            keysetSortPairs.add(
+                    new SearchSortPair(new Sort(idSearchField.id(), SortDirection.ASCENDING), idSearchField, false));
+        }
+
+        return keysetSortPairs;
+    }
+
+    /**
+     * Paths through optional attributes, or that leave the metamodel, can be null
+     */
+    private boolean isNullable(Class<?> entityClass, SearchField searchField) {
+        SearchFieldPath searchFieldPath = searchFieldRegistry.getSearchFieldPath(entityClass, searchField);
+        return searchFieldPath.attributes().size() < searchFieldPath.segments().size()
+                || searchFieldPath.attributes().stream()
+                        .anyMatch(attribute -> !(attribute instanceof SingularAttribute<?, ?> singularAttribute)
+                                || singularAttribute.isOptional());
+    }
+
+    /**
+     * Sort keys are selected after the first selection, so that the cursor is created without loading associations of
+     * the last entity, see {@link #readKeysetPage}
+     */
+    List<Selection<?>> getKeysetSelections(
+            Root<?> root, Selection<?> firstSelection, JoinHolder joinHolder, List<SearchSortPair> searchSortPairs) {
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(firstSelection);
+        searchSortPairs.forEach(
+                searchSortPair -> selections.add(joinHolder.getPath(root, searchSortPair.searchField())));
+        return selections;
+    }
+
+    /**
+     * Restricts the query to rows that follow the cursor position in the sort order:
+     * {@code (k1 > v1) or (k1 = v1 and k2 > v2) or ...}. Cursor values of nullable keys can be null, which is greater
+     * than any other value.
+     */
+    @SuppressWarnings("unchecked")
+    void addSeekPredicate(
+            Root<?> root,
+            CriteriaBuilder criteriaBuilder,
+            CriteriaQuery<?> criteriaQuery,
+            JoinHolder joinHolder,
+            List<SearchSortPair> searchSortPairs,
+            List<ParameterExpression<?>> parameters) {
+        List<Predicate> seekPredicates = new ArrayList<>();
+        List<Predicate> equalPredicates = new ArrayList<>();
+        for (SearchSortPair searchSortPair : searchSortPairs) {
+            SearchField searchField = searchSortPair.searchField();
+            Path<Comparable<Object>> path = joinHolder.getPath(root, searchField);
+            var value = (ParameterExpression<Comparable<Object>>) criteriaBuilder.parameter(searchField.fieldType());
+            parameters.add(value);
+
+            boolean descending = searchSortPair.sort().direction() == SortDirection.DESCENDING;
+            Predicate followingPredicate =
+                    descending ? criteriaBuilder.lessThan(path, value) : criteriaBuilder.greaterThan(path, value);
+            Predicate equalPredicate = criteriaBuilder.equal(path, value);
+            if (searchSortPair.nullable()) {
+                Predicate followingNull = descending
+                        ? criteriaBuilder.and(criteriaBuilder.isNull(value), criteriaBuilder.isNotNull(path))
+                        : criteriaBuilder.and(criteriaBuilder.isNotNull(value), criteriaBuilder.isNull(path));
+                followingPredicate = criteriaBuilder.or(followingPredicate, followingNull);
+                equalPredicate = criteriaBuilder.or(
+                        equalPredicate,
+                        criteriaBuilder.and(criteriaBuilder.isNull(value), criteriaBuilder.isNull(path)));
+            }
+
+            List<Predicate> keyPredicates = new ArrayList<>(equalPredicates);
+            keyPredicates.add(followingPredicate);
+            seekPredicates.add(criteriaBuilder.and(keyPredicates.toArray(Predicate[]::new)));
+            equalPredicates.add(equalPredicate);
+        }
+
+        Predicate seekPredicate = criteriaBuilder.or(seekPredicates.toArray(Predicate[]::new));
+        Predicate restriction = criteriaQuery.getRestriction();
+        criteriaQuery.where(restriction == null ? seekPredicate : criteriaBuilder.and(restriction, seekPredicate));
+    }
+
+    /**
+     * @return values of the parameters of the seek predicate in the order of the sorts
+     */
+    List<Object> getSeekParameterValues(List<SearchSortPair> searchSortPairs, String cursor) {
+        List<String> cursorValues = CursorUtils.decode(cursor);
+        if (cursorValues.size() != searchSortPairs.size() + 1
+                || !getSortSignature(searchSortPairs).equals(cursorValues.getFirst())) {
+            throw new HibernateSearchEngineException("Cursor '%s' doesn't match the requested sorts".formatted(cursor));
+        }
+
+        List<Object> parameterValues = new ArrayList<>();
+        for (int i = 0; i < searchSortPairs.size(); i++) {
+            parameterValues.add(CursorUtils.fromCursorValue(
+                    cursorValues.get(i + 1), searchSortPairs.get(i).searchField()));
+        }
+
+        return parameterValues;
+    }
+
+    /**
+     * Reads a keyset page from rows that start with the entity or its id, followed by the sort keys. The cursor is
+     * created from the selected sort keys, so that associations of the last entity are not loaded to read them.
+     */
+    @SuppressWarnings("unchecked")
+    <T> FetchResult<T> readKeysetPage(List<Tuple> rows, int size, List<SearchSortPair> searchSortPairs) {
+        List<Tuple> pageRows = rows.size() > size ? rows.subList(0, size) : rows;
+        String nextCursor = rows.size() > size ? createCursor(pageRows.getLast(), searchSortPairs) : null;
+
+        return new FetchResult<>(pageRows.stream().map(row -> (T) row.get(0)).toList(), nextCursor);
+    }
+
+    /**
+     * @param row the entity or its id followed by the values of the sort keys
+     */
+    private String createCursor(Tuple row, List<SearchSortPair> searchSortPairs) {
+        List<String> cursorValues = new ArrayList<>();
+        cursorValues.add(getSortSignature(searchSortPairs));
+        for (int i = 0; i < searchSortPairs.size(); i++) {
+            cursorValues.add(CursorUtils.toCursorValue(row.get(i + 1)));
+        }
+
+        return CursorUtils.encode(cursorValues);
+    }
+
+    private String getSortSignature(List<SearchSortPair> searchSortPairs) {
+        String signature = searchSortPairs.stream()
+                .map(searchSortPair -> searchSortPair.searchField().path() + ":"
+                        + searchSortPair.sort().direction())
+                .collect(Collectors.joining(","));
+        return Integer.toHexString(signature.hashCode());
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.lipiridi.searchengine;
+
+public enum PaginationType {
+    /**
+     * Classic page navigation, rows before the requested page are skipped by the database
+     */
+    OFFSET,
+    /**
+     * Seek navigation by the continuation cursor returned in the previous response, the cost of a page doesn't
+     * depend on its depth
+     */
+    KEYSET
+}
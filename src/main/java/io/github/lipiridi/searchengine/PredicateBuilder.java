@@ -0,0 +1,454 @@
+package io.github.lipiridi.searchengine;
+
+import static io.github.lipiridi.searchengine.util.FieldConvertUtils.getConvertedValue;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.text.FullTextFunction;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.criteria.AbstractQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.hibernate.query.SortDirection;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Builds the restrictions and orders of search queries and the values of their parameters
+ */
+class PredicateBuilder {
+
+    private final SearchFieldRegistry searchFieldRegistry;
+    private final SearchEngineProperties searchEngineProperties;
+    private final FullTextFunction fullTextFunction;
+
+    PredicateBuilder(
+            SearchFieldRegistry searchFieldRegistry,
+            SearchEngineProperties searchEngineProperties,
+            FullTextFunction fullTextFunction) {
+        this.searchFieldRegistry = searchFieldRegistry;
+        this.searchEngineProperties = searchEngineProperties;
+        this.fullTextFunction = fullTextFunction;
+    }
+
+    JoinHolder createJoinHolder() {
+        return new JoinHolder();
+    }
+
+    boolean isDistinctNeeded(@Nonnull SearchFilters searchFilters) {
+        // Filters in EXISTS subqueries don't multiply root rows, and collection filters of groups always use them
+        return !searchEngineProperties.isExistsSubqueries()
+                && searchFilters.searchFilterPairs().stream()
+                        .map(SearchFilterPair::searchField)
+                        .anyMatch(SearchField::distinct);
+    }
+
+    void addFilters(
+            Root<?> root,
+            CriteriaBuilder criteriaBuilder,
+            AbstractQuery<?> criteriaQuery,
+            JoinHolder joinHolder,
+            SearchFilters searchFilters,
+            List<ParameterExpression<?>> parameters) {
+        Predicate predicate = criteriaBuilder.conjunction();
+        if (searchFilters.isEmpty()) {
+            return;
+        }
+
+        var searchConsumer = new FilterQueryCriteriaConsumer(
+                criteriaBuilder, root, joinHolder, predicate, parameters, fullTextFunction);
+        if (!searchEngineProperties.isExistsSubqueries()) {
+            searchFilters.searchFilterPairs().forEach(searchConsumer);
+            criteriaQuery.where(addFilterGroup(
+                    root,
+                    criteriaBuilder,
+                    criteriaQuery,
+                    joinHolder,
+                    searchFilters,
+                    parameters,
+                    searchConsumer.getPredicate()));
+            return;
+        }
+
+        // Filters are visited in the request order, so that parameters keep the order of their values
+        Map<String, ExistsSubquery> existsSubqueries = new LinkedHashMap<>();
+        for (SearchFilterPair searchFilterPair : searchFilters.searchFilterPairs()) {
+            SearchField searchField = searchFilterPair.searchField();
+            if (!searchField.distinct()) {
+                searchConsumer.accept(searchFilterPair);
+                continue;
+            }
+
+            existsSubqueries
+                    .computeIfAbsent(
+                            getCollectionPath(root, searchField),
+                            collectionPath ->
+                                    createExistsSubquery(root, criteriaBuilder, criteriaQuery, predicate, parameters))
+                    .filterConsumer()
+                    .accept(searchFilterPair);
+        }
+
+        Predicate resultPredicate = searchConsumer.getPredicate();
+        for (ExistsSubquery existsSubquery : existsSubqueries.values()) {
+            Subquery<Integer> subquery = existsSubquery.subquery();
+            subquery.where(existsSubquery.filterConsumer().getPredicate());
+            resultPredicate = criteriaBuilder.and(resultPredicate, criteriaBuilder.exists(subquery));
+        }
+
+        criteriaQuery.where(addFilterGroup(
+                root, criteriaBuilder, criteriaQuery, joinHolder, searchFilters, parameters, resultPredicate));
+    }
+
+    /**
+     * Parameters of the group are created after the parameters of the filters, as their values are bound in this order
+     */
+    private Predicate addFilterGroup(
+            Root<?> root,
+            CriteriaBuilder criteriaBuilder,
+            AbstractQuery<?> criteriaQuery,
+            JoinHolder joinHolder,
+            SearchFilters searchFilters,
+            List<ParameterExpression<?>> parameters,
+            Predicate predicate) {
+        FilterTree filterGroup = searchFilters.filterGroup();
+        if (filterGroup == null) {
+            return predicate;
+        }
+
+        return criteriaBuilder.and(
+                predicate,
+                createFilterGroupPredicate(root, criteriaBuilder, criteriaQuery, joinHolder, filterGroup, parameters));
+    }
+
+    /**
+     * Each collection filter of a group gets its own correlated EXISTS subquery, as a join would turn a negated or
+     * alternative filter into a condition on a single element
+     */
+    private Predicate createFilterGroupPredicate(
+            Root<?> root,
+            CriteriaBuilder criteriaBuilder,
+            AbstractQuery<?> criteriaQuery,
+            JoinHolder joinHolder,
+            FilterTree filterTree,
+            List<ParameterExpression<?>> parameters) {
+        return switch (filterTree) {
+            case SearchFilterPair searchFilterPair
+            when searchFilterPair.searchField().distinct() -> {
+                ExistsSubquery existsSubquery = createExistsSubquery(
+                        root, criteriaBuilder, criteriaQuery, criteriaBuilder.conjunction(), parameters);
+                existsSubquery.filterConsumer().accept(searchFilterPair);
+                Subquery<Integer> subquery = existsSubquery.subquery();
+                subquery.where(existsSubquery.filterConsumer().getPredicate());
+                yield criteriaBuilder.exists(subquery);
+            }
+            case SearchFilterPair searchFilterPair -> {
+                var filterConsumer = new FilterQueryCriteriaConsumer(
+                        criteriaBuilder, root, joinHolder, criteriaBuilder.conjunction(), parameters, fullTextFunction);
+                filterConsumer.accept(searchFilterPair);
+                yield filterConsumer.getPredicate();
+            }
+            case FilterTree.Branch branch -> {
+                Predicate[] predicates = branch.children().stream()
+                        .map(child -> createFilterGroupPredicate(
+                                root, criteriaBuilder, criteriaQuery, joinHolder, child, parameters))
+                        .toArray(Predicate[]::new);
+                yield switch (branch.operator()) {
+                    case AND -> criteriaBuilder.and(predicates);
+                    case OR -> criteriaBuilder.or(predicates);
+                    case NOT -> criteriaBuilder.not(predicates[0]);
+                };
+            }
+            case FilterTree.Constant constant ->
+                constant == FilterTree.Constant.TRUE ? criteriaBuilder.conjunction() : criteriaBuilder.disjunction();
+        };
+    }
+
+    /**
+     * Filters on the same collection share one correlated subquery, so they have to match the same element as with
+     * the join
+     */
+    private ExistsSubquery createExistsSubquery(
+            Root<?> root,
+            CriteriaBuilder criteriaBuilder,
+            AbstractQuery<?> criteriaQuery,
+            Predicate predicate,
+            List<ParameterExpression<?>> parameters) {
+        Subquery<Integer> subquery = criteriaQuery.subquery(Integer.class);
+        Root<?> correlatedRoot = subquery.correlate(root);
+        subquery.select(criteriaBuilder.literal(1));
+
+        var filterConsumer = new FilterQueryCriteriaConsumer(
+                criteriaBuilder, correlatedRoot, new JoinHolder(), predicate, parameters, fullTextFunction);
+        return new ExistsSubquery(subquery, filterConsumer);
+    }
+
+    private String getCollectionPath(Root<?> root, SearchField searchField) {
+        String collectionJoinPath = searchFieldRegistry
+                .getSearchFieldPath(root.getJavaType(), searchField)
+                .collectionJoinPath();
+        return collectionJoinPath != null ? collectionJoinPath : searchField.path();
+    }
+
+    void addSorts(
+            Root<?> root,
+            CriteriaBuilder criteriaBuilder,
+            CriteriaQuery<?> criteriaQuery,
+            JoinHolder joinHolder,
+            List<SearchSortPair> searchSortPairs) {
+        if (CollectionUtils.isEmpty(searchSortPairs)) {
+            return;
+        }
+
+        // Nulls of nullable keyset sorts are ordered as the greatest values, which the seek predicate relies on
+        HibernateCriteriaBuilder hibernateCriteriaBuilder = (HibernateCriteriaBuilder) criteriaBuilder;
+        List<Order> orders = searchSortPairs.stream()
+                .map(searchSortPair -> {
+                    SearchField searchField = searchSortPair.searchField();
+                    Path<?> path = joinHolder.getPath(root, searchField);
+                    boolean descending = searchSortPair.sort().direction() == SortDirection.DESCENDING;
+
+                    if (searchSortPair.nullable()) {
+                        return descending
+                                ? hibernateCriteriaBuilder.desc(path, true)
+                                : hibernateCriteriaBuilder.asc(path, false);
+                    }
+
+                    return descending ? criteriaBuilder.desc(path) : criteriaBuilder.asc(path);
+                })
+                .toList();
+
+        criteriaQuery.orderBy(orders);
+    }
+
+    /**
+     * Values are returned in the same order as parameters are created by {@link FilterQueryCriteriaConsumer}
+     */
+    List<Object> getParameterValues(SearchFilters searchFilters) {
+        List<Object> parameterValues = new ArrayList<>();
+        for (SearchFilterPair searchFilterPair : searchFilters.getAllSearchFilterPairs()) {
+            Filter filter = searchFilterPair.filter();
+            FilterType filterType = filter.type();
+            if (filterType.isNullAllowed()) {
+                continue;
+            }
+
+            SearchField searchField = searchFilterPair.searchField();
+            var valueConverter = searchFieldRegistry.getValueConverter(searchField);
+            switch (filterType) {
+                case IN, NOT_IN -> {
+                    List<Object> valueList =
+                            new ArrayList<>(getPaddedSize(filter.value().size()));
+                    for (String originalValue : filter.value()) {
+                        valueList.add(getConvertedValue(originalValue, searchField, valueConverter));
+                    }
+                    padValueList(valueList);
+                    parameterValues.add(valueList);
+                }
+                case STARTS_WITH ->
+                    parameterValues.add(
+                            escapeLikeValue(filter.value().iterator().next()) + "%");
+                case EQUAL_IGNORE_CASE ->
+                    parameterValues.add(filter.value().iterator().next().toLowerCase());
+                case LIKE, NOT_LIKE ->
+                    parameterValues.add(getLikeValue(
+                            getConvertedValue(filter.value().iterator().next(), searchField, valueConverter)));
+                default ->
+                    parameterValues.add(
+                            getConvertedValue(filter.value().iterator().next(), searchField, valueConverter));
+            }
+        }
+
+        return parameterValues;
+    }
+
+    /**
+     * Pads large value lists to the next power of two by repeating the last value. The collection parameter is expanded
+     * to one placeholder per value, so this limits the number of distinct SQL statements.
+     */
+    private void padValueList(List<Object> valueList) {
+        if (valueList.isEmpty()) {
+            return;
+        }
+
+        Object lastValue = valueList.getLast();
+        for (int i = valueList.size(); i < getPaddedSize(valueList.size()); i++) {
+            valueList.add(lastValue);
+        }
+    }
+
+    private int getPaddedSize(int size) {
+        int threshold = searchEngineProperties.getInListPaddingThreshold();
+        if (threshold < 0 || size <= threshold || size <= 1) {
+            return size;
+        }
+
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static String getLikeValue(@Nullable Object singleValue) {
+        return singleValue == null ? "" : "%" + singleValue.toString().toLowerCase() + "%";
+    }
+
+    private static String escapeLikeValue(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Joins are keyed by the join paths resolved at startup, so that filters and sorts on the same path share one join
+     */
+    class JoinHolder {
+
+        private final Map<String, Join<?, ?>> builtJoins = new HashMap<>();
+
+        private JoinHolder() {}
+
+        <Y> Path<Y> getPath(Root<?> root, SearchField searchField) {
+            SearchFieldPath searchFieldPath = searchFieldRegistry.getSearchFieldPath(root.getJavaType(), searchField);
+            List<String> segments = searchFieldPath.segments();
+            List<String> joinPaths = searchFieldPath.joinPaths();
+
+            if (joinPaths.isEmpty()) {
+                return root.get(segments.getFirst());
+            }
+
+            From<?, ?> rootJoin = root;
+            for (int i = 0; i < joinPaths.size(); i++) {
+                Join<?, ?> cachedJoin = builtJoins.get(joinPaths.get(i));
+                if (cachedJoin == null) {
+                    cachedJoin = rootJoin.join(segments.get(i), JoinType.LEFT);
+                    builtJoins.put(joinPaths.get(i), cachedJoin);
+                }
+                rootJoin = cachedJoin;
+            }
+
+            if (searchFieldPath.elementCollection()) {
+                // The join of an element collection is the path of its values, their type is the field type
+                @SuppressWarnings("unchecked")
+                Path<Y> elementPath = (Path<Y>) rootJoin;
+                return elementPath;
+            }
+
+            return rootJoin.get(segments.getLast());
+        }
+    }
+
+    private static class FilterQueryCriteriaConsumer implements Consumer<SearchFilterPair> {
+
+        private final CriteriaBuilder builder;
+        private final Root<?> root;
+        private final JoinHolder joinHolder;
+        private final List<ParameterExpression<?>> parameters;
+        private final FullTextFunction fullTextFunction;
+        private Predicate predicate;
+
+        public FilterQueryCriteriaConsumer(
+                CriteriaBuilder builder,
+                Root<?> root,
+                JoinHolder joinHolder,
+                Predicate predicate,
+                List<ParameterExpression<?>> parameters,
+                FullTextFunction fullTextFunction) {
+            this.builder = builder;
+            this.root = root;
+            this.joinHolder = joinHolder;
+            this.predicate = predicate;
+            this.parameters = parameters;
+            this.fullTextFunction = fullTextFunction;
+        }
+
+        public Predicate getPredicate() {
+            return predicate;
+        }
+
+        @Override
+        public void accept(SearchFilterPair searchFilterPair) {
+            Filter filter = searchFilterPair.filter();
+            SearchField searchField = searchFilterPair.searchField();
+
+            switch (filter.type()) {
+                case IS_NULL -> predicate = builder.and(predicate, builder.isNull(getPath(searchField)));
+                case IS_NOT_NULL -> predicate = builder.and(predicate, builder.isNotNull(getPath(searchField)));
+                case EQUAL ->
+                    predicate =
+                            builder.and(predicate, builder.equal(getPath(searchField), createParameter(searchField)));
+                case NOT_EQUAL ->
+                    predicate = builder.and(
+                            predicate, builder.notEqual(getPath(searchField), createParameter(searchField)));
+                case IN ->
+                    predicate = builder.and(predicate, getPath(searchField).in(createParameter(Collection.class)));
+                case NOT_IN ->
+                    predicate = builder.and(
+                            predicate,
+                            getPath(searchField)
+                                    .in(createParameter(Collection.class))
+                                    .not());
+                case LIKE ->
+                    predicate = builder.and(
+                            predicate,
+                            builder.like(builder.lower(getPath(searchField)), createParameter(String.class)));
+                case NOT_LIKE ->
+                    predicate = builder.and(
+                            predicate,
+                            builder.notLike(builder.lower(getPath(searchField)), createParameter(String.class)));
+                case STARTS_WITH ->
+                    predicate = builder.and(
+                            predicate, builder.like(getPath(searchField), createParameter(String.class), '\\'));
+                case EQUAL_IGNORE_CASE ->
+                    predicate = builder.and(
+                            predicate,
+                            builder.equal(builder.lower(getPath(searchField)), createParameter(String.class)));
+                case FULL_TEXT ->
+                    predicate = builder.and(
+                            predicate,
+                            fullTextFunction.create(builder, getPath(searchField), createParameter(String.class)));
+                case GREATER_THAN ->
+                    predicate = builder.and(
+                            predicate, builder.greaterThan(getPath(searchField), createParameter(searchField)));
+                case GREATER_THAN_OR_EQUAL ->
+                    predicate = builder.and(
+                            predicate,
+                            builder.greaterThanOrEqualTo(getPath(searchField), createParameter(searchField)));
+                case LESS_THAN ->
+                    predicate = builder.and(
+                            predicate, builder.lessThan(getPath(searchField), createParameter(searchField)));
+                case LESS_THAN_OR_EQUAL ->
+                    predicate = builder.and(
+                            predicate, builder.lessThanOrEqualTo(getPath(searchField), createParameter(searchField)));
+            }
+        }
+
+        private <K extends Comparable<? super K>> ParameterExpression<K> createParameter(SearchField searchField) {
+            return createParameter(searchField.fieldType());
+        }
+
+        @SuppressWarnings("unchecked")
+        private <K> ParameterExpression<K> createParameter(Class<?> parameterType) {
+            var parameter = (ParameterExpression<K>) builder.parameter(parameterType);
+            parameters.add(parameter);
+            return parameter;
+        }
+
+        private <Y> Path<Y> getPath(SearchField searchField) {
+            return joinHolder.getPath(root, searchField);
+        }
+    }
+
+    private record ExistsSubquery(Subquery<Integer> subquery, FilterQueryCriteriaConsumer filterConsumer) {}
+}
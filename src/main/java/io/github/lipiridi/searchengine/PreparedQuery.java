@@ -0,0 +1,11 @@
+package io.github.lipiridi.searchengine;
+
+import java.util.List;
+
+/**
+ * Compiled query together with the values of its parameters and its pagination
+ *
+ * @param maxResults maximum number of results or -1 when the query is not limited
+ */
+record PreparedQuery<T>(
+        CompiledQuery<T> compiledQuery, List<Object> parameterValues, int firstResult, int maxResults) {}
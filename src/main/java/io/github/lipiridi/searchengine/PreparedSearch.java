@@ -0,0 +1,27 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.Tuple;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Queries of a validated search request that are compiled but not executed
+ *
+ * @param emptyResponse response of a request with contradicting filters, which needs no queries
+ * @param pageQuery selects the page, one extra row tells whether the next keyset page exists
+ * @param countQuery counts the total elements, or selects at most {@code countCap + 1} ids when the count cap is
+ *     positive. Null when the totals are not needed or are skipped by the query cost.
+ * @param pageReader reads the entities and the cursor of the next page from the rows of the page query
+ */
+record PreparedSearch<E>(
+        SearchRequest searchRequest,
+        @Nullable SearchResponse<?> emptyResponse,
+        @Nullable PreparedQuery<?> pageQuery,
+        @Nullable PreparedQuery<?> countQuery,
+        int countCap,
+        Map<String, PreparedQuery<Tuple>> facetQueries,
+        @Nullable Function<List<?>, FetchResult<E>> pageReader) {}
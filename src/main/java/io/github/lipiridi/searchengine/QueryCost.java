@@ -0,0 +1,23 @@
+package io.github.lipiridi.searchengine;
+
+/**
+ * Rough cost of a search request, derived from the parts that make the database work harder regardless of the data:
+ * skipped rows of the offset, joins, {@code DISTINCT}, {@code LIKE} filters that can't use an index and values of
+ * {@code IN} lists.
+ */
+record QueryCost(long offsetRows, int joins, boolean distinct, int likeFilters, int inListValues) {
+
+    private static final int OFFSET_ROWS_PER_POINT = 100;
+    private static final int JOIN_COST = 10;
+    private static final int DISTINCT_COST = 20;
+    private static final int LIKE_FILTER_COST = 10;
+    private static final int IN_LIST_VALUES_PER_POINT = 10;
+
+    long score() {
+        return offsetRows / OFFSET_ROWS_PER_POINT
+                + (long) joins * JOIN_COST
+                + (distinct ? DISTINCT_COST : 0)
+                + (long) likeFilters * LIKE_FILTER_COST
+                + inListValues / IN_LIST_VALUES_PER_POINT;
+    }
+}
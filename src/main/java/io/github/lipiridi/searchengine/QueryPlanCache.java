@@ -0,0 +1,75 @@
+package io.github.lipiridi.searchengine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of compiled criteria queries keyed by the request shape. Values of a request are bound as
+ * parameters, so requests that differ only in values share the same compiled query.
+ */
+public class QueryPlanCache {
+
+    private final int maxSize;
+    private final Map<Object, Object> plans;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public QueryPlanCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(Object shape, Supplier<T> compiler) {
+        if (maxSize <= 0) {
+            missCount.increment();
+            return compiler.get();
+        }
+
+        Object plan;
+        synchronized (plans) {
+            plan = plans.get(shape);
+        }
+
+        if (plan != null) {
+            hitCount.increment();
+            return (T) plan;
+        }
+
+        missCount.increment();
+        // Compiled outside the lock, concurrent misses of the same shape produce equivalent plans
+        T compiledPlan = compiler.get();
+        synchronized (plans) {
+            plans.putIfAbsent(shape, compiledPlan);
+        }
+
+        return compiledPlan;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public int size() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (plans) {
+            plans.clear();
+        }
+    }
+}
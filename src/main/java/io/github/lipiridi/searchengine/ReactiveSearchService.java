@@ -0,0 +1,196 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.FacetValue;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.ParameterExpression;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.hibernate.reactive.mutiny.Mutiny;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link SearchService} for Hibernate Reactive. Requests are validated and compiled by the
+ * search service, including its query plan cache, and executed in Mutiny sessions, so no thread is blocked while
+ * the database works. Result and count caches are not used, and every search runs in its own session, so the results
+ * are detached: fetch the associations the caller needs by a fetch profile.
+ */
+public class ReactiveSearchService {
+
+    private final SearchQueryCompiler searchQueryCompiler;
+    private final Mutiny.SessionFactory sessionFactory;
+
+    /**
+     * @param searchService compiles the queries, its entity manager has to belong to the same persistence unit
+     */
+    public ReactiveSearchService(SearchService searchService, Mutiny.SessionFactory sessionFactory) {
+        this.searchQueryCompiler = searchService.getSearchQueryCompiler();
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * @param searchService compiles the queries, its entity manager has to belong to a Hibernate Reactive persistence
+     *     unit, which provides the session factory
+     */
+    public ReactiveSearchService(SearchService searchService) {
+        this(
+                searchService,
+                searchService.getSearchQueryCompiler().getEntityManagerFactory().unwrap(Mutiny.SessionFactory.class));
+    }
+
+    public <E> Mono<SearchResponse<E>> search(SearchRequest searchRequest, Class<E> entityClass) {
+        return search(searchRequest, entityClass, Function.identity());
+    }
+
+    /**
+     * Validation errors are signalled as {@link HibernateSearchEngineException} by the returned mono
+     */
+    @SuppressWarnings("unchecked")
+    public <E, M> Mono<SearchResponse<M>> search(
+            SearchRequest searchRequest, Class<E> entityClass, Function<E, M> mapper) {
+        return Mono.defer(() -> {
+            PreparedSearch<E> preparedSearch = searchQueryCompiler.prepareSearch(searchRequest, entityClass);
+            if (preparedSearch.emptyResponse() != null) {
+                return Mono.just((SearchResponse<M>) preparedSearch.emptyResponse());
+            }
+
+            Uni<SearchResponse<M>> response =
+                    sessionFactory.withSession(session -> search(session, entityClass, preparedSearch, mapper));
+            return Mono.fromCompletionStage(response::subscribeAsCompletionStage);
+        });
+    }
+
+    /**
+     * Streams all entities that match the filters in the order of the sorts. Entities are read by keyset pages of
+     * {@code streamFetchSize}, limited by the max page size, each in its own session, and the next page is only
+     * requested when the subscriber has consumed the previous one. Pagination and facets of the request are ignored.
+     */
+    public <E> Flux<E> stream(SearchRequest searchRequest, Class<E> entityClass) {
+        SearchEngineProperties searchEngineProperties = searchQueryCompiler.getSearchEngineProperties();
+        int pageSize = Math.min(searchEngineProperties.getStreamFetchSize(), searchEngineProperties.getMaxPageSize());
+
+        return search(createStreamRequest(searchRequest, pageSize, null), entityClass)
+                .expand(searchResponse -> searchResponse.nextCursor() == null
+                        ? Mono.empty()
+                        : search(
+                                createStreamRequest(searchRequest, pageSize, searchResponse.nextCursor()), entityClass))
+                .concatMapIterable(SearchResponse::data, 1);
+    }
+
+    private <E, M> Uni<SearchResponse<M>> search(
+            Mutiny.Session session, Class<E> entityClass, PreparedSearch<E> preparedSearch, Function<E, M> mapper) {
+        SearchRequest searchRequest = preparedSearch.searchRequest();
+
+        // Queries of a reactive session can't overlap, so they are chained
+        return createQuery(session, preparedSearch.pageQuery())
+                .getResultList()
+                .map(rows -> preparedSearch.pageReader().apply(rows))
+                .call(fetchResult ->
+                        loadCollections(session, entityClass, fetchResult.entities(), searchRequest.fetchProfile()))
+                .chain(fetchResult -> countTotal(session, preparedSearch).chain(totalCount -> fetchFacets(
+                                session, preparedSearch.facetQueries())
+                        .map(facets -> createResponse(searchRequest, fetchResult, totalCount, facets, mapper))));
+    }
+
+    private <E> Uni<Void> loadCollections(
+            Mutiny.Session session, Class<E> entityClass, List<E> entities, @Nullable String fetchProfile) {
+        Uni<Void> loaded = Uni.createFrom().voidItem();
+        for (PreparedQuery<E> collectionQuery :
+                searchQueryCompiler.prepareCollectionQueries(entityClass, entities, fetchProfile)) {
+            loaded = loaded.chain(
+                    () -> createQuery(session, collectionQuery).getResultList().replaceWithVoid());
+        }
+
+        return loaded;
+    }
+
+    private Uni<TotalCount> countTotal(Mutiny.Session session, PreparedSearch<?> preparedSearch) {
+        PreparedQuery<?> countQuery = preparedSearch.countQuery();
+        if (countQuery == null) {
+            return Uni.createFrom()
+                    .item(
+                            preparedSearch.searchRequest().withoutTotals()
+                                    ? new TotalCount(0, false)
+                                    : new TotalCount(SearchResponse.UNKNOWN_TOTAL_ELEMENTS, false));
+        }
+
+        int countCap = preparedSearch.countCap();
+        if (countCap <= 0) {
+            return createQuery(session, countQuery)
+                    .getSingleResult()
+                    .map(count -> new TotalCount(((Number) count).longValue(), true));
+        }
+
+        return createQuery(session, countQuery)
+                .getResultList()
+                .map(ids -> ids.size() > countCap ? new TotalCount(countCap, false) : new TotalCount(ids.size(), true));
+    }
+
+    private Uni<Map<String, List<FacetValue>>> fetchFacets(
+            Mutiny.Session session, Map<String, PreparedQuery<Tuple>> facetQueries) {
+        Uni<Map<String, List<FacetValue>>> facets = Uni.createFrom().item(new LinkedHashMap<>());
+        for (Map.Entry<String, PreparedQuery<Tuple>> facetQuery : facetQueries.entrySet()) {
+            facets = facets.chain(fetchedFacets -> createQuery(session, facetQuery.getValue())
+                    .getResultList()
+                    .map(tuples -> {
+                        fetchedFacets.put(facetQuery.getKey(), SearchService.toFacetValues(tuples));
+                        return fetchedFacets;
+                    }));
+        }
+
+        return facets;
+    }
+
+    private <E, M> SearchResponse<M> createResponse(
+            SearchRequest searchRequest,
+            FetchResult<E> fetchResult,
+            TotalCount totalCount,
+            Map<String, List<FacetValue>> facets,
+            Function<E, M> mapper) {
+        List<M> data = fetchResult.entities().stream().map(mapper).toList();
+        return new SearchResponse<>(
+                searchRequest,
+                data.size(),
+                totalCount.value(),
+                data,
+                fetchResult.nextCursor(),
+                totalCount.exact(),
+                facets);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mutiny.SelectionQuery<T> createQuery(Mutiny.Session session, PreparedQuery<T> preparedQuery) {
+        CompiledQuery<T> compiledQuery = preparedQuery.compiledQuery().copy();
+        Mutiny.SelectionQuery<T> query = session.createQuery(compiledQuery.criteriaQuery());
+        List<ParameterExpression<?>> parameters = compiledQuery.parameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(
+                    (Parameter<Object>) parameters.get(i),
+                    preparedQuery.parameterValues().get(i));
+        }
+
+        query.setFirstResult(preparedQuery.firstResult());
+        if (preparedQuery.maxResults() >= 0) {
+            query.setMaxResults(preparedQuery.maxResults());
+        }
+
+        return query;
+    }
+
+    private static SearchRequest createStreamRequest(
+            SearchRequest searchRequest, int pageSize, @Nullable String cursor) {
+        return new SearchRequest(1, pageSize, true, searchRequest.sorts(), searchRequest.filters())
+                .withPagination(PaginationType.KEYSET)
+                .withCursor(cursor)
+                .withFilterGroup(searchRequest.filterGroup())
+                .withFetchProfile(searchRequest.fetchProfile());
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.dto.Facet;
+
+/**
+ * Facet of a search request with its resolved search field
+ */
+record SearchFacetPair(Facet facet, SearchField searchField) {}
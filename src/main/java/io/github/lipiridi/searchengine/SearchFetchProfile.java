@@ -0,0 +1,29 @@
+package io.github.lipiridi.searchengine;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Associations of an entity that are fetched when the search request names this profile in {@code fetchProfile},
+ * instead of all eager associations
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(SearchFetchProfiles.class)
+public @interface SearchFetchProfile {
+
+    String name();
+
+    /**
+     * Dot separated paths of single valued associations, e.g. {@code "author.address"}
+     */
+    String[] attributePaths() default {};
+
+    /**
+     * Collections of the entity that are initialized for all entities of the page with one query per collection
+     */
+    String[] collections() default {};
+}
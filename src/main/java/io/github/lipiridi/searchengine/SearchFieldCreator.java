@@ -9,12 +9,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class SearchFieldCreator {
@@ -22,7 +22,7 @@ public class SearchFieldCreator {
     private static final Set<Class<?>> SUPPORTED_CLASSES;
     private final SearchEngineProperties.NamingConvention namingConvention;
 
-    private final Map<Class<?>, List<SearchField>> collectedSearchFields = new HashMap<>();
+    private final Map<Class<?>, List<SearchField>> collectedSearchFields = new ConcurrentHashMap<>();
 
     static {
         var copy = new HashSet<>(ReflectionUtils.CLASS_CAST_FUNCTIONS.keySet());
@@ -35,17 +35,17 @@ public class SearchFieldCreator {
     }
 
     public List<SearchField> createFromClass(Class<?> entityClass) {
-        List<SearchField> existingSearchFields = collectedSearchFields.get(entityClass);
-        if (existingSearchFields != null) {
-            return existingSearchFields;
-        }
-
-        List<SearchField> searchFields = createFromClass(entityClass, null);
-
+        List<SearchField> searchFields = List.copyOf(createFromClass(entityClass, null));
         collectedSearchFields.put(entityClass, searchFields);
         return searchFields;
     }
 
+    /**
+     * @return search fields of the classes created by this creator
+     * @deprecated search fields of all entities are collected at startup, use
+     *     {@link SearchFieldRegistry#getSearchFields()}
+     */
+    @Deprecated
     public Map<Class<?>, List<SearchField>> getCollectedSearchFields() {
         return Collections.unmodifiableMap(collectedSearchFields);
     }
@@ -112,7 +112,7 @@ public class SearchFieldCreator {
                         fieldName + "." + nestedSearchField.path(),
                         nestedSearchField.fieldType(),
                         nestedSearchField.elementCollection(),
-                        distinct,
+                        distinct || nestedSearchField.distinct(),
                         nestedSearchField.filterTypes()))
                 .collect(Collectors.toList());
     }
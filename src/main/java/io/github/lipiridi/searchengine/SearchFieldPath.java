@@ -0,0 +1,101 @@
+package io.github.lipiridi.searchengine;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Path of a search field split into segments once, together with the joins it needs and its attributes in the
+ * metamodel
+ *
+ * @param joinPaths keys of the joins in the order they are built, the join of the i-th key is made by the i-th segment,
+ *     an element collection is joined by its last segment as well
+ * @param attributes attributes of the segments, shorter than the segments when the path leaves the metamodel
+ * @param entityTypes entity types reached by the path, changes of which affect the search results
+ */
+public record SearchFieldPath(
+        List<String> segments,
+        List<String> joinPaths,
+        boolean elementCollection,
+        List<Attribute<?, ?>> attributes,
+        Set<Class<?>> entityTypes) {
+
+    static SearchFieldPath of(ManagedType<?> rootType, SearchField searchField) {
+        List<String> segments = List.of(searchField.path().split("\\."));
+        boolean elementCollection = searchField.elementCollection();
+
+        List<String> joinPaths = new ArrayList<>();
+        if (segments.size() > 1 || elementCollection) {
+            int joinCount = elementCollection ? segments.size() : segments.size() - 1;
+            StringBuilder currentPath = new StringBuilder(segments.getFirst());
+            joinPaths.add(currentPath.toString());
+            for (int i = 1; i < joinCount; i++) {
+                currentPath.append('.').append(segments.get(i));
+                joinPaths.add(currentPath.toString());
+            }
+        }
+
+        List<Attribute<?, ?>> attributes = new ArrayList<>();
+        Set<Class<?>> entityTypes = new LinkedHashSet<>();
+        ManagedType<?> managedType = rootType;
+        for (String segment : segments) {
+            Attribute<?, ?> attribute = findAttribute(managedType, segment);
+            if (attribute == null) {
+                break;
+            }
+
+            attributes.add(attribute);
+            Type<?> type = attribute instanceof PluralAttribute<?, ?, ?> pluralAttribute
+                    ? pluralAttribute.getElementType()
+                    : ((SingularAttribute<?, ?>) attribute).getType();
+            if (!(type instanceof ManagedType<?> nestedManagedType)) {
+                break;
+            }
+
+            if (type instanceof EntityType<?>) {
+                entityTypes.add(type.getJavaType());
+            }
+            managedType = nestedManagedType;
+        }
+
+        return new SearchFieldPath(
+                segments,
+                Collections.unmodifiableList(joinPaths),
+                elementCollection,
+                Collections.unmodifiableList(attributes),
+                Collections.unmodifiableSet(entityTypes));
+    }
+
+    /**
+     * @return key of the join of the first collection on the path, filters with the same key have to match the same
+     *     element of the collection, or null when the path doesn't reach a collection
+     */
+    @Nullable
+    String collectionJoinPath() {
+        for (int i = 0; i < joinPaths.size() && i < attributes.size(); i++) {
+            if (attributes.get(i).isCollection()) {
+                return joinPaths.get(i);
+            }
+        }
+
+        return null;
+    }
+
+    @Nullable
+    private static Attribute<?, ?> findAttribute(ManagedType<?> managedType, String name) {
+        try {
+            return managedType.getAttribute(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
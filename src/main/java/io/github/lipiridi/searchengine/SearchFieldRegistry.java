@@ -0,0 +1,157 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.util.FieldConvertUtils;
+import io.github.lipiridi.searchengine.util.ReflectionUtils;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Immutable registry of search fields for every entity of the persistence unit. It is built once at startup, so
+ * lookups are lock-free and don't reflect over entity classes on the request path.
+ */
+public class SearchFieldRegistry {
+
+    private final Map<Class<?>, Map<String, SearchField>> searchFieldMaps;
+    private final Map<Class<?>, List<SearchField>> searchFields;
+    private final Map<SearchField, Function<String, Object>> valueConverters;
+    private final Map<SearchField, SearchFieldPath> searchFieldPaths;
+    private final Map<Class<?>, SearchField> idSearchFields;
+    private final Metamodel metamodel;
+
+    public SearchFieldRegistry(Metamodel metamodel, SearchEngineProperties.NamingConvention namingConvention) {
+        SearchFieldCreator searchFieldCreator = new SearchFieldCreator(namingConvention);
+        Map<Class<?>, Map<String, SearchField>> collectedSearchFieldMaps = new LinkedHashMap<>();
+        Map<Class<?>, List<SearchField>> collectedSearchFields = new LinkedHashMap<>();
+        Map<SearchField, Function<String, Object>> collectedValueConverters = new IdentityHashMap<>();
+        Map<SearchField, SearchFieldPath> collectedSearchFieldPaths = new IdentityHashMap<>();
+        Map<Class<?>, SearchField> collectedIdSearchFields = new LinkedHashMap<>();
+
+        for (EntityType<?> entityType : metamodel.getEntities()) {
+            Class<?> entityClass = entityType.getJavaType();
+            // Dynamic map entities don't have a java type
+            if (entityClass == null) {
+                continue;
+            }
+
+            List<SearchField> entitySearchFields = searchFieldCreator.createFromClass(entityClass);
+            collectedSearchFieldMaps.put(entityClass, toSearchFieldMap(entityClass, entitySearchFields));
+            for (SearchField searchField : entitySearchFields) {
+                collectedValueConverters.put(searchField, FieldConvertUtils.getValueConverter(searchField.fieldType()));
+                collectedSearchFieldPaths.put(searchField, SearchFieldPath.of(entityType, searchField));
+            }
+            if (!entitySearchFields.isEmpty()) {
+                collectedSearchFields.put(entityClass, entitySearchFields);
+            }
+
+            SearchField idSearchField = createIdSearchField(entityType);
+            if (idSearchField != null) {
+                collectedIdSearchFields.put(entityClass, idSearchField);
+                collectedSearchFieldPaths.put(idSearchField, SearchFieldPath.of(entityType, idSearchField));
+            }
+        }
+
+        this.searchFieldMaps = Collections.unmodifiableMap(collectedSearchFieldMaps);
+        this.searchFields = Collections.unmodifiableMap(collectedSearchFields);
+        this.valueConverters = Collections.unmodifiableMap(collectedValueConverters);
+        this.searchFieldPaths = Collections.unmodifiableMap(collectedSearchFieldPaths);
+        this.idSearchFields = Collections.unmodifiableMap(collectedIdSearchFields);
+        this.metamodel = metamodel;
+    }
+
+    public Map<String, SearchField> getSearchFieldMap(Class<?> entityClass) {
+        Map<String, SearchField> searchFieldMap = searchFieldMaps.get(entityClass);
+        if (searchFieldMap == null) {
+            throw new HibernateSearchEngineException(
+                    "Class %s is not an entity of the persistence unit".formatted(entityClass));
+        }
+
+        return searchFieldMap;
+    }
+
+    public Map<Class<?>, List<SearchField>> getSearchFields() {
+        return searchFields;
+    }
+
+    /**
+     * Returns the value converter resolved at startup. Search fields that are not registered, like custom field lists,
+     * fall back to the converter of their type.
+     */
+    public Function<String, Object> getValueConverter(SearchField searchField) {
+        Function<String, Object> valueConverter = valueConverters.get(searchField);
+        return valueConverter != null ? valueConverter : FieldConvertUtils.getValueConverter(searchField.fieldType());
+    }
+
+    /**
+     * Returns the path resolved at startup. Paths of search fields that are not registered are resolved on every call.
+     */
+    public SearchFieldPath getSearchFieldPath(Class<?> entityClass, SearchField searchField) {
+        SearchFieldPath searchFieldPath = searchFieldPaths.get(searchField);
+        return searchFieldPath != null
+                ? searchFieldPath
+                : SearchFieldPath.of(metamodel.managedType(entityClass), searchField);
+    }
+
+    /**
+     * Returns the search field of the id attribute, which is used by id queries and as keyset tiebreaker
+     */
+    public SearchField getIdSearchField(Class<?> entityClass) {
+        SearchField idSearchField = idSearchFields.get(entityClass);
+        if (idSearchField == null) {
+            getSearchFieldMap(entityClass);
+            throw new HibernateSearchEngineException(
+                    "Entities with composite id are not supported: %s".formatted(entityClass));
+        }
+
+        return idSearchField;
+    }
+
+    /**
+     * Root entity and the entities reached by the paths of the search fields, changes of which affect the result
+     */
+    Set<Class<?>> getQueriedEntityTypes(Class<?> entityClass, List<SearchField> searchFields) {
+        Set<Class<?>> entityTypes = new HashSet<>();
+        entityTypes.add(entityClass);
+
+        searchFields.forEach(searchField ->
+                entityTypes.addAll(getSearchFieldPath(entityClass, searchField).entityTypes()));
+
+        return entityTypes;
+    }
+
+    @Nullable
+    private static SearchField createIdSearchField(EntityType<?> entityType) {
+        if (!entityType.hasSingleIdAttribute()) {
+            return null;
+        }
+
+        return entityType.getSingularAttributes().stream()
+                .filter(SingularAttribute::isId)
+                .findFirst()
+                .map(idAttribute -> new SearchField(
+                        idAttribute.getName(), ReflectionUtils.getPrimitiveWrapper(idAttribute.getJavaType()), false))
+                .orElse(null);
+    }
+
+    private static Map<String, SearchField> toSearchFieldMap(Class<?> entityClass, List<SearchField> searchFields) {
+        Map<String, SearchField> searchFieldMap = new LinkedHashMap<>();
+        for (SearchField searchField : searchFields) {
+            if (searchFieldMap.putIfAbsent(searchField.id(), searchField) != null) {
+                throw new HibernateSearchEngineException(
+                        "Duplicate search field '%s' in entity %s".formatted(searchField.id(), entityClass));
+            }
+        }
+
+        return Collections.unmodifiableMap(searchFieldMap);
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+
+/**
+ * Filter of a search request with its resolved search field
+ */
+record SearchFilterPair(Filter filter, SearchField searchField) implements FilterTree {}
@@ -0,0 +1,50 @@
+package io.github.lipiridi.searchengine;
+
+import jakarta.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filters of the request with the simplified filter group, which is null when it doesn't restrict the results
+ */
+record SearchFilters(List<SearchFilterPair> searchFilterPairs, @Nullable FilterTree filterGroup) {
+
+    boolean isEmpty() {
+        return searchFilterPairs.isEmpty() && filterGroup == null;
+    }
+
+    boolean isContradiction() {
+        return filterGroup == FilterTree.Constant.FALSE;
+    }
+
+    boolean hasCollectionFilters() {
+        return getAllSearchFilterPairs().stream()
+                .map(SearchFilterPair::searchField)
+                .anyMatch(SearchField::distinct);
+    }
+
+    /**
+     * @return filters followed by the filters of the group, which is the order of their query parameters
+     */
+    List<SearchFilterPair> getAllSearchFilterPairs() {
+        if (filterGroup == null) {
+            return searchFilterPairs;
+        }
+
+        List<SearchFilterPair> allSearchFilterPairs = new ArrayList<>(searchFilterPairs);
+        allSearchFilterPairs.addAll(filterGroup.getSearchFilterPairs());
+        return allSearchFilterPairs;
+    }
+
+    /**
+     * Filters of the group can't be removed without changing its meaning, so the group is kept as is
+     */
+    SearchFilters withoutField(String field) {
+        return new SearchFilters(
+                searchFilterPairs.stream()
+                        .filter(searchFilterPair ->
+                                !searchFilterPair.filter().field().equals(field))
+                        .toList(),
+                filterGroup);
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.lipiridi.searchengine;
+
+import java.util.List;
+
+/**
+ * Validated search request resolved to the search fields
+ *
+ * @param totalsSkipped whether the count is skipped, as the query cost exceeds {@code max-query-cost-with-totals}
+ */
+record SearchPairs(
+        SearchFilters searchFilters,
+        List<SearchSortPair> searchSortPairs,
+        List<SearchFacetPair> searchFacetPairs,
+        boolean totalsSkipped) {}
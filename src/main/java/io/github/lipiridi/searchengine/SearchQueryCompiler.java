@@ -0,0 +1,757 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.PredicateBuilder.JoinHolder;
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Facet;
+import io.github.lipiridi.searchengine.dto.FacetValue;
+import io.github.lipiridi.searchengine.dto.FilterGroup;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.metrics.SearchMetrics;
+import io.github.lipiridi.searchengine.metrics.SearchPhase;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.hibernate.SharedSessionContract;
+
+/**
+ * Compiles the criteria queries of searches through the query plan cache, keyed by the shape of the request. Queries
+ * are built by the criteria builder of the entity manager factory, so compiling needs neither an entity manager nor a
+ * transaction and never blocks on the database.
+ */
+class SearchQueryCompiler {
+
+    private static final String QUERY_TIMEOUT_HINT = "org.hibernate.timeout";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CriteriaBuilder criteriaBuilder;
+    private final SearchFieldRegistry searchFieldRegistry;
+    private final SearchEngineProperties searchEngineProperties;
+    private final GraphBuilder graphBuilder;
+    private final PredicateBuilder predicateBuilder;
+    private final KeysetPaging keysetPaging;
+    private final SearchRequestResolver searchRequestResolver;
+    private final SearchMetrics searchMetrics;
+    private final QueryPlanCache queryPlanCache;
+
+    SearchQueryCompiler(
+            EntityManagerFactory entityManagerFactory,
+            SearchFieldRegistry searchFieldRegistry,
+            SearchEngineProperties searchEngineProperties,
+            GraphBuilder graphBuilder,
+            PredicateBuilder predicateBuilder,
+            KeysetPaging keysetPaging,
+            SearchRequestResolver searchRequestResolver,
+            SearchMetrics searchMetrics) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.criteriaBuilder = entityManagerFactory.getCriteriaBuilder();
+        this.searchFieldRegistry = searchFieldRegistry;
+        this.searchEngineProperties = searchEngineProperties;
+        this.graphBuilder = graphBuilder;
+        this.predicateBuilder = predicateBuilder;
+        this.keysetPaging = keysetPaging;
+        this.searchRequestResolver = searchRequestResolver;
+        this.searchMetrics = searchMetrics;
+
+        queryPlanCache = new QueryPlanCache(searchEngineProperties.getQueryPlanCacheSize());
+    }
+
+    EntityManagerFactory getEntityManagerFactory() {
+        return entityManagerFactory;
+    }
+
+    SearchEngineProperties getSearchEngineProperties() {
+        return searchEngineProperties;
+    }
+
+    QueryPlanCache getQueryPlanCache() {
+        return queryPlanCache;
+    }
+
+    /**
+     * Validates the request and compiles the queries of its page, total count and facets without executing them, so
+     * that {@link ReactiveSearchService} can execute them in a reactive session. The page is always fetched by one
+     * query, and the estimated count strategy falls back to the capped count, which doesn't need a blocking
+     * estimator.
+     */
+    <E> PreparedSearch<E> prepareSearch(SearchRequest searchRequest, Class<E> entityClass) {
+        var searchFieldMap = searchFieldRegistry.getSearchFieldMap(entityClass);
+        SearchPairs searchPairs = searchRequestResolver.resolve(searchRequest, entityClass, searchFieldMap);
+        SearchFilters searchFilters = searchPairs.searchFilters();
+        List<SearchSortPair> searchSortPairs = searchPairs.searchSortPairs();
+        List<SearchFacetPair> searchFacetPairs = searchPairs.searchFacetPairs();
+        if (searchFilters.isContradiction()) {
+            return new PreparedSearch<>(
+                    searchRequest,
+                    createEmptyResponse(searchRequest, entityClass, searchFacetPairs),
+                    null,
+                    null,
+                    0,
+                    Collections.emptyMap(),
+                    null);
+        }
+
+        boolean distinctNeeded = predicateBuilder.isDistinctNeeded(searchFilters);
+        boolean keysetPagination = KeysetPaging.isKeysetPagination(searchRequest);
+        boolean seekNeeded = keysetPagination && searchRequest.cursor() != null;
+
+        List<Object> parameterValues = predicateBuilder.getParameterValues(searchFilters);
+        if (seekNeeded) {
+            parameterValues.addAll(keysetPaging.getSeekParameterValues(searchSortPairs, searchRequest.cursor()));
+        }
+
+        PreparedQuery<?> pageQuery;
+        Function<List<?>, FetchResult<E>> pageReader;
+        if (keysetPagination) {
+            pageQuery = new PreparedQuery<>(
+                    getKeysetEntityQuery(
+                            entityClass, searchFilters, searchSortPairs, seekNeeded, searchRequest.fetchProfile()),
+                    parameterValues,
+                    0,
+                    searchRequest.size() + 1);
+            pageReader = rows -> keysetPaging.readKeysetPage(castList(rows), searchRequest.size(), searchSortPairs);
+        } else {
+            pageQuery = new PreparedQuery<>(
+                    getEntityQuery(
+                            entityClass, searchFilters, searchSortPairs, distinctNeeded, searchRequest.fetchProfile()),
+                    parameterValues,
+                    (searchRequest.page() - 1) * searchRequest.size(),
+                    searchRequest.size());
+            pageReader = rows -> new FetchResult<>(castList(rows), null);
+        }
+
+        PreparedQuery<?> countQuery = null;
+        int countCap = 0;
+        if (!searchRequest.withoutTotals() && !searchPairs.totalsSkipped()) {
+            CountStrategy countStrategy = Optional.ofNullable(searchRequest.countStrategy())
+                    .orElseGet(searchEngineProperties::getCountStrategy);
+            if (countStrategy == CountStrategy.EXACT) {
+                countQuery = new PreparedQuery<>(
+                        getCountQuery(entityClass, searchFilters, distinctNeeded),
+                        predicateBuilder.getParameterValues(searchFilters),
+                        0,
+                        -1);
+            } else {
+                countCap = searchEngineProperties.getCountCap();
+                countQuery = new PreparedQuery<>(
+                        getIdQuery(entityClass, searchFilters, distinctNeeded),
+                        predicateBuilder.getParameterValues(searchFilters),
+                        0,
+                        countCap + 1);
+            }
+        }
+
+        Map<String, PreparedQuery<Tuple>> facetQueries = new LinkedHashMap<>();
+        for (SearchFacetPair searchFacetPair : searchFacetPairs) {
+            facetQueries.put(
+                    searchFacetPair.facet().field(), prepareFacetQuery(entityClass, searchFilters, searchFacetPair));
+        }
+
+        return new PreparedSearch<>(searchRequest, null, pageQuery, countQuery, countCap, facetQueries, pageReader);
+    }
+
+    /**
+     * Contradicting filters can't match any entity, so the response is created without queries
+     */
+    <E, T> SearchResponse<T> createEmptyResponse(
+            SearchRequest searchRequest, Class<E> entityClass, List<SearchFacetPair> searchFacetPairs) {
+        Map<String, List<FacetValue>> facets = new LinkedHashMap<>();
+        searchFacetPairs.forEach(
+                searchFacetPair -> facets.put(searchFacetPair.facet().field(), Collections.emptyList()));
+        searchMetrics.recordResult(
+                entityClass, 0, KeysetPaging.isKeysetPagination(searchRequest) ? 0 : searchRequest.page());
+
+        return new SearchResponse<>(
+                searchRequest, 0, 0, Collections.emptyList(), null, !searchRequest.withoutTotals(), facets);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> castList(List<?> list) {
+        return (List<T>) list;
+    }
+
+    <E> CompiledQuery<E> getEntityQuery(
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean distinctNeeded,
+            @Nullable String fetchProfile) {
+        QueryShape queryShape = new QueryShape(
+                QueryKind.ENTITIES,
+                entityClass,
+                getFilterShapes(searchFilters),
+                searchSortPairs,
+                distinctNeeded,
+                false,
+                entityClass,
+                Collections.emptyList(),
+                fetchProfile);
+        return getCompiledQuery(
+                queryShape,
+                () -> compileEntityQuery(entityClass, searchFilters, searchSortPairs, distinctNeeded, fetchProfile));
+    }
+
+    <E> CompiledQuery<Tuple> getKeysetEntityQuery(
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean seekNeeded,
+            @Nullable String fetchProfile) {
+        QueryShape queryShape = new QueryShape(
+                QueryKind.KEYSET_ENTITIES,
+                entityClass,
+                getFilterShapes(searchFilters),
+                searchSortPairs,
+                false,
+                seekNeeded,
+                Tuple.class,
+                Collections.emptyList(),
+                fetchProfile);
+        return getCompiledQuery(
+                queryShape,
+                () -> compileKeysetEntityQuery(entityClass, searchFilters, searchSortPairs, seekNeeded, fetchProfile));
+    }
+
+    <E> CompiledQuery<Tuple> getPageIdQuery(
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean seekNeeded) {
+        QueryShape queryShape = new QueryShape(
+                QueryKind.PAGE_IDS,
+                entityClass,
+                getFilterShapes(searchFilters),
+                searchSortPairs,
+                true,
+                seekNeeded,
+                Tuple.class,
+                Collections.emptyList(),
+                null);
+        return getCompiledQuery(
+                queryShape, () -> compilePageIdQuery(entityClass, searchFilters, searchSortPairs, seekNeeded));
+    }
+
+    <E> CompiledQuery<E> getEntitiesByIdsQuery(Class<E> entityClass, @Nullable String fetchProfile) {
+        QueryShape queryShape = new QueryShape(
+                QueryKind.ENTITIES_BY_IDS,
+                entityClass,
+                FiltersShape.EMPTY,
+                Collections.emptyList(),
+                false,
+                false,
+                entityClass,
+                Collections.emptyList(),
+                fetchProfile);
+        return getCompiledQuery(queryShape, () -> compileEntitiesByIdsQuery(entityClass, fetchProfile));
+    }
+
+    <E> CompiledQuery<Long> getCountQuery(Class<E> entityClass, SearchFilters searchFilters, boolean distinctNeeded) {
+        QueryShape queryShape = new QueryShape(
+                QueryKind.COUNT,
+                entityClass,
+                getFilterShapes(searchFilters),
+                Collections.emptyList(),
+                distinctNeeded,
+                false,
+                entityClass,
+                Collections.emptyList(),
+                null);
+        return getCompiledQuery(queryShape, () -> compileCountQuery(entityClass, searchFilters, distinctNeeded));
+    }
+
+    <E> CompiledQuery<Object> getIdQuery(Class<E> entityClass, SearchFilters searchFilters, boolean distinctNeeded) {
+        QueryShape queryShape = new QueryShape(
+                QueryKind.IDS,
+                entityClass,
+                getFilterShapes(searchFilters),
+                Collections.emptyList(),
+                distinctNeeded,
+                false,
+                entityClass,
+                Collections.emptyList(),
+                null);
+        return getCompiledQuery(queryShape, () -> compileIdQuery(entityClass, searchFilters, distinctNeeded));
+    }
+
+    <E, P> CompiledQuery<?> getProjectionQuery(
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean distinctNeeded,
+            List<SearchField> selectedFields,
+            @Nullable Class<P> projectionClass) {
+        QueryShape queryShape = new QueryShape(
+                QueryKind.PROJECTIONS,
+                entityClass,
+                getFilterShapes(searchFilters),
+                searchSortPairs,
+                distinctNeeded,
+                false,
+                projectionClass == null ? Tuple.class : projectionClass,
+                selectedFields,
+                null);
+        return getCompiledQuery(
+                queryShape,
+                () -> compileProjectionQuery(
+                        entityClass, searchFilters, searchSortPairs, distinctNeeded, selectedFields, projectionClass));
+    }
+
+    <E> PreparedQuery<Tuple> prepareFacetQuery(
+            Class<E> entityClass, SearchFilters searchFilters, SearchFacetPair searchFacetPair) {
+        Facet facet = searchFacetPair.facet();
+        SearchField facetField = searchFacetPair.searchField();
+        SearchFilters facetFilterPairs =
+                facet.disjunctive() ? searchFilters.withoutField(facet.field()) : searchFilters;
+        boolean distinctNeeded = predicateBuilder.isDistinctNeeded(facetFilterPairs);
+
+        QueryShape queryShape = new QueryShape(
+                QueryKind.FACETS,
+                entityClass,
+                getFilterShapes(facetFilterPairs),
+                Collections.emptyList(),
+                distinctNeeded,
+                false,
+                Tuple.class,
+                List.of(facetField),
+                null);
+        CompiledQuery<Tuple> compiledQuery = getCompiledQuery(
+                queryShape, () -> compileFacetQuery(entityClass, facetFilterPairs, distinctNeeded, facetField));
+
+        return new PreparedQuery<>(
+                compiledQuery,
+                predicateBuilder.getParameterValues(facetFilterPairs),
+                0,
+                searchEngineProperties.getMaxFacetValues());
+    }
+
+    /**
+     * @return queries that initialize the batch collections of the entities, which have to be executed in the session
+     *     that loaded the entities
+     */
+    <E> List<PreparedQuery<E>> prepareCollectionQueries(
+            Class<E> entityClass, List<E> entities, @Nullable String fetchProfile) {
+        List<PreparedQuery<E>> collectionQueries = new ArrayList<>();
+        for (String collection : graphBuilder.getBatchCollections(entityClass, fetchProfile)) {
+            PreparedQuery<E> collectionQuery = prepareCollectionQuery(entityClass, entities, collection);
+            if (collectionQuery != null) {
+                collectionQueries.add(collectionQuery);
+            }
+        }
+
+        return collectionQueries;
+    }
+
+    /**
+     * @return query that initializes the collection of the entities, or null when it is loaded for all of them
+     */
+    @Nullable
+    <E> PreparedQuery<E> prepareCollectionQuery(Class<E> entityClass, List<E> entities, String collection) {
+        PersistenceUnitUtil persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+        List<Object> ids = entities.stream()
+                .filter(entity -> !persistenceUnitUtil.isLoaded(entity, collection))
+                .map(persistenceUnitUtil::getIdentifier)
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        QueryShape queryShape = new QueryShape(
+                QueryKind.COLLECTION,
+                entityClass,
+                FiltersShape.EMPTY,
+                Collections.emptyList(),
+                false,
+                false,
+                entityClass,
+                Collections.emptyList(),
+                collection);
+        CompiledQuery<E> compiledQuery =
+                getCompiledQuery(queryShape, () -> compileCollectionQuery(entityClass, collection));
+        return new PreparedQuery<>(compiledQuery, List.of(ids), 0, -1);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> TypedQuery<T> createQuery(
+            SharedSessionContract session, CompiledQuery<T> cachedQuery, List<Object> parameterValues) {
+        CompiledQuery<T> compiledQuery = cachedQuery.copy();
+        TypedQuery<T> query = session.createQuery(compiledQuery.criteriaQuery());
+        setQueryTimeout(query, searchEngineProperties.getQueryTimeout());
+
+        List<ParameterExpression<?>> parameters = compiledQuery.parameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter((ParameterExpression<Object>) parameters.get(i), parameterValues.get(i));
+        }
+
+        return query;
+    }
+
+    /**
+     * JDBC statement timeouts are whole seconds, and Hibernate rounds the millisecond JPA hint to the nearest second,
+     * so that timeouts below half a second would disable it. The timeout is rounded up instead.
+     */
+    static void setQueryTimeout(TypedQuery<?> query, @Nullable Duration queryTimeout) {
+        if (queryTimeout != null && queryTimeout.isPositive()) {
+            long seconds = queryTimeout.plusMillis(999).toSeconds();
+            query.setHint(QUERY_TIMEOUT_HINT, (int) Math.min(seconds, Integer.MAX_VALUE));
+        }
+    }
+
+    <T> TypedQuery<T> createQuery(SharedSessionContract session, PreparedQuery<T> preparedQuery) {
+        TypedQuery<T> query = createQuery(session, preparedQuery.compiledQuery(), preparedQuery.parameterValues());
+        query.setFirstResult(preparedQuery.firstResult());
+        if (preparedQuery.maxResults() >= 0) {
+            query.setMaxResults(preparedQuery.maxResults());
+        }
+
+        return query;
+    }
+
+    private <Q extends CompiledQuery<?>> Q getCompiledQuery(QueryShape queryShape, Supplier<Q> compiler) {
+        return queryPlanCache.get(
+                queryShape,
+                () -> searchMetrics.recordPhase(
+                        SearchPhase.CRITERIA_BUILDING,
+                        queryShape.entityClass(),
+                        queryShape.hasCollectionFilters(),
+                        compiler));
+    }
+
+    private <E> CompiledQuery<E> compileEntityQuery(
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean distinctNeeded,
+            @Nullable String fetchProfile) {
+        CriteriaQuery<E> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+        Root<E> root = criteriaQuery.from(entityClass);
+        // Explicit selection keeps the cached query immutable when Hibernate creates queries from it
+        criteriaQuery.select(root);
+
+        return compileEntityQuery(
+                criteriaQuery,
+                root,
+                predicateBuilder.createJoinHolder(),
+                searchFilters,
+                searchSortPairs,
+                distinctNeeded,
+                false,
+                fetchProfile);
+    }
+
+    /**
+     * Selects the sort keys along with the entity, see {@link KeysetPaging#readKeysetPage}. Keyset sorts are single
+     * valued, so the query is never distinct.
+     */
+    private <E> CompiledQuery<Tuple> compileKeysetEntityQuery(
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean seekNeeded,
+            @Nullable String fetchProfile) {
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<E> root = criteriaQuery.from(entityClass);
+
+        JoinHolder joinHolder = predicateBuilder.createJoinHolder();
+        criteriaQuery.multiselect(keysetPaging.getKeysetSelections(root, root, joinHolder, searchSortPairs));
+
+        return compileEntityQuery(
+                criteriaQuery, root, joinHolder, searchFilters, searchSortPairs, false, seekNeeded, fetchProfile);
+    }
+
+    private <T> CompiledQuery<T> compileEntityQuery(
+            CriteriaQuery<T> criteriaQuery,
+            Root<?> root,
+            JoinHolder joinHolder,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean distinctNeeded,
+            boolean seekNeeded,
+            @Nullable String fetchProfile) {
+        graphBuilder.addFetches(root, graphBuilder.getFetchPlan(root.getJavaType(), fetchProfile));
+        criteriaQuery.distinct(distinctNeeded);
+
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+        predicateBuilder.addFilters(root, criteriaBuilder, criteriaQuery, joinHolder, searchFilters, parameters);
+        predicateBuilder.addSorts(root, criteriaBuilder, criteriaQuery, joinHolder, searchSortPairs);
+
+        if (seekNeeded) {
+            keysetPaging.addSeekPredicate(
+                    root, criteriaBuilder, criteriaQuery, joinHolder, searchSortPairs, parameters);
+        }
+
+        return new CompiledQuery<>(criteriaQuery, parameters);
+    }
+
+    /**
+     * Sort paths are selected along with the id, as some databases require ORDER BY expressions of a DISTINCT query
+     * to be in the select list, and keyset cursors are created from them. They are single valued, so the rows stay
+     * distinct by id.
+     */
+    private <E> CompiledQuery<Tuple> compilePageIdQuery(
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean seekNeeded) {
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<E> root = criteriaQuery.from(entityClass);
+
+        JoinHolder joinHolder = predicateBuilder.createJoinHolder();
+        criteriaQuery.multiselect(keysetPaging.getKeysetSelections(
+                root, root.get(getIdSearchField(entityClass).path()), joinHolder, searchSortPairs));
+        criteriaQuery.distinct(true);
+
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+        predicateBuilder.addFilters(root, criteriaBuilder, criteriaQuery, joinHolder, searchFilters, parameters);
+        predicateBuilder.addSorts(root, criteriaBuilder, criteriaQuery, joinHolder, searchSortPairs);
+
+        if (seekNeeded) {
+            keysetPaging.addSeekPredicate(
+                    root, criteriaBuilder, criteriaQuery, joinHolder, searchSortPairs, parameters);
+        }
+
+        return new CompiledQuery<>(criteriaQuery, parameters);
+    }
+
+    private <E> CompiledQuery<E> compileEntitiesByIdsQuery(Class<E> entityClass, @Nullable String fetchProfile) {
+        CriteriaQuery<E> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+        Root<E> root = criteriaQuery.from(entityClass);
+        criteriaQuery.select(root);
+        graphBuilder.addFetches(root, graphBuilder.getFetchPlan(entityClass, fetchProfile));
+
+        ParameterExpression<List<Object>> idsParameter = createIdsParameter();
+        criteriaQuery.where(root.get(getIdSearchField(entityClass).path()).in(idsParameter));
+
+        return new CompiledQuery<>(criteriaQuery, List.of(idsParameter));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ParameterExpression<List<Object>> createIdsParameter() {
+        return (ParameterExpression<List<Object>>) (ParameterExpression<?>) criteriaBuilder.parameter(List.class);
+    }
+
+    private <E> CompiledQuery<E> compileCollectionQuery(Class<E> entityClass, String collection) {
+        CriteriaQuery<E> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+        Root<E> root = criteriaQuery.from(entityClass);
+        criteriaQuery.select(root).distinct(true);
+        root.fetch(collection, JoinType.LEFT);
+
+        ParameterExpression<List<Object>> idsParameter = createIdsParameter();
+        criteriaQuery.where(root.get(getIdSearchField(entityClass).path()).in(idsParameter));
+
+        return new CompiledQuery<>(criteriaQuery, List.of(idsParameter));
+    }
+
+    private <E> CompiledQuery<Long> compileCountQuery(
+            Class<E> entityClass, SearchFilters searchFilters, boolean distinctNeeded) {
+        CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
+        Root<E> root = criteriaQuery.from(entityClass);
+
+        Expression<Long> countExpression =
+                distinctNeeded ? criteriaBuilder.countDistinct(root) : criteriaBuilder.count(root);
+        criteriaQuery.select(countExpression);
+
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+        predicateBuilder.addFilters(
+                root, criteriaBuilder, criteriaQuery, predicateBuilder.createJoinHolder(), searchFilters, parameters);
+
+        return new CompiledQuery<>(criteriaQuery, parameters);
+    }
+
+    private <E> CompiledQuery<Tuple> compileFacetQuery(
+            Class<E> entityClass, SearchFilters searchFilters, boolean distinctNeeded, SearchField facetField) {
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<E> root = criteriaQuery.from(entityClass);
+
+        JoinHolder joinHolder = predicateBuilder.createJoinHolder();
+        // A collection facet gets its own join, so that filters on the collection don't restrict the grouped values
+        Path<?> facetPath =
+                (facetField.distinct() ? predicateBuilder.createJoinHolder() : joinHolder).getPath(root, facetField);
+        Expression<Long> countExpression = distinctNeeded || facetField.distinct()
+                ? criteriaBuilder.countDistinct(root)
+                : criteriaBuilder.count(root);
+        criteriaQuery
+                .multiselect(facetPath, countExpression)
+                .groupBy(facetPath)
+                .orderBy(criteriaBuilder.desc(countExpression), criteriaBuilder.asc(facetPath));
+
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+        predicateBuilder.addFilters(root, criteriaBuilder, criteriaQuery, joinHolder, searchFilters, parameters);
+
+        return new CompiledQuery<>(criteriaQuery, parameters);
+    }
+
+    private <E, P> CompiledQuery<?> compileProjectionQuery(
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean distinctNeeded,
+            List<SearchField> selectedFields,
+            @Nullable Class<P> projectionClass) {
+        CriteriaQuery<?> criteriaQuery = projectionClass == null
+                ? criteriaBuilder.createTupleQuery()
+                : criteriaBuilder.createQuery(projectionClass);
+        Root<E> root = criteriaQuery.from(entityClass);
+
+        JoinHolder joinHolder = predicateBuilder.createJoinHolder();
+        Selection<?>[] selections = selectedFields.stream()
+                .map(searchField -> joinHolder.getPath(root, searchField))
+                .toArray(Selection<?>[]::new);
+        if (projectionClass == null) {
+            criteriaQuery.multiselect(selections);
+        } else {
+            @SuppressWarnings("unchecked")
+            CriteriaQuery<P> projectionQuery = (CriteriaQuery<P>) criteriaQuery;
+            projectionQuery.select(criteriaBuilder.construct(projectionClass, selections));
+        }
+
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+        if (distinctNeeded) {
+            // DISTINCT over projected columns would merge different entities with equal values, so collection
+            // filters are applied to the ids in a subquery instead
+            SearchField idSearchField = getIdSearchField(entityClass);
+            @SuppressWarnings("unchecked")
+            Class<Object> idType = (Class<Object>) idSearchField.fieldType();
+            Subquery<Object> subquery = criteriaQuery.subquery(idType);
+            Root<E> subqueryRoot = subquery.from(entityClass);
+            String idPath = idSearchField.path();
+            subquery.select(subqueryRoot.get(idPath));
+            predicateBuilder.addFilters(
+                    subqueryRoot,
+                    criteriaBuilder,
+                    subquery,
+                    predicateBuilder.createJoinHolder(),
+                    searchFilters,
+                    parameters);
+            criteriaQuery.where(root.get(idPath).in(subquery));
+        } else {
+            predicateBuilder.addFilters(root, criteriaBuilder, criteriaQuery, joinHolder, searchFilters, parameters);
+        }
+
+        predicateBuilder.addSorts(root, criteriaBuilder, criteriaQuery, joinHolder, searchSortPairs);
+
+        return new CompiledQuery<>(criteriaQuery, parameters);
+    }
+
+    private <E> CompiledQuery<Object> compileIdQuery(
+            Class<E> entityClass, SearchFilters searchFilters, boolean distinctNeeded) {
+        CriteriaQuery<Object> criteriaQuery = criteriaBuilder.createQuery(Object.class);
+        Root<E> root = criteriaQuery.from(entityClass);
+        criteriaQuery.select(root.get(getIdSearchField(entityClass).path()));
+        criteriaQuery.distinct(distinctNeeded);
+
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+        predicateBuilder.addFilters(
+                root, criteriaBuilder, criteriaQuery, predicateBuilder.createJoinHolder(), searchFilters, parameters);
+
+        return new CompiledQuery<>(criteriaQuery, parameters);
+    }
+
+    private SearchField getIdSearchField(Class<?> entityClass) {
+        return searchFieldRegistry.getIdSearchField(entityClass);
+    }
+
+    private FiltersShape getFilterShapes(SearchFilters searchFilters) {
+        List<FilterShape> filterShapes = searchFilters.searchFilterPairs().stream()
+                .map(this::getFilterShape)
+                .toList();
+        FilterTree filterGroup = searchFilters.filterGroup();
+        return new FiltersShape(filterShapes, filterGroup == null ? null : getFilterGroupShape(filterGroup));
+    }
+
+    private Object getFilterGroupShape(FilterTree filterTree) {
+        return switch (filterTree) {
+            case SearchFilterPair searchFilterPair -> getFilterShape(searchFilterPair);
+            case FilterTree.Branch branch ->
+                new FilterGroupShape(
+                        branch.operator(),
+                        branch.children().stream()
+                                .map(this::getFilterGroupShape)
+                                .toList());
+            case FilterTree.Constant constant -> constant;
+        };
+    }
+
+    private FilterShape getFilterShape(SearchFilterPair searchFilterPair) {
+        return new FilterShape(
+                searchFilterPair.searchField(), searchFilterPair.filter().type());
+    }
+
+    /**
+     * Values of {@code IN} lists are bound as one collection parameter, so the shape doesn't depend on their number
+     */
+    private record FilterShape(SearchField searchField, FilterType filterType) {}
+
+    /**
+     * Filter group shape with {@link FilterShape} leaves in place of filters
+     */
+    private record FilterGroupShape(FilterGroup.Operator operator, List<Object> children) {}
+
+    private record FiltersShape(List<FilterShape> filterShapes, @Nullable Object filterGroupShape) {
+
+        static final FiltersShape EMPTY = new FiltersShape(Collections.emptyList(), null);
+    }
+
+    /**
+     * @param fetchProfile fetch profile of entity queries, or the loaded collection of collection queries
+     */
+    private record QueryShape(
+            QueryKind queryKind,
+            Class<?> entityClass,
+            FiltersShape filtersShape,
+            List<SearchSortPair> searchSortPairs,
+            boolean distinct,
+            boolean seek,
+            Class<?> resultClass,
+            List<SearchField> selectedFields,
+            @Nullable String fetchProfile) {
+
+        boolean hasCollectionFilters() {
+            return filtersShape.filterShapes().stream()
+                            .map(FilterShape::searchField)
+                            .anyMatch(SearchField::distinct)
+                    || hasCollectionFilters(filtersShape.filterGroupShape());
+        }
+
+        private static boolean hasCollectionFilters(@Nullable Object filterGroupShape) {
+            return switch (filterGroupShape) {
+                case FilterShape filterShape -> filterShape.searchField().distinct();
+                case FilterGroupShape groupShape ->
+                    groupShape.children().stream().anyMatch(QueryShape::hasCollectionFilters);
+                case null, default -> false;
+            };
+        }
+    }
+
+    private enum QueryKind {
+        ENTITIES,
+        KEYSET_ENTITIES,
+        COUNT,
+        IDS,
+        PAGE_IDS,
+        ENTITIES_BY_IDS,
+        PROJECTIONS,
+        FACETS,
+        COLLECTION
+    }
+}
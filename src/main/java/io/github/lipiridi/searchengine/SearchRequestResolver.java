@@ -0,0 +1,354 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Facet;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.FilterGroup;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.metrics.SearchMetrics;
+import io.github.lipiridi.searchengine.metrics.SearchPhase;
+import io.github.lipiridi.searchengine.util.FieldConvertUtils;
+import jakarta.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Validates search requests and resolves their filters, sorts and facets to search fields. Requests that exceed the
+ * page size or the query cost limits are rejected before any query is compiled.
+ */
+class SearchRequestResolver {
+
+    private final SearchFieldRegistry searchFieldRegistry;
+    private final SearchEngineProperties searchEngineProperties;
+    private final GraphBuilder graphBuilder;
+    private final PredicateBuilder predicateBuilder;
+    private final KeysetPaging keysetPaging;
+    private final SearchMetrics searchMetrics;
+
+    SearchRequestResolver(
+            SearchFieldRegistry searchFieldRegistry,
+            SearchEngineProperties searchEngineProperties,
+            GraphBuilder graphBuilder,
+            PredicateBuilder predicateBuilder,
+            KeysetPaging keysetPaging,
+            SearchMetrics searchMetrics) {
+        this.searchFieldRegistry = searchFieldRegistry;
+        this.searchEngineProperties = searchEngineProperties;
+        this.graphBuilder = graphBuilder;
+        this.predicateBuilder = predicateBuilder;
+        this.keysetPaging = keysetPaging;
+        this.searchMetrics = searchMetrics;
+    }
+
+    SearchPairs resolve(SearchRequest searchRequest, Class<?> entityClass, Map<String, SearchField> searchFieldMap) {
+        return validate(entityClass, () -> createSearchPairs(searchRequest, entityClass, searchFieldMap));
+    }
+
+    /**
+     * Times the validation and records rejected requests
+     */
+    <T> T validate(Class<?> entityClass, Supplier<T> validation) {
+        try {
+            return searchMetrics.recordPhase(SearchPhase.VALIDATION, entityClass, false, validation);
+        } catch (HibernateSearchEngineException e) {
+            searchMetrics.recordRejected(entityClass, e);
+            throw e;
+        }
+    }
+
+    SearchPairs createSearchPairs(
+            SearchRequest searchRequest, Class<?> entityClass, Map<String, SearchField> searchFieldMap) {
+        validateSearchRequest(searchRequest, searchFieldMap);
+        SearchFilters searchFilters = createSearchFilters(searchRequest, searchFieldMap);
+        List<SearchSortPair> searchSortPairs = createSearchSortPairs(searchRequest, entityClass, searchFieldMap);
+        List<SearchFacetPair> searchFacetPairs = createSearchFacetPairs(searchRequest, searchFieldMap);
+        // Resolves and caches the fetch plan, so that an unknown profile is rejected before any query
+        graphBuilder.getFetchPlan(entityClass, searchRequest.fetchProfile());
+
+        long queryCost = validateQueryCost(
+                entityClass,
+                getQueryCost(searchRequest, entityClass, searchFilters, searchSortPairs, searchFacetPairs));
+        long maxQueryCostWithTotals = searchEngineProperties.getMaxQueryCostWithTotals();
+        boolean totalsSkipped = maxQueryCostWithTotals > 0 && queryCost > maxQueryCostWithTotals;
+
+        return new SearchPairs(searchFilters, searchSortPairs, searchFacetPairs, totalsSkipped);
+    }
+
+    /**
+     * Validates the request like {@link #createSearchPairs} does, except for the page size and offset, which streams
+     * ignore
+     */
+    SearchPairs createStreamSearchPairs(
+            SearchRequest searchRequest, Class<?> entityClass, Map<String, SearchField> searchFieldMap) {
+        if (searchRequest.cursor() != null) {
+            throw new HibernateSearchEngineException(
+                    "Cursor is not supported by streamed searches, they always start with the first entity");
+        }
+
+        validateSearchFields(searchRequest, searchFieldMap);
+        SearchFilters searchFilters = createSearchFilters(searchRequest, searchFieldMap);
+        List<SearchSortPair> searchSortPairs = createSearchSortPairs(searchRequest, entityClass, searchFieldMap);
+        graphBuilder.getFetchPlan(entityClass, searchRequest.fetchProfile());
+
+        validateQueryCost(
+                entityClass, getQueryCost(0, entityClass, searchFilters, searchSortPairs, Collections.emptyList()));
+
+        return new SearchPairs(searchFilters, searchSortPairs, Collections.emptyList(), true);
+    }
+
+    /**
+     * Validates the request like {@link #createSearchPairs} does, except for the facets, which entity lists don't
+     * return
+     */
+    SearchPairs createFetchSearchPairs(
+            SearchRequest searchRequest, Class<?> entityClass, Map<String, SearchField> searchFieldMap) {
+        validateSearchRequest(searchRequest, searchFieldMap);
+        SearchFilters searchFilters = createSearchFilters(searchRequest, searchFieldMap);
+        List<SearchSortPair> searchSortPairs = createSearchSortPairs(searchRequest, entityClass, searchFieldMap);
+        graphBuilder.getFetchPlan(entityClass, searchRequest.fetchProfile());
+
+        validateQueryCost(
+                entityClass,
+                getQueryCost(searchRequest, entityClass, searchFilters, searchSortPairs, Collections.emptyList()));
+
+        return new SearchPairs(searchFilters, searchSortPairs, Collections.emptyList(), true);
+    }
+
+    /**
+     * Validates the request like {@link #createSearchPairs} does for a total, which doesn't depend on the page, sorts
+     * and facets
+     */
+    SearchPairs createCountSearchPairs(
+            SearchRequest searchRequest, Class<?> entityClass, Map<String, SearchField> searchFieldMap) {
+        validateSearchRequest(searchRequest, searchFieldMap);
+        SearchFilters searchFilters = createSearchFilters(searchRequest, searchFieldMap);
+
+        validateQueryCost(
+                entityClass,
+                getQueryCost(0, entityClass, searchFilters, Collections.emptyList(), Collections.emptyList()));
+
+        return new SearchPairs(searchFilters, Collections.emptyList(), Collections.emptyList(), false);
+    }
+
+    QueryCost getQueryCost(
+            SearchRequest searchRequest,
+            Class<?> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            List<SearchFacetPair> searchFacetPairs) {
+        long offsetRows = KeysetPaging.isKeysetPagination(searchRequest)
+                ? 0
+                : (long) (searchRequest.page() - 1) * searchRequest.size();
+        return getQueryCost(offsetRows, entityClass, searchFilters, searchSortPairs, searchFacetPairs);
+    }
+
+    private QueryCost getQueryCost(
+            long offsetRows,
+            Class<?> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            List<SearchFacetPair> searchFacetPairs) {
+        List<SearchFilterPair> allSearchFilterPairs = searchFilters.getAllSearchFilterPairs();
+        Set<String> joinPaths = new HashSet<>();
+        Stream.of(
+                        allSearchFilterPairs.stream().map(SearchFilterPair::searchField),
+                        searchSortPairs.stream().map(SearchSortPair::searchField),
+                        searchFacetPairs.stream().map(SearchFacetPair::searchField))
+                .flatMap(Function.identity())
+                .forEach(searchField -> joinPaths.addAll(searchFieldRegistry
+                        .getSearchFieldPath(entityClass, searchField)
+                        .joinPaths()));
+
+        int likeFilters = 0;
+        int inListValues = 0;
+        for (SearchFilterPair searchFilterPair : allSearchFilterPairs) {
+            Filter filter = searchFilterPair.filter();
+            switch (filter.type()) {
+                case LIKE, NOT_LIKE -> likeFilters++;
+                case IN, NOT_IN -> inListValues += filter.value().size();
+                default -> {}
+            }
+        }
+
+        return new QueryCost(
+                offsetRows,
+                joinPaths.size(),
+                predicateBuilder.isDistinctNeeded(searchFilters),
+                likeFilters,
+                inListValues);
+    }
+
+    /**
+     * @return score of the query cost
+     */
+    long validateQueryCost(Class<?> entityClass, QueryCost queryCost) {
+        long score = queryCost.score();
+        long maxQueryCost = searchEngineProperties
+                .getMaxQueryCostByEntity()
+                .getOrDefault(entityClass.getSimpleName(), searchEngineProperties.getMaxQueryCost());
+        if (maxQueryCost > 0 && score > maxQueryCost) {
+            throw new HibernateSearchEngineException(
+                    "The search request is too expensive: cost %s exceeds the limit %s (%s)"
+                            .formatted(score, maxQueryCost, queryCost));
+        }
+
+        return score;
+    }
+
+    List<SearchField> createSelectedFields(List<String> fieldIds, Map<String, SearchField> searchFieldMap) {
+        return fieldIds.stream()
+                .map(fieldId -> {
+                    validateExistingSearchField(searchFieldMap, fieldId);
+                    SearchField searchField = searchFieldMap.get(fieldId);
+                    if (searchField.distinct()) {
+                        throw new HibernateSearchEngineException(
+                                "Projection of fields in joined collections is not allowed. Invalid field: '%s'"
+                                        .formatted(fieldId));
+                    }
+
+                    return searchField;
+                })
+                .toList();
+    }
+
+    @Nonnull
+    SearchFilters createSearchFilters(SearchRequest searchRequest, Map<String, SearchField> searchFieldMap) {
+        var filters = searchRequest.filters();
+        List<SearchFilterPair> searchFilterPairs = CollectionUtils.isEmpty(filters)
+                ? Collections.emptyList()
+                : filters.stream()
+                        .map(filter -> new SearchFilterPair(
+                                filter, FieldConvertUtils.resolveSearchField(searchFieldMap, filter)))
+                        .toList();
+
+        FilterTree filterGroup = searchRequest.filterGroup() == null
+                ? null
+                : FilterTreeSimplifier.simplify(createFilterTree(searchRequest.filterGroup(), searchFieldMap));
+        if (filterGroup == null && searchFilterPairs.size() < 2) {
+            return new SearchFilters(searchFilterPairs, null);
+        }
+
+        // Contradicting filters are replaced by FALSE, so that the search doesn't query the database
+        List<FilterTree> conjunction = new ArrayList<>(searchFilterPairs);
+        if (filterGroup != null) {
+            conjunction.add(filterGroup);
+        }
+        if (FilterTreeSimplifier.simplify(new FilterTree.Branch(FilterGroup.Operator.AND, conjunction))
+                == FilterTree.Constant.FALSE) {
+            return new SearchFilters(searchFilterPairs, FilterTree.Constant.FALSE);
+        }
+
+        return new SearchFilters(searchFilterPairs, filterGroup == FilterTree.Constant.TRUE ? null : filterGroup);
+    }
+
+    /**
+     * Groups without filters don't restrict the results
+     */
+    private FilterTree createFilterTree(FilterGroup filterGroup, Map<String, SearchField> searchFieldMap) {
+        List<FilterTree> children = new ArrayList<>();
+        Optional.ofNullable(filterGroup.filters())
+                .orElseGet(Collections::emptyList)
+                .forEach(filter -> children.add(
+                        new SearchFilterPair(filter, FieldConvertUtils.resolveSearchField(searchFieldMap, filter))));
+        Optional.ofNullable(filterGroup.groups())
+                .orElseGet(Collections::emptyList)
+                .forEach(group -> children.add(createFilterTree(group, searchFieldMap)));
+
+        if (children.isEmpty()) {
+            return FilterTree.Constant.TRUE;
+        }
+
+        return filterGroup.operator() == FilterGroup.Operator.NOT
+                ? new FilterTree.Branch(
+                        FilterGroup.Operator.NOT, List.of(new FilterTree.Branch(FilterGroup.Operator.AND, children)))
+                : new FilterTree.Branch(filterGroup.operator(), children);
+    }
+
+    private List<SearchFacetPair> createSearchFacetPairs(
+            SearchRequest searchRequest, Map<String, SearchField> searchFieldMap) {
+        var facets = searchRequest.facets();
+        if (CollectionUtils.isEmpty(facets)) {
+            return Collections.emptyList();
+        }
+
+        Set<String> facetFields = new HashSet<>();
+        for (Facet facet : facets) {
+            if (!facetFields.add(facet.field())) {
+                throw new HibernateSearchEngineException("Duplicate facet for field '%s'".formatted(facet.field()));
+            }
+        }
+
+        return facets.stream()
+                .map(facet -> new SearchFacetPair(facet, searchFieldMap.get(facet.field())))
+                .toList();
+    }
+
+    @Nonnull
+    List<SearchSortPair> createSearchSortPairs(
+            SearchRequest searchRequest, Class<?> entityClass, Map<String, SearchField> searchFieldMap) {
+        var sorts = searchRequest.sorts();
+        List<SearchSortPair> searchSortPairs = CollectionUtils.isEmpty(sorts)
+                ? Collections.emptyList()
+                : sorts.stream()
+                        .map(sort -> new SearchSortPair(
+                                sort, FieldConvertUtils.resolveSearchField(searchFieldMap, sort), false))
+                        .toList();
+
+        return KeysetPaging.isKeysetPagination(searchRequest)
+                ? keysetPaging.addKeysetTiebreaker(entityClass, searchSortPairs)
+                : searchSortPairs;
+    }
+
+    void validateSearchRequest(SearchRequest searchRequest, Map<String, SearchField> searchFieldMap) {
+        int maxPageSize = searchEngineProperties.getMaxPageSize();
+        if (searchRequest.size() > maxPageSize) {
+            throw new HibernateSearchEngineException(
+                    "The search request is limited to %s results".formatted(maxPageSize));
+        }
+
+        validateSearchFields(searchRequest, searchFieldMap);
+    }
+
+    private void validateSearchFields(SearchRequest searchRequest, Map<String, SearchField> searchFieldMap) {
+        Optional.ofNullable(searchRequest.sorts())
+                .orElseGet(Collections::emptyList)
+                .forEach(sort -> validateExistingSearchField(searchFieldMap, sort.field()));
+        Optional.ofNullable(searchRequest.filters())
+                .orElseGet(Collections::emptyList)
+                .forEach(filter -> validateExistingSearchField(searchFieldMap, filter.field()));
+        Optional.ofNullable(searchRequest.facets())
+                .orElseGet(Collections::emptyList)
+                .forEach(facet -> validateExistingSearchField(searchFieldMap, facet.field()));
+        Optional.ofNullable(searchRequest.filterGroup())
+                .ifPresent(filterGroup -> validateFilterGroupFields(filterGroup, searchFieldMap));
+    }
+
+    private void validateFilterGroupFields(FilterGroup filterGroup, Map<String, SearchField> searchFieldMap) {
+        Optional.ofNullable(filterGroup.filters())
+                .orElseGet(Collections::emptyList)
+                .forEach(filter -> validateExistingSearchField(searchFieldMap, filter.field()));
+        Optional.ofNullable(filterGroup.groups())
+                .orElseGet(Collections::emptyList)
+                .forEach(group -> validateFilterGroupFields(group, searchFieldMap));
+    }
+
+    private void validateExistingSearchField(Map<String, SearchField> searchFieldMap, String field) {
+        SearchField searchField = searchFieldMap.get(field);
+        if (searchField == null) {
+            Set<String> existingFields =
+                    searchFieldMap.values().stream().map(SearchField::id).collect(Collectors.toSet());
+            throw new HibernateSearchEngineException(
+                    "Search field '%s' was not found! Existing fields: %s".formatted(field, existingFields));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.lipiridi.searchengine;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of search results with a time to live. Every entry depends on the entity types that were queried
+ * and is removed when an entity of these types changes. Concurrent misses of the same key are loaded once.
+ */
+public class SearchResultCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Object, Entry> entries;
+    private final Map<Class<?>, Set<Object>> keysByEntityType = new HashMap<>();
+    private final Map<Object, CompletableFuture<Object>> loadingEntries = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private long invalidationCount;
+
+    public SearchResultCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+
+                unindex(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0 && ttlNanos > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(Object key, Set<Class<?>> entityTypes, Supplier<T> loader) {
+        if (!isEnabled()) {
+            missCount.increment();
+            return loader.get();
+        }
+
+        long currentInvalidationCount;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+                hitCount.increment();
+                return (T) entry.value();
+            }
+
+            if (entry != null) {
+                entries.remove(key);
+                unindex(key, entry);
+            }
+
+            currentInvalidationCount = invalidationCount;
+        }
+
+        CompletableFuture<Object> loadingEntry = new CompletableFuture<>();
+        CompletableFuture<Object> existingLoadingEntry = loadingEntries.putIfAbsent(key, loadingEntry);
+        if (existingLoadingEntry != null) {
+            hitCount.increment();
+            return (T) awaitLoadingEntry(existingLoadingEntry);
+        }
+
+        missCount.increment();
+        try {
+            T value = loader.get();
+            synchronized (entries) {
+                // A result loaded while entities were changing may be already stale
+                if (currentInvalidationCount == invalidationCount) {
+                    Entry entry = new Entry(value, entityTypes, System.nanoTime() + ttlNanos);
+                    entries.put(key, entry);
+                    entityTypes.forEach(entityType -> keysByEntityType
+                            .computeIfAbsent(entityType, type -> new HashSet<>())
+                            .add(key));
+                }
+            }
+
+            loadingEntry.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            loadingEntry.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingEntries.remove(key, loadingEntry);
+        }
+    }
+
+    /**
+     * Removes results that depend on the entity class or one of its superclasses
+     */
+    void invalidate(Class<?> entityClass) {
+        synchronized (entries) {
+            invalidationCount++;
+
+            Iterator<Map.Entry<Class<?>, Set<Object>>> iterator =
+                    keysByEntityType.entrySet().iterator();
+            Set<Object> invalidatedKeys = new HashSet<>();
+            while (iterator.hasNext()) {
+                Map.Entry<Class<?>, Set<Object>> keysEntry = iterator.next();
+                if (keysEntry.getKey().isAssignableFrom(entityClass)) {
+                    invalidatedKeys.addAll(keysEntry.getValue());
+                    iterator.remove();
+                }
+            }
+
+            invalidatedKeys.forEach(key -> {
+                Entry entry = entries.remove(key);
+                if (entry != null) {
+                    unindex(key, entry);
+                }
+            });
+        }
+    }
+
+    private Object awaitLoadingEntry(CompletableFuture<Object> loadingEntry) {
+        try {
+            return loadingEntry.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw e;
+        }
+    }
+
+    private void unindex(Object key, Entry entry) {
+        entry.entityTypes().forEach(entityType -> {
+            Set<Object> keys = keysByEntityType.get(entityType);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByEntityType.remove(entityType);
+                }
+            }
+        });
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            invalidationCount++;
+            entries.clear();
+            keysByEntityType.clear();
+        }
+    }
+
+    private record Entry(Object value, Set<Class<?>> entityTypes, long expiresAt) {}
+}
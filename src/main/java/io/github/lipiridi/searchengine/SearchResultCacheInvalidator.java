@@ -0,0 +1,132 @@
+package io.github.lipiridi.searchengine;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Invalidates search results when entities or their collections are changed through the session. Bulk and native
+ * queries don't fire these events, their changes become visible after the time to live.
+ *
+ * <p>One invalidator is registered per session factory and serves the caches of all its search services. Caches are
+ * held weakly, so that discarded search services don't leak through the factory-wide listeners.
+ */
+class SearchResultCacheInvalidator
+        implements PostInsertEventListener,
+                PostUpdateEventListener,
+                PostDeleteEventListener,
+                PostCollectionRecreateEventListener,
+                PostCollectionUpdateEventListener,
+                PostCollectionRemoveEventListener {
+
+    // Session factories are held weakly, so that closed ones don't keep their caches
+    private static final Map<SessionFactoryImplementor, SearchResultCacheInvalidator> INVALIDATORS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Set<SearchResultCache> searchResultCaches = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private SearchResultCacheInvalidator() {}
+
+    static void register(EntityManagerFactory entityManagerFactory, SearchResultCache searchResultCache) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        SearchResultCacheInvalidator invalidator =
+                INVALIDATORS.computeIfAbsent(sessionFactory, SearchResultCacheInvalidator::appendListeners);
+
+        synchronized (invalidator.searchResultCaches) {
+            invalidator.searchResultCaches.add(searchResultCache);
+        }
+    }
+
+    private static SearchResultCacheInvalidator appendListeners(SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry eventListenerRegistry =
+                sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+
+        SearchResultCacheInvalidator invalidator = new SearchResultCacheInvalidator();
+        eventListenerRegistry.appendListeners(EventType.POST_INSERT, invalidator);
+        eventListenerRegistry.appendListeners(EventType.POST_UPDATE, invalidator);
+        eventListenerRegistry.appendListeners(EventType.POST_DELETE, invalidator);
+        eventListenerRegistry.appendListeners(EventType.POST_COLLECTION_RECREATE, invalidator);
+        eventListenerRegistry.appendListeners(EventType.POST_COLLECTION_UPDATE, invalidator);
+        eventListenerRegistry.appendListeners(EventType.POST_COLLECTION_REMOVE, invalidator);
+        return invalidator;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidate(event.getPersister().getMappedClass(), event.getSession());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getPersister().getMappedClass(), event.getSession());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getPersister().getMappedClass(), event.getSession());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        invalidateOwner(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        invalidateOwner(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        invalidateOwner(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void invalidateOwner(AbstractCollectionEvent event) {
+        EventSource session = event.getSession();
+        Class<?> ownerClass = session.getFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(event.getAffectedOwnerEntityName())
+                .getMappedClass();
+        invalidate(ownerClass, session);
+    }
+
+    private void invalidate(Class<?> entityClass, EventSource session) {
+        List<SearchResultCache> caches;
+        synchronized (searchResultCaches) {
+            caches = new ArrayList<>(searchResultCaches);
+        }
+
+        caches.forEach(searchResultCache -> searchResultCache.invalidate(entityClass));
+        // Other transactions could cache the old state again until this one is completed
+        session.getActionQueue()
+                .registerProcess((success, completedSession) ->
+                        caches.forEach(searchResultCache -> searchResultCache.invalidate(entityClass)));
+    }
+}
@@ -1,69 +1,225 @@
 package io.github.lipiridi.searchengine;
 
-import static io.github.lipiridi.searchengine.FilterType.GREATER_THAN;
-import static io.github.lipiridi.searchengine.FilterType.GREATER_THAN_OR_EQUAL;
-import static io.github.lipiridi.searchengine.FilterType.LESS_THAN;
-import static io.github.lipiridi.searchengine.FilterType.LESS_THAN_OR_EQUAL;
-import static io.github.lipiridi.searchengine.util.FieldConvertUtils.getConvertedValue;
-
 import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.count.RowCountEstimator;
+import io.github.lipiridi.searchengine.dto.Facet;
+import io.github.lipiridi.searchengine.dto.FacetValue;
 import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.FilterGroup;
+import io.github.lipiridi.searchengine.dto.MultiSearchResult;
 import io.github.lipiridi.searchengine.dto.SearchRequest;
 import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.dto.SearchSpec;
 import io.github.lipiridi.searchengine.dto.Sort;
-import io.github.lipiridi.searchengine.util.FieldConvertUtils;
-import jakarta.annotation.Nonnull;
+import io.github.lipiridi.searchengine.execution.SearchExecutor;
+import io.github.lipiridi.searchengine.metrics.SearchMetrics;
+import io.github.lipiridi.searchengine.metrics.SearchPhase;
+import io.github.lipiridi.searchengine.text.FullTextFunction;
 import jakarta.annotation.Nullable;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Expression;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
-import jakarta.persistence.criteria.Order;
-import jakarta.persistence.criteria.Path;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
-import java.math.BigDecimal;
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
-import java.time.ZonedDateTime;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import org.hibernate.query.SortDirection;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.Query;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.EntityManagerProxy;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.CollectionUtils;
-
-@Transactional(readOnly = true)
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Executes search requests. Requests are resolved by {@link SearchRequestResolver}, compiled by
+ * {@link SearchQueryCompiler} and counted by {@link TotalCounter}, this class runs the queries in the sessions of the
+ * search executor and assembles the responses.
+ *
+ * <p>Searches don't start a transaction, the search executor provides the sessions, so the stateless and read-only
+ * executors don't hold a connection of the primary database besides their own.
+ */
 public class SearchService {
 
     private final EntityManager entityManager;
     private final SearchEngineProperties searchEngineProperties;
-    private final SearchFieldCreator searchFieldCreator;
+    private final SearchFieldRegistry searchFieldRegistry;
     private final GraphBuilder graphBuilder;
+    private final SearchMetrics searchMetrics;
+    private final SearchExecutor searchExecutor;
+    private final SearchResultCache searchResultCache;
+    private final SearchResultCache countCache;
+    private final PredicateBuilder predicateBuilder;
+    private final KeysetPaging keysetPaging;
+    private final SearchRequestResolver searchRequestResolver;
+    private final SearchQueryCompiler searchQueryCompiler;
+    private final SearchQueryCompiler streamQueryCompiler;
+    private final TotalCounter totalCounter;
+    private final Executor virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore multiSearchPermits;
 
     public SearchService(EntityManager entityManager, SearchEngineProperties searchEngineProperties) {
+        this(
+                entityManager,
+                searchEngineProperties,
+                new SearchFieldRegistry(entityManager.getMetamodel(), searchEngineProperties.getNamingConvention()));
+    }
+
+    public SearchService(
+            EntityManager entityManager,
+            SearchEngineProperties searchEngineProperties,
+            SearchFieldRegistry searchFieldRegistry) {
+        this(
+                entityManager,
+                searchEngineProperties,
+                searchFieldRegistry,
+                RowCountEstimator.forEntityManagerFactory(entityManager.getEntityManagerFactory()));
+    }
+
+    public SearchService(
+            EntityManager entityManager,
+            SearchEngineProperties searchEngineProperties,
+            SearchFieldRegistry searchFieldRegistry,
+            RowCountEstimator rowCountEstimator) {
+        this(entityManager, searchEngineProperties, searchFieldRegistry, rowCountEstimator, SearchMetrics.NOOP);
+    }
+
+    public SearchService(
+            EntityManager entityManager,
+            SearchEngineProperties searchEngineProperties,
+            SearchFieldRegistry searchFieldRegistry,
+            RowCountEstimator rowCountEstimator,
+            SearchMetrics searchMetrics) {
+        this(
+                entityManager,
+                searchEngineProperties,
+                searchFieldRegistry,
+                rowCountEstimator,
+                searchMetrics,
+                FullTextFunction.forEntityManagerFactory(entityManager.getEntityManagerFactory()));
+    }
+
+    public SearchService(
+            EntityManager entityManager,
+            SearchEngineProperties searchEngineProperties,
+            SearchFieldRegistry searchFieldRegistry,
+            RowCountEstimator rowCountEstimator,
+            SearchMetrics searchMetrics,
+            FullTextFunction fullTextFunction) {
+        this(
+                entityManager,
+                searchEngineProperties,
+                searchFieldRegistry,
+                rowCountEstimator,
+                searchMetrics,
+                fullTextFunction,
+                searchEngineProperties.isStatelessSession()
+                        ? SearchExecutor.statelessSession(entityManager.getEntityManagerFactory())
+                        : SearchExecutor.forEntityManager(entityManager));
+    }
+
+    /**
+     * @param searchExecutor executes the queries of searches, counts and fetches, e.g. on a read replica, their criteria
+     *     queries are built by its entity manager factory. Streams always use the entity manager.
+     */
+    public SearchService(
+            EntityManager entityManager,
+            SearchEngineProperties searchEngineProperties,
+            SearchFieldRegistry searchFieldRegistry,
+            RowCountEstimator rowCountEstimator,
+            SearchMetrics searchMetrics,
+            FullTextFunction fullTextFunction,
+            SearchExecutor searchExecutor) {
         this.entityManager = entityManager;
         this.searchEngineProperties = searchEngineProperties;
+        this.searchFieldRegistry = searchFieldRegistry;
+        this.searchMetrics = searchMetrics;
+        this.searchExecutor = searchExecutor;
+
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        // Criteria queries are built by the factory of the sessions that execute them
+        EntityManagerFactory executingEntityManagerFactory =
+                Objects.requireNonNullElse(searchExecutor.getEntityManagerFactory(), entityManagerFactory);
+        graphBuilder =
+                new GraphBuilder(executingEntityManagerFactory, searchEngineProperties.getBatchFetchCollections());
+        multiSearchPermits = new Semaphore(Math.max(1, searchEngineProperties.getMultiSearchConcurrency()));
+        searchResultCache = new SearchResultCache(
+                searchEngineProperties.getResultCacheSize(), searchEngineProperties.getResultCacheTtl());
+        countCache = new SearchResultCache(
+                searchEngineProperties.getCountCacheSize(), searchEngineProperties.getCountCacheTtl());
+        // Both caches share the invalidator of the factory
+        Stream.of(searchResultCache, countCache)
+                .filter(SearchResultCache::isEnabled)
+                .forEach(cache -> SearchResultCacheInvalidator.register(entityManagerFactory, cache));
+
+        predicateBuilder = new PredicateBuilder(searchFieldRegistry, searchEngineProperties, fullTextFunction);
+        keysetPaging = new KeysetPaging(searchFieldRegistry);
+        searchRequestResolver = new SearchRequestResolver(
+                searchFieldRegistry,
+                searchEngineProperties,
+                graphBuilder,
+                predicateBuilder,
+                keysetPaging,
+                searchMetrics);
+        searchQueryCompiler = createSearchQueryCompiler(executingEntityManagerFactory);
+        streamQueryCompiler = executingEntityManagerFactory == entityManagerFactory
+                ? searchQueryCompiler
+                : createSearchQueryCompiler(entityManagerFactory);
+        totalCounter = new TotalCounter(
+                searchEngineProperties,
+                searchFieldRegistry,
+                searchQueryCompiler,
+                predicateBuilder,
+                rowCountEstimator,
+                searchMetrics,
+                searchExecutor,
+                countCache,
+                virtualThreadExecutor);
+    }
 
-        searchFieldCreator = new SearchFieldCreator(searchEngineProperties.getNamingConvention());
-        graphBuilder = new GraphBuilder();
+    private SearchQueryCompiler createSearchQueryCompiler(EntityManagerFactory entityManagerFactory) {
+        return new SearchQueryCompiler(
+                entityManagerFactory,
+                searchFieldRegistry,
+                searchEngineProperties,
+                graphBuilder,
+                predicateBuilder,
+                keysetPaging,
+                searchRequestResolver,
+                searchMetrics);
     }
 
     public <E> SearchResponse<E> search(SearchRequest searchRequest, Class<E> entityClass) {
-        var searchFields = searchFieldCreator.createFromClass(entityClass);
-        return search(searchRequest, entityClass, searchFields);
+        var searchFieldMap = searchFieldRegistry.getSearchFieldMap(entityClass);
+        return search(searchRequest, entityClass, searchFieldMap, null, true);
     }
 
     public <E> SearchResponse<E> search(
@@ -73,13 +229,13 @@ public class SearchService {
 
     public <E> SearchResponse<E> search(
             SearchRequest searchRequest, Class<E> entityClass, Map<String, SearchField> searchFieldMap) {
-        return search(searchRequest, entityClass, searchFieldMap, null);
+        return search(searchRequest, entityClass, searchFieldMap, null, false);
     }
 
     public <E, M> SearchResponse<M> search(
             SearchRequest searchRequest, Class<E> entityClass, @Nullable Function<E, M> mapper) {
-        var searchFields = searchFieldCreator.createFromClass(entityClass);
-        return search(searchRequest, entityClass, searchFields, mapper);
+        var searchFieldMap = searchFieldRegistry.getSearchFieldMap(entityClass);
+        return search(searchRequest, entityClass, searchFieldMap, mapper, true);
     }
 
     public <E, M> SearchResponse<M> search(
@@ -89,361 +245,908 @@ public class SearchService {
             @Nullable Function<E, M> mapper) {
         Map<String, SearchField> searchFieldMap =
                 searchFields.stream().collect(Collectors.toMap(SearchField::id, Function.identity()));
-        return search(searchRequest, entityClass, searchFieldMap, mapper);
+        return search(searchRequest, entityClass, searchFieldMap, mapper, false);
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * @param cacheable whether the search fields are the ones of the registry, so that the result can be cached by
+     *     the request
+     */
     private <E, M> SearchResponse<M> search(
             SearchRequest searchRequest,
             Class<E> entityClass,
             Map<String, SearchField> searchFieldMap,
-            @Nullable Function<E, M> mapper) {
-        validateSearchRequest(searchRequest, searchFieldMap);
-        List<SearchFilterPair> searchFilterPairs = createSearchFilterPairs(searchRequest, searchFieldMap);
-        List<SearchSortPair> searchSortPairs = createSearchSortPairs(searchRequest, searchFieldMap);
-        boolean distinctNeeded = isDistinctNeeded(searchFilterPairs);
+            @Nullable Function<E, M> mapper,
+            boolean cacheable) {
+        return search(
+                searchRequest,
+                entityClass,
+                searchRequestResolver.resolve(searchRequest, entityClass, searchFieldMap),
+                mapper,
+                cacheable);
+    }
+
+    private <E, M> SearchResponse<M> search(
+            SearchRequest searchRequest,
+            Class<E> entityClass,
+            SearchPairs searchPairs,
+            @Nullable Function<E, M> mapper,
+            boolean cacheable) {
+        try {
+            SearchFilters searchFilters = searchPairs.searchFilters();
+            List<SearchSortPair> searchSortPairs = searchPairs.searchSortPairs();
+            boolean distinctNeeded = predicateBuilder.isDistinctNeeded(searchFilters);
+            boolean collectionFilters = searchFilters.hasCollectionFilters();
+
+            return searchExecutor.execute(session -> {
+                if (cacheable && searchResultCache.isEnabled()) {
+                    return searchCached(session, searchRequest, entityClass, searchPairs, distinctNeeded, mapper);
+                }
 
-        List<E> entities =
-                fetchEntities(searchRequest, entityClass, searchFilterPairs, searchSortPairs, distinctNeeded);
-        long totalNumber =
-                searchRequest.withoutTotals() ? 0 : totalElements(entityClass, searchFilterPairs, distinctNeeded);
+                return search(session, searchRequest, entityClass, searchPairs, distinctNeeded, () -> {
+                    FetchResult<E> fetchResult = searchMetrics.recordPhase(
+                            SearchPhase.PAGE_QUERY,
+                            entityClass,
+                            collectionFilters,
+                            () -> fetchEntities(
+                                    session,
+                                    searchRequest,
+                                    entityClass,
+                                    searchFilters,
+                                    searchSortPairs,
+                                    distinctNeeded));
+                    loadCollections(
+                            session,
+                            entityClass,
+                            collectionFilters,
+                            fetchResult.entities(),
+                            searchRequest.fetchProfile());
+                    return mapEntities(entityClass, collectionFilters, fetchResult, mapper);
+                });
+            });
+        } catch (HibernateSearchEngineException e) {
+            searchMetrics.recordRejected(entityClass, e);
+            throw e;
+        }
+    }
 
-        List<M> mappedEntities = mapper == null
-                ? (List<M>) entities
-                : entities.stream().map(mapper).toList();
+    /**
+     * Executes independent searches concurrently on virtual threads. All requests are validated before any of them is
+     * executed, and at most {@code multi-search-concurrency} searches of all callers run at the same time. Every search
+     * uses its own read-only entity manager, so uncommitted changes of the caller's transaction are not visible.
+     *
+     * @return results in the order of the specs, a failed search doesn't fail the others and identical specs share
+     *     the result
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<MultiSearchResult<?>> multiSearch(List<SearchSpec<?>> searchSpecs) {
+        Map<SearchSpec<?>, MultiSearchResult<?>> invalidResults = new HashMap<>();
+        Map<SearchSpec<?>, SearchPairs> validSearchSpecs = new LinkedHashMap<>();
+        for (SearchSpec<?> searchSpec : searchSpecs) {
+            if (invalidResults.containsKey(searchSpec) || validSearchSpecs.containsKey(searchSpec)) {
+                continue;
+            }
 
-        return new SearchResponse<>(searchRequest, entities.size(), totalNumber, mappedEntities);
+            try {
+                var searchFieldMap = searchFieldRegistry.getSearchFieldMap(searchSpec.entityClass());
+                validSearchSpecs.put(
+                        searchSpec,
+                        searchRequestResolver.resolve(
+                                searchSpec.searchRequest(), searchSpec.entityClass(), searchFieldMap));
+            } catch (RuntimeException e) {
+                invalidResults.put(searchSpec, MultiSearchResult.failure(e));
+            }
+        }
+
+        Map<SearchSpec<?>, CompletableFuture<? extends MultiSearchResult<?>>> resultFutures = new HashMap<>();
+        validSearchSpecs.forEach((searchSpec, searchPairs) ->
+                resultFutures.put(searchSpec, executeSearchSpecAsync(searchSpec, searchPairs)));
+
+        List<MultiSearchResult<?>> results = new ArrayList<>(searchSpecs.size());
+        for (SearchSpec<?> searchSpec : searchSpecs) {
+            MultiSearchResult<?> invalidResult = invalidResults.get(searchSpec);
+            results.add(
+                    invalidResult != null
+                            ? invalidResult
+                            : resultFutures.get(searchSpec).join());
+        }
+
+        return results;
     }
 
-    public <E> List<E> fetchEntities(SearchRequest searchRequest, Class<E> entityClass) {
-        var searchFields = searchFieldCreator.createFromClass(entityClass);
-        return fetchEntities(searchRequest, entityClass, searchFields);
+    private <E> CompletableFuture<MultiSearchResult<E>> executeSearchSpecAsync(
+            SearchSpec<E> searchSpec, SearchPairs searchPairs) {
+        // The shared entity manager can only be bound to another thread when it is a spring managed proxy
+        if (!(entityManager instanceof EntityManagerProxy)) {
+            return CompletableFuture.completedFuture(executeSearchSpec(searchSpec, searchPairs));
+        }
+
+        return CompletableFuture.supplyAsync(() -> executeSearchSpec(searchSpec, searchPairs), virtualThreadExecutor);
     }
 
-    public <E> List<E> fetchEntities(
-            SearchRequest searchRequest, Class<E> entityClass, Collection<SearchField> searchFields) {
-        Map<String, SearchField> searchFieldMap =
-                searchFields.stream().collect(Collectors.toMap(SearchField::id, Function.identity()));
+    private <E> MultiSearchResult<E> executeSearchSpec(SearchSpec<E> searchSpec, SearchPairs searchPairs) {
+        try {
+            multiSearchPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return MultiSearchResult.failure(new HibernateSearchEngineException("Interrupted while waiting to search"));
+        }
 
-        validateSearchRequest(searchRequest, searchFieldMap);
-        List<SearchFilterPair> searchFilterPairs = createSearchFilterPairs(searchRequest, searchFieldMap);
-        List<SearchSortPair> searchSortPairs = createSearchSortPairs(searchRequest, searchFieldMap);
-        boolean distinctNeeded = isDistinctNeeded(searchFilterPairs);
+        try {
+            if (!(entityManager instanceof EntityManagerProxy)) {
+                return MultiSearchResult.success(
+                        search(searchSpec.searchRequest(), searchSpec.entityClass(), searchPairs, null, true));
+            }
 
-        return fetchEntities(searchRequest, entityClass, searchFilterPairs, searchSortPairs, distinctNeeded);
+            EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+            EntityManager searchEntityManager = entityManagerFactory.createEntityManager();
+            searchEntityManager.unwrap(Session.class).setDefaultReadOnly(true);
+            TransactionSynchronizationManager.bindResource(
+                    entityManagerFactory, new EntityManagerHolder(searchEntityManager));
+            try {
+                return MultiSearchResult.success(
+                        search(searchSpec.searchRequest(), searchSpec.entityClass(), searchPairs, null, true));
+            } finally {
+                TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+                searchEntityManager.close();
+            }
+        } catch (RuntimeException e) {
+            return MultiSearchResult.failure(e);
+        } finally {
+            multiSearchPermits.release();
+        }
     }
 
-    private <E> List<E> fetchEntities(
+    /**
+     * Selects only the columns of the record components instead of hydrating managed entities. Names of the record
+     * components must match search field ids of the entity.
+     */
+    public <E, P extends Record> SearchResponse<P> searchProjections(
+            SearchRequest searchRequest, Class<E> entityClass, Class<P> projectionClass) {
+        var searchFieldMap = searchFieldRegistry.getSearchFieldMap(entityClass);
+        List<String> fieldIds = Arrays.stream(projectionClass.getRecordComponents())
+                .map(RecordComponent::getName)
+                .toList();
+
+        return searchProjections(searchRequest, entityClass, searchFieldMap, fieldIds, projectionClass);
+    }
+
+    /**
+     * Selects only the columns of the given search fields, each result maps search field ids to their values
+     */
+    public <E> SearchResponse<Map<String, Object>> searchProjections(
+            SearchRequest searchRequest, Class<E> entityClass, List<String> fieldIds) {
+        var searchFieldMap = searchFieldRegistry.getSearchFieldMap(entityClass);
+        return searchProjections(searchRequest, entityClass, searchFieldMap, fieldIds, null);
+    }
+
+    private <E, P> SearchResponse<P> searchProjections(
             SearchRequest searchRequest,
             Class<E> entityClass,
-            List<SearchFilterPair> searchFilterPairs,
-            List<SearchSortPair> searchSortPairs,
-            boolean distinctNeeded) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<E> criteriaQuery = criteriaBuilder.createQuery(entityClass);
-        Root<E> root = criteriaQuery.from(entityClass);
-        graphBuilder.addEagerJoins(root, entityClass);
-        criteriaQuery.distinct(distinctNeeded);
+            Map<String, SearchField> searchFieldMap,
+            List<String> fieldIds,
+            @Nullable Class<P> projectionClass) {
+        try {
+            SearchPairs searchPairs = searchMetrics.recordPhase(SearchPhase.VALIDATION, entityClass, false, () -> {
+                SearchPairs validatedPairs =
+                        searchRequestResolver.createSearchPairs(searchRequest, entityClass, searchFieldMap);
+                if (KeysetPaging.isKeysetPagination(searchRequest)) {
+                    throw new HibernateSearchEngineException("Keyset pagination is not supported for projections");
+                }
 
-        JoinHolder joinHolder = new JoinHolder();
-        addFilters(root, criteriaBuilder, criteriaQuery, joinHolder, searchFilterPairs);
-        addSorts(root, criteriaBuilder, criteriaQuery, joinHolder, searchSortPairs);
+                return validatedPairs;
+            });
+            List<SearchField> selectedFields = searchRequestResolver.createSelectedFields(fieldIds, searchFieldMap);
+            SearchFilters searchFilters = searchPairs.searchFilters();
+            boolean distinctNeeded = predicateBuilder.isDistinctNeeded(searchFilters);
+            boolean collectionFilters = searchFilters.hasCollectionFilters();
+
+            return searchExecutor.execute(session -> search(
+                    session,
+                    searchRequest,
+                    entityClass,
+                    searchPairs,
+                    distinctNeeded,
+                    () -> searchMetrics.recordPhase(
+                            SearchPhase.PAGE_QUERY,
+                            entityClass,
+                            collectionFilters,
+                            () -> fetchProjections(
+                                    session,
+                                    searchRequest,
+                                    entityClass,
+                                    searchPairs,
+                                    distinctNeeded,
+                                    selectedFields,
+                                    fieldIds,
+                                    projectionClass))));
+        } catch (HibernateSearchEngineException e) {
+            searchMetrics.recordRejected(entityClass, e);
+            throw e;
+        }
+    }
 
-        TypedQuery<E> query = entityManager.createQuery(criteriaQuery);
+    @SuppressWarnings("unchecked")
+    private <E, P> FetchResult<P> fetchProjections(
+            SharedSessionContract session,
+            SearchRequest searchRequest,
+            Class<E> entityClass,
+            SearchPairs searchPairs,
+            boolean distinctNeeded,
+            List<SearchField> selectedFields,
+            List<String> fieldIds,
+            @Nullable Class<P> projectionClass) {
+        SearchFilters searchFilters = searchPairs.searchFilters();
+        CompiledQuery<?> compiledQuery = searchQueryCompiler.getProjectionQuery(
+                entityClass,
+                searchFilters,
+                searchPairs.searchSortPairs(),
+                distinctNeeded,
+                selectedFields,
+                projectionClass);
+
+        TypedQuery<?> query = searchQueryCompiler.createQuery(
+                session, compiledQuery, predicateBuilder.getParameterValues(searchFilters));
         query.setFirstResult((searchRequest.page() - 1) * searchRequest.size());
         query.setMaxResults(searchRequest.size());
 
-        return query.getResultList();
-    }
+        List<?> results = query.getResultList();
+        List<P> projections = projectionClass != null
+                ? (List<P>) results
+                : (List<P>) results.stream()
+                        .map(result -> toProjectionMap((Tuple) result, fieldIds))
+                        .toList();
 
-    public <E> long totalElements(SearchRequest searchRequest, Class<E> entityClass) {
-        var searchFields = searchFieldCreator.createFromClass(entityClass);
-        return totalElements(searchRequest, entityClass, searchFields);
+        return new FetchResult<>(projections, null);
     }
 
-    public <E> long totalElements(
-            SearchRequest searchRequest, Class<E> entityClass, Collection<SearchField> searchFields) {
-        Map<String, SearchField> searchFieldMap =
-                searchFields.stream().collect(Collectors.toMap(SearchField::id, Function.identity()));
+    private Map<String, Object> toProjectionMap(Tuple tuple, List<String> fieldIds) {
+        Map<String, Object> projection = new LinkedHashMap<>();
+        for (int i = 0; i < fieldIds.size(); i++) {
+            projection.put(fieldIds.get(i), tuple.get(i));
+        }
+
+        return projection;
+    }
 
-        validateSearchRequest(searchRequest, searchFieldMap);
-        List<SearchFilterPair> searchFilterPairs = createSearchFilterPairs(searchRequest, searchFieldMap);
-        boolean distinctNeeded = isDistinctNeeded(searchFilterPairs);
+    /**
+     * Caches ids of the page together with the totals. Entities are loaded by the ids on every hit, so that they
+     * belong to the persistence context of the caller, hence a hit only saves the filtered page, count and facet
+     * queries.
+     */
+    private <E, M> SearchResponse<M> searchCached(
+            SharedSessionContract session,
+            SearchRequest searchRequest,
+            Class<E> entityClass,
+            SearchPairs searchPairs,
+            boolean distinctNeeded,
+            @Nullable Function<E, M> mapper) {
+        SearchFilters searchFilters = searchPairs.searchFilters();
+        List<SearchSortPair> searchSortPairs = searchPairs.searchSortPairs();
+        boolean collectionFilters = searchFilters.hasCollectionFilters();
+
+        AtomicReference<FetchResult<E>> loadedFetchResult = new AtomicReference<>();
+        CachedSearchResult cachedSearchResult = searchResultCache.get(
+                ResultCacheKey.of(entityClass, searchRequest, searchEngineProperties.getCountStrategy()),
+                searchFieldRegistry.getQueriedEntityTypes(
+                        entityClass,
+                        Stream.concat(
+                                        Stream.concat(
+                                                searchPairs.searchFilters().getAllSearchFilterPairs().stream()
+                                                        .map(SearchFilterPair::searchField),
+                                                searchPairs.searchSortPairs().stream()
+                                                        .map(SearchSortPair::searchField)),
+                                        searchPairs.searchFacetPairs().stream().map(SearchFacetPair::searchField))
+                                .toList()),
+                () -> {
+                    SearchResponse<E> searchResponse =
+                            search(session, searchRequest, entityClass, searchPairs, distinctNeeded, () -> {
+                                FetchResult<E> fetchResult = searchMetrics.recordPhase(
+                                        SearchPhase.PAGE_QUERY,
+                                        entityClass,
+                                        collectionFilters,
+                                        () -> fetchEntities(
+                                                session,
+                                                searchRequest,
+                                                entityClass,
+                                                searchFilters,
+                                                searchSortPairs,
+                                                distinctNeeded));
+                                loadedFetchResult.set(fetchResult);
+                                return fetchResult;
+                            });
+
+                    PersistenceUnitUtil persistenceUnitUtil =
+                            searchQueryCompiler.getEntityManagerFactory().getPersistenceUnitUtil();
+                    List<Object> ids = searchResponse.data().stream()
+                            .map(persistenceUnitUtil::getIdentifier)
+                            .toList();
+                    return new CachedSearchResult(
+                            ids,
+                            searchResponse.totalElements(),
+                            searchResponse.totalElementsExact(),
+                            searchResponse.nextCursor(),
+                            searchResponse.facets());
+                });
+
+        FetchResult<E> fetchResult = loadedFetchResult.get();
+        if (fetchResult == null) {
+            List<E> entities = searchMetrics.recordPhase(
+                    SearchPhase.PAGE_QUERY,
+                    entityClass,
+                    collectionFilters,
+                    () -> findEntitiesByIds(
+                            session, entityClass, cachedSearchResult.ids(), searchRequest.fetchProfile()));
+            fetchResult = new FetchResult<>(entities, cachedSearchResult.nextCursor());
+            searchMetrics.recordResult(
+                    entityClass,
+                    entities.size(),
+                    KeysetPaging.isKeysetPagination(searchRequest) ? 0 : searchRequest.page());
+        }
 
-        return totalElements(entityClass, searchFilterPairs, distinctNeeded);
+        loadCollections(session, entityClass, collectionFilters, fetchResult.entities(), searchRequest.fetchProfile());
+        FetchResult<M> mappedFetchResult = mapEntities(entityClass, collectionFilters, fetchResult, mapper);
+        return new SearchResponse<>(
+                searchRequest,
+                mappedFetchResult.entities().size(),
+                cachedSearchResult.totalElements(),
+                mappedFetchResult.entities(),
+                mappedFetchResult.nextCursor(),
+                cachedSearchResult.totalElementsExact(),
+                cachedSearchResult.facets());
     }
 
-    private <E> long totalElements(
-            Class<E> entityClass, List<SearchFilterPair> searchFilterPairs, boolean distinctNeeded) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
-        Root<E> root = criteriaQuery.from(entityClass);
+    @SuppressWarnings("unchecked")
+    private <E, M> FetchResult<M> mapEntities(
+            Class<E> entityClass,
+            boolean collectionFilters,
+            FetchResult<E> fetchResult,
+            @Nullable Function<E, M> mapper) {
+        if (mapper == null) {
+            return (FetchResult<M>) fetchResult;
+        }
 
-        Expression<Long> countExpression =
-                distinctNeeded ? criteriaBuilder.countDistinct(root) : criteriaBuilder.count(root);
-        criteriaQuery.select(countExpression);
+        List<M> mappedEntities = searchMetrics.recordPhase(
+                SearchPhase.MAPPING, entityClass, collectionFilters, () -> fetchResult.entities().stream()
+                        .map(mapper)
+                        .toList());
+        return new FetchResult<>(mappedEntities, fetchResult.nextCursor());
+    }
 
-        addFilters(root, criteriaBuilder, criteriaQuery, new JoinHolder(), searchFilterPairs);
+    /**
+     * Runs the page fetch, the count query by the request's count strategy and the facet queries and assembles the
+     * response
+     */
+    private <E, T> SearchResponse<T> search(
+            SharedSessionContract session,
+            SearchRequest searchRequest,
+            Class<E> entityClass,
+            SearchPairs searchPairs,
+            boolean distinctNeeded,
+            Supplier<FetchResult<T>> pageFetcher) {
+        SearchFilters searchFilters = searchPairs.searchFilters();
+        List<SearchFacetPair> searchFacetPairs = searchPairs.searchFacetPairs();
+        if (searchFilters.isContradiction()) {
+            return searchQueryCompiler.createEmptyResponse(searchRequest, entityClass, searchFacetPairs);
+        }
 
-        TypedQuery<Long> query = entityManager.createQuery(criteriaQuery);
+        CountStrategy countStrategy =
+                Optional.ofNullable(searchRequest.countStrategy()).orElseGet(searchEngineProperties::getCountStrategy);
+
+        // Expensive requests are executed without the count, which would repeat their filters and joins
+        boolean countNeeded = !searchRequest.withoutTotals() && !searchPairs.totalsSkipped();
+
+        // The count and facet queries are started first, so that they overlap with the page query
+        TotalCounter.PendingCount pendingCount = countNeeded && searchEngineProperties.isParallelCount()
+                ? totalCounter.countTotalAsync(entityClass, searchFilters, distinctNeeded, countStrategy)
+                : null;
+        CompletableFuture<Map<String, List<FacetValue>>> facetsFuture =
+                !searchFacetPairs.isEmpty() && searchEngineProperties.isParallelCount()
+                        ? CompletableFuture.supplyAsync(
+                                () -> searchExecutor.executeDetached(facetSession ->
+                                        fetchFacets(facetSession, entityClass, searchFilters, searchFacetPairs)),
+                                virtualThreadExecutor)
+                        : null;
+
+        FetchResult<T> fetchResult = pageFetcher.get();
+        TotalCount totalCount;
+        if (searchRequest.withoutTotals()) {
+            totalCount = new TotalCount(0, false);
+        } else if (!countNeeded) {
+            totalCount = new TotalCount(SearchResponse.UNKNOWN_TOTAL_ELEMENTS, false);
+        } else if (pendingCount != null) {
+            totalCount = totalCounter.awaitTotalCount(pendingCount);
+        } else {
+            totalCount =
+                    totalCounter.countTotal(session, entityClass, searchFilters, distinctNeeded, countStrategy, null);
+        }
 
-        return query.getSingleResult();
+        Map<String, List<FacetValue>> facets = facetsFuture != null
+                ? awaitFacets(facetsFuture)
+                : fetchFacets(session, entityClass, searchFilters, searchFacetPairs);
+
+        searchMetrics.recordResult(
+                entityClass,
+                fetchResult.entities().size(),
+                KeysetPaging.isKeysetPagination(searchRequest) ? 0 : searchRequest.page());
+
+        return new SearchResponse<>(
+                searchRequest,
+                fetchResult.entities().size(),
+                totalCount.value(),
+                fetchResult.entities(),
+                fetchResult.nextCursor(),
+                totalCount.exact(),
+                facets);
     }
 
-    public Map<Class<?>, List<SearchField>> getCollectedSearchFields() {
-        return searchFieldCreator.getCollectedSearchFields();
+    public <E> List<E> fetchEntities(SearchRequest searchRequest, Class<E> entityClass) {
+        var searchFieldMap = searchFieldRegistry.getSearchFieldMap(entityClass);
+        return fetchEntities(searchRequest, entityClass, searchFieldMap);
     }
 
-    public @Nullable List<SearchField> getCollectedSearchFields(Class<?> entityClass) {
-        return getCollectedSearchFields().get(entityClass);
+    public <E> List<E> fetchEntities(
+            SearchRequest searchRequest, Class<E> entityClass, Collection<SearchField> searchFields) {
+        Map<String, SearchField> searchFieldMap =
+                searchFields.stream().collect(Collectors.toMap(SearchField::id, Function.identity()));
+        return fetchEntities(searchRequest, entityClass, searchFieldMap);
     }
 
-    @Nonnull
-    private List<SearchFilterPair> createSearchFilterPairs(
-            SearchRequest searchRequest, Map<String, SearchField> searchFieldMap) {
-        var filters = searchRequest.filters();
-        if (CollectionUtils.isEmpty(filters)) {
-            return Collections.emptyList();
+    private <E> List<E> fetchEntities(
+            SearchRequest searchRequest, Class<E> entityClass, Map<String, SearchField> searchFieldMap) {
+        SearchPairs searchPairs = searchRequestResolver.validate(
+                entityClass,
+                () -> searchRequestResolver.createFetchSearchPairs(searchRequest, entityClass, searchFieldMap));
+        SearchFilters searchFilters = searchPairs.searchFilters();
+        boolean distinctNeeded = predicateBuilder.isDistinctNeeded(searchFilters);
+        boolean collectionFilters = searchFilters.hasCollectionFilters();
+
+        try {
+            return searchExecutor.execute(session -> {
+                List<E> entities = searchMetrics
+                        .recordPhase(
+                                SearchPhase.PAGE_QUERY,
+                                entityClass,
+                                collectionFilters,
+                                () -> fetchEntities(
+                                        session,
+                                        searchRequest,
+                                        entityClass,
+                                        searchFilters,
+                                        searchPairs.searchSortPairs(),
+                                        distinctNeeded))
+                        .entities();
+                loadCollections(session, entityClass, collectionFilters, entities, searchRequest.fetchProfile());
+                searchMetrics.recordResult(
+                        entityClass,
+                        entities.size(),
+                        KeysetPaging.isKeysetPagination(searchRequest) ? 0 : searchRequest.page());
+                return entities;
+            });
+        } catch (HibernateSearchEngineException e) {
+            searchMetrics.recordRejected(entityClass, e);
+            throw e;
         }
-
-        return filters.stream()
-                .map(filter ->
-                        new SearchFilterPair(filter, FieldConvertUtils.resolveSearchField(searchFieldMap, filter)))
-                .toList();
     }
 
-    @Nonnull
-    private List<SearchSortPair> createSearchSortPairs(
-            SearchRequest searchRequest, Map<String, SearchField> searchFieldMap) {
-        var sorts = searchRequest.sorts();
-        if (CollectionUtils.isEmpty(sorts)) {
-            return Collections.emptyList();
+    private <E> FetchResult<E> fetchEntities(
+            SharedSessionContract session,
+            SearchRequest searchRequest,
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean distinctNeeded) {
+        boolean keysetPagination = KeysetPaging.isKeysetPagination(searchRequest);
+        boolean seekNeeded = keysetPagination && searchRequest.cursor() != null;
+
+        if (distinctNeeded && isTwoPhaseFetchApplicable(searchSortPairs)) {
+            return fetchEntitiesByIds(session, searchRequest, entityClass, searchFilters, searchSortPairs, seekNeeded);
         }
 
-        return sorts.stream()
-                .map(sort -> new SearchSortPair(sort, FieldConvertUtils.resolveSearchField(searchFieldMap, sort)))
-                .toList();
-    }
+        List<Object> parameterValues = predicateBuilder.getParameterValues(searchFilters);
+        if (seekNeeded) {
+            parameterValues.addAll(keysetPaging.getSeekParameterValues(searchSortPairs, searchRequest.cursor()));
+        }
 
-    private boolean isDistinctNeeded(@Nonnull List<SearchFilterPair> searchFilterPairs) {
-        return searchFilterPairs.stream().map(SearchFilterPair::searchField).anyMatch(SearchField::distinct);
-    }
+        if (keysetPagination) {
+            CompiledQuery<Tuple> compiledQuery = searchQueryCompiler.getKeysetEntityQuery(
+                    entityClass, searchFilters, searchSortPairs, seekNeeded, searchRequest.fetchProfile());
+            // One extra row tells whether the next page exists
+            TypedQuery<Tuple> query = searchQueryCompiler.createQuery(session, compiledQuery, parameterValues);
+            query.setMaxResults(searchRequest.size() + 1);
 
-    private void validateSearchRequest(SearchRequest searchRequest, Map<String, SearchField> searchFieldMap) {
-        int maxPageSize = searchEngineProperties.getMaxPageSize();
-        if (searchRequest.size() > maxPageSize) {
-            throw new HibernateSearchEngineException(
-                    "The search request is limited to %s results".formatted(maxPageSize));
+            return keysetPaging.readKeysetPage(query.getResultList(), searchRequest.size(), searchSortPairs);
         }
 
-        Optional.ofNullable(searchRequest.sorts())
-                .orElseGet(Collections::emptyList)
-                .forEach(sort -> validateExistingSearchField(searchFieldMap, sort.field()));
-        Optional.ofNullable(searchRequest.filters())
-                .orElseGet(Collections::emptyList)
-                .forEach(filter -> validateExistingSearchField(searchFieldMap, filter.field()));
+        CompiledQuery<E> compiledQuery = searchQueryCompiler.getEntityQuery(
+                entityClass, searchFilters, searchSortPairs, distinctNeeded, searchRequest.fetchProfile());
+
+        TypedQuery<E> query = searchQueryCompiler.createQuery(session, compiledQuery, parameterValues);
+        query.setFirstResult((searchRequest.page() - 1) * searchRequest.size());
+        query.setMaxResults(searchRequest.size());
+
+        return new FetchResult<>(query.getResultList(), null);
     }
 
-    private void validateExistingSearchField(Map<String, SearchField> searchFieldMap, String field) {
-        SearchField searchField = searchFieldMap.get(field);
-        if (searchField == null) {
-            Set<String> existingFields =
-                    searchFieldMap.values().stream().map(SearchField::id).collect(Collectors.toSet());
-            throw new HibernateSearchEngineException(
-                    "Search field '%s' was not found! Existing fields: %s".formatted(field, existingFields));
+    /**
+     * Sorting by a joined collection can return the same id in several rows, so ids can't be paginated separately
+     */
+    private boolean isTwoPhaseFetchApplicable(List<SearchSortPair> searchSortPairs) {
+        return searchSortPairs.stream()
+                .noneMatch(searchSortPair -> searchSortPair.searchField().distinct());
+    }
+
+    /**
+     * Avoids DISTINCT over wide rows with fetched associations: the page is selected as distinct ids first, then
+     * entities are loaded by these ids with eager joins and put back in the order of the ids.
+     */
+    private <E> FetchResult<E> fetchEntitiesByIds(
+            SharedSessionContract session,
+            SearchRequest searchRequest,
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchSortPair> searchSortPairs,
+            boolean seekNeeded) {
+        CompiledQuery<Tuple> compiledIdQuery =
+                searchQueryCompiler.getPageIdQuery(entityClass, searchFilters, searchSortPairs, seekNeeded);
+
+        List<Object> parameterValues = predicateBuilder.getParameterValues(searchFilters);
+        if (seekNeeded) {
+            parameterValues.addAll(keysetPaging.getSeekParameterValues(searchSortPairs, searchRequest.cursor()));
         }
+
+        TypedQuery<Tuple> idQuery = searchQueryCompiler.createQuery(session, compiledIdQuery, parameterValues);
+        FetchResult<Object> idResult;
+        if (KeysetPaging.isKeysetPagination(searchRequest)) {
+            // One extra row tells whether the next page exists
+            idQuery.setMaxResults(searchRequest.size() + 1);
+            idResult = keysetPaging.readKeysetPage(idQuery.getResultList(), searchRequest.size(), searchSortPairs);
+        } else {
+            idQuery.setFirstResult((searchRequest.page() - 1) * searchRequest.size());
+            idQuery.setMaxResults(searchRequest.size());
+            idResult = new FetchResult<>(
+                    idQuery.getResultList().stream().map(tuple -> tuple.get(0)).toList(), null);
+        }
+
+        List<E> entities = findEntitiesByIds(session, entityClass, idResult.entities(), searchRequest.fetchProfile());
+        return new FetchResult<>(entities, idResult.nextCursor());
     }
 
-    private void addFilters(
-            Root<?> root,
-            CriteriaBuilder criteriaBuilder,
-            CriteriaQuery<?> criteriaQuery,
-            JoinHolder joinHolder,
-            List<SearchFilterPair> searchFilterPairs) {
-        Predicate predicate = criteriaBuilder.conjunction();
-        if (CollectionUtils.isEmpty(searchFilterPairs)) {
-            return;
+    private <E> List<E> findEntitiesByIds(
+            SharedSessionContract session, Class<E> entityClass, List<Object> ids, @Nullable String fetchProfile) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        var searchConsumer = new FilterQueryCriteriaConsumer(criteriaBuilder, root, joinHolder, predicate);
-        searchFilterPairs.forEach(searchConsumer);
+        CompiledQuery<E> compiledQuery = searchQueryCompiler.getEntitiesByIdsQuery(entityClass, fetchProfile);
+        List<E> entities = searchQueryCompiler
+                .createQuery(session, compiledQuery, List.of(ids))
+                .getResultList();
+
+        PersistenceUnitUtil persistenceUnitUtil =
+                searchQueryCompiler.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Object, E> entitiesById = new HashMap<>();
+        entities.forEach(entity -> entitiesById.put(persistenceUnitUtil.getIdentifier(entity), entity));
 
-        criteriaQuery.where(searchConsumer.getPredicate());
+        return ids.stream().map(entitiesById::get).filter(Objects::nonNull).toList();
     }
 
-    private void addSorts(
-            Root<?> root,
-            CriteriaBuilder criteriaBuilder,
-            CriteriaQuery<?> criteriaQuery,
-            JoinHolder joinHolder,
-            List<SearchSortPair> searchSortPairs) {
-        if (CollectionUtils.isEmpty(searchSortPairs)) {
+    /**
+     * Initializes the batch collections of the page with one query per collection instead of one query per entity when
+     * they are accessed. The collections are fetched by the ids of the page, so they don't affect the pagination.
+     * Stateless sessions return new instances for every query, so their loaded collections are copied to the page.
+     */
+    private <E> void loadCollections(
+            SharedSessionContract session,
+            Class<E> entityClass,
+            boolean collectionFilters,
+            List<E> entities,
+            @Nullable String fetchProfile) {
+        List<String> collections = graphBuilder.getBatchCollections(entityClass, fetchProfile);
+        if (collections.isEmpty() || entities.isEmpty()) {
             return;
         }
 
-        List<Order> orders = searchSortPairs.stream()
-                .map(searchSortPair -> {
-                    SearchField searchField = searchSortPair.searchField();
-                    Path<?> path = joinHolder.getPath(root, searchField);
+        PersistenceUnitUtil persistenceUnitUtil =
+                searchQueryCompiler.getEntityManagerFactory().getPersistenceUnitUtil();
+        searchMetrics.recordPhase(SearchPhase.COLLECTION_QUERY, entityClass, collectionFilters, () -> {
+            for (String collection : collections) {
+                PreparedQuery<E> collectionQuery =
+                        searchQueryCompiler.prepareCollectionQuery(entityClass, entities, collection);
+                if (collectionQuery == null) {
+                    continue;
+                }
 
-                    return searchSortPair.sort().direction() == SortDirection.DESCENDING
-                            ? criteriaBuilder.desc(path)
-                            : criteriaBuilder.asc(path);
-                })
-                .toList();
+                List<E> loadedEntities = searchQueryCompiler
+                        .createQuery(session, collectionQuery)
+                        .getResultList();
+                if (session instanceof StatelessSession) {
+                    Map<Object, E> loadedEntitiesById = new HashMap<>();
+                    loadedEntities.forEach(loadedEntity ->
+                            loadedEntitiesById.put(persistenceUnitUtil.getIdentifier(loadedEntity), loadedEntity));
+                    entities.forEach(entity -> {
+                        E loadedEntity = loadedEntitiesById.get(persistenceUnitUtil.getIdentifier(entity));
+                        if (loadedEntity != null) {
+                            graphBuilder.copyAttribute(entityClass, collection, loadedEntity, entity);
+                        }
+                    });
+                }
+            }
+            return null;
+        });
+    }
 
-        criteriaQuery.orderBy(orders);
+    /**
+     * Streams all entities that match the filters in the order of the sorts, pagination of the request is ignored and
+     * a cursor is rejected. Rows are read through a forward-only cursor, and every {@code streamClearInterval} rows the
+     * persistence context is flushed and the streamed entities are detached, so that memory stays flat and changes made
+     * so far are not lost. Other entities of the transaction stay managed, except for those the stream returned.
+     *
+     * <p>Requires a surrounding transaction, as the stream is consumed after this method returns. The stream must be
+     * closed, e.g. with try-with-resources.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public <E> Stream<E> stream(SearchRequest searchRequest, Class<E> entityClass) {
+        var searchFieldMap = searchFieldRegistry.getSearchFieldMap(entityClass);
+        return stream(searchRequest, entityClass, searchFieldMap);
     }
 
-    private static class JoinHolder {
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public <E> Stream<E> stream(
+            SearchRequest searchRequest, Class<E> entityClass, Collection<SearchField> searchFields) {
+        Map<String, SearchField> searchFieldMap =
+                searchFields.stream().collect(Collectors.toMap(SearchField::id, Function.identity()));
+        return stream(searchRequest, entityClass, searchFieldMap);
+    }
 
-        private final Map<String, Join<?, ?>> builtJoins = new HashMap<>();
+    /**
+     * Passes all entities that match the filters to the consumer within one transaction, see
+     * {@link #stream(SearchRequest, Class)}
+     */
+    @Transactional(readOnly = true)
+    public <E> void forEach(SearchRequest searchRequest, Class<E> entityClass, Consumer<? super E> consumer) {
+        var searchFieldMap = searchFieldRegistry.getSearchFieldMap(entityClass);
+        try (Stream<E> entities = stream(searchRequest, entityClass, searchFieldMap)) {
+            entities.forEach(consumer);
+        }
+    }
 
-        public <Y> Path<Y> getPath(Root<?> root, SearchField searchField) {
-            String[] fields = searchField.path().split("\\.");
-            String firstField = fields[0];
-            int length = fields.length;
+    private <E> Stream<E> stream(
+            SearchRequest searchRequest, Class<E> entityClass, Map<String, SearchField> searchFieldMap) {
+        SearchPairs searchPairs = searchRequestResolver.validate(
+                entityClass,
+                () -> searchRequestResolver.createStreamSearchPairs(searchRequest, entityClass, searchFieldMap));
+        return stream(searchRequest, entityClass, searchPairs);
+    }
 
-            if (length == 1 && !searchField.elementCollection()) {
-                return root.get(firstField);
-            }
+    @SuppressWarnings("unchecked")
+    private <E> Stream<E> stream(SearchRequest searchRequest, Class<E> entityClass, SearchPairs searchPairs) {
+        SearchFilters searchFilters = searchPairs.searchFilters();
+        boolean distinctNeeded = predicateBuilder.isDistinctNeeded(searchFilters);
+
+        CompiledQuery<E> compiledQuery = streamQueryCompiler.getEntityQuery(
+                entityClass,
+                searchFilters,
+                searchPairs.searchSortPairs(),
+                distinctNeeded,
+                searchRequest.fetchProfile());
+
+        Query<E> query = streamQueryCompiler
+                .createQuery(
+                        entityManager.unwrap(Session.class),
+                        compiledQuery,
+                        predicateBuilder.getParameterValues(searchFilters))
+                .unwrap(Query.class);
+        query.setFetchSize(searchEngineProperties.getStreamFetchSize());
+        ScrollableResults<E> scrollableResults = searchMetrics.recordPhase(
+                SearchPhase.PAGE_QUERY,
+                entityClass,
+                searchFilters.hasCollectionFilters(),
+                () -> query.scroll(ScrollMode.FORWARD_ONLY));
+
+        var spliterator = new ScrollableResultsSpliterator<>(
+                scrollableResults, entityManager, searchEngineProperties.getStreamClearInterval());
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            scrollableResults.close();
+            searchMetrics.recordResult(entityClass, spliterator.getPosition(), 0);
+        });
+    }
 
-            Join<?, ?> rootJoin = builtJoins.get(firstField);
-            if (rootJoin == null) {
-                rootJoin = root.join(firstField, JoinType.LEFT);
-                builtJoins.put(firstField, rootJoin);
-            }
+    public <E> long totalElements(SearchRequest searchRequest, Class<E> entityClass) {
+        var searchFieldMap = searchFieldRegistry.getSearchFieldMap(entityClass);
+        return totalElements(searchRequest, entityClass, searchFieldMap);
+    }
 
-            if (searchField.elementCollection()) {
-                //noinspection unchecked
-                return (Path<Y>) rootJoin;
-            }
+    public <E> long totalElements(
+            SearchRequest searchRequest, Class<E> entityClass, Collection<SearchField> searchFields) {
+        Map<String, SearchField> searchFieldMap =
+                searchFields.stream().collect(Collectors.toMap(SearchField::id, Function.identity()));
+        return totalElements(searchRequest, entityClass, searchFieldMap);
+    }
 
-            String currentPath = firstField;
-            for (int i = 1; i < length - 1; i++) {
-                currentPath = currentPath + "." + fields[i];
-                Join<?, ?> cachedJoin = builtJoins.get(currentPath);
-                if (cachedJoin == null) {
-                    cachedJoin = rootJoin.join(fields[i], JoinType.LEFT);
-                    builtJoins.put(currentPath, cachedJoin);
-                }
-                rootJoin = cachedJoin;
+    /**
+     * The count is recorded as {@link SearchPhase#COUNT_QUERY}, no result is recorded as no entities are returned
+     */
+    private <E> long totalElements(
+            SearchRequest searchRequest, Class<E> entityClass, Map<String, SearchField> searchFieldMap) {
+        SearchFilters searchFilters = searchRequestResolver
+                .validate(
+                        entityClass,
+                        () -> searchRequestResolver.createCountSearchPairs(searchRequest, entityClass, searchFieldMap))
+                .searchFilters();
+        boolean distinctNeeded = predicateBuilder.isDistinctNeeded(searchFilters);
+
+        try {
+            return searchExecutor.execute(session -> totalCounter
+                    .countTotal(session, entityClass, searchFilters, distinctNeeded, CountStrategy.EXACT, null)
+                    .value());
+        } catch (HibernateSearchEngineException e) {
+            searchMetrics.recordRejected(entityClass, e);
+            throw e;
+        }
+    }
+
+    private Map<String, List<FacetValue>> awaitFacets(CompletableFuture<Map<String, List<FacetValue>>> facetsFuture) {
+        try {
+            return facetsFuture.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
 
-            return rootJoin.get(fields[length - 1]);
+            throw new HibernateSearchEngineException(
+                    "Unable to count facet values: %s".formatted(e.getCause().getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HibernateSearchEngineException("Interrupted while counting facet values");
         }
     }
 
-    private static class FilterQueryCriteriaConsumer implements Consumer<SearchFilterPair> {
+    private <E> Map<String, List<FacetValue>> fetchFacets(
+            SharedSessionContract facetSession,
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            List<SearchFacetPair> searchFacetPairs) {
+        if (searchFacetPairs.isEmpty()) {
+            return Collections.emptyMap();
+        }
 
-        private final CriteriaBuilder builder;
-        private final Root<?> root;
-        private final JoinHolder joinHolder;
-        private Predicate predicate;
+        return searchMetrics.recordPhase(
+                SearchPhase.FACET_QUERY, entityClass, searchFilters.hasCollectionFilters(), () -> {
+                    Map<String, List<FacetValue>> facets = new LinkedHashMap<>();
+                    for (SearchFacetPair searchFacetPair : searchFacetPairs) {
+                        PreparedQuery<Tuple> facetQuery =
+                                searchQueryCompiler.prepareFacetQuery(entityClass, searchFilters, searchFacetPair);
+                        facets.put(
+                                searchFacetPair.facet().field(),
+                                toFacetValues(searchQueryCompiler
+                                        .createQuery(facetSession, facetQuery)
+                                        .getResultList()));
+                    }
+
+                    return facets;
+                });
+    }
 
-        public FilterQueryCriteriaConsumer(
-                CriteriaBuilder builder, Root<?> root, JoinHolder joinHolder, Predicate predicate) {
-            this.builder = builder;
-            this.root = root;
-            this.joinHolder = joinHolder;
-            this.predicate = predicate;
-        }
+    static List<FacetValue> toFacetValues(List<Tuple> tuples) {
+        return tuples.stream()
+                .map(tuple -> new FacetValue(tuple.get(0), tuple.get(1, Long.class)))
+                .toList();
+    }
 
-        public Predicate getPredicate() {
-            return predicate;
-        }
+    SearchQueryCompiler getSearchQueryCompiler() {
+        return searchQueryCompiler;
+    }
 
-        @Override
-        public void accept(SearchFilterPair searchFilterPair) {
-            Filter filter = searchFilterPair.filter();
-            SearchField searchField = searchFilterPair.searchField();
+    public Map<Class<?>, List<SearchField>> getCollectedSearchFields() {
+        return searchFieldRegistry.getSearchFields();
+    }
 
-            FilterType filterType = filter.type();
+    public @Nullable List<SearchField> getCollectedSearchFields(Class<?> entityClass) {
+        return getCollectedSearchFields().get(entityClass);
+    }
 
-            List<?> valueList = filterType.isNullAllowed()
-                    ? null
-                    : filter.value().stream()
-                            .map(originalValue -> getConvertedValue(originalValue, searchField))
-                            .toList();
-            Object singleValue = filterType.isNullAllowed() ? null : valueList.getFirst();
-
-            switch (filterType) {
-                case IS_NULL -> predicate = builder.and(predicate, builder.isNull(getPath(searchField)));
-                case IS_NOT_NULL -> predicate = builder.and(predicate, builder.isNotNull(getPath(searchField)));
-                case EQUAL -> predicate = builder.and(predicate, builder.equal(getPath(searchField), singleValue));
-                case NOT_EQUAL ->
-                    predicate = builder.and(predicate, builder.notEqual(getPath(searchField), singleValue));
-                case IN ->
-                    predicate = builder.and(predicate, getPath(searchField).in(valueList));
-                case NOT_IN ->
-                    predicate = builder.and(
-                            predicate, getPath(searchField).in(valueList).not());
-                case LIKE ->
-                    predicate = builder.and(
-                            predicate, builder.like(builder.lower(getPath(searchField)), getLikeValue(singleValue)));
-                case NOT_LIKE ->
-                    predicate = builder.and(
-                            predicate, builder.notLike(builder.lower(getPath(searchField)), getLikeValue(singleValue)));
-                case GREATER_THAN -> buildComparePredicate(GREATER_THAN, searchField, singleValue);
-                case GREATER_THAN_OR_EQUAL -> buildComparePredicate(GREATER_THAN_OR_EQUAL, searchField, singleValue);
-                case LESS_THAN -> buildComparePredicate(LESS_THAN, searchField, singleValue);
-                case LESS_THAN_OR_EQUAL -> buildComparePredicate(LESS_THAN_OR_EQUAL, searchField, singleValue);
-            }
-        }
+    public SearchResultCache getSearchResultCache() {
+        return searchResultCache;
+    }
+
+    public SearchResultCache getCountCache() {
+        return countCache;
+    }
 
-        private String getLikeValue(@Nullable Object singleValue) {
-            return singleValue == null ? "" : "%" + singleValue.toString().toLowerCase() + "%";
+    public QueryPlanCache getQueryPlanCache() {
+        return searchQueryCompiler.getQueryPlanCache();
+    }
+
+    /**
+     * Flushes the persistence context and detaches the returned entities before reading the next row, when the consumer
+     * is done with the previous ones
+     */
+    private static class ScrollableResultsSpliterator<E> extends Spliterators.AbstractSpliterator<E> {
+
+        private final ScrollableResults<E> scrollableResults;
+        private final EntityManager entityManager;
+        private final int clearInterval;
+        private final List<E> returnedEntities = new ArrayList<>();
+        private long position;
+
+        ScrollableResultsSpliterator(
+                ScrollableResults<E> scrollableResults, EntityManager entityManager, int clearInterval) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.scrollableResults = scrollableResults;
+            this.entityManager = entityManager;
+            this.clearInterval = clearInterval;
         }
 
-        private void buildComparePredicate(FilterType filterType, SearchField searchField, Object value) {
-            if (value instanceof Integer castedValue) {
-                buildComparePredicate(filterType, searchField, castedValue);
-            }
-            if (value instanceof Long castedValue) {
-                buildComparePredicate(filterType, searchField, castedValue);
-            }
-            if (value instanceof BigDecimal castedValue) {
-                buildComparePredicate(filterType, searchField, castedValue);
-            }
-            if (value instanceof Instant castedValue) {
-                buildComparePredicate(filterType, searchField, castedValue);
-            }
-            if (value instanceof LocalDate castedValue) {
-                buildComparePredicate(filterType, searchField, castedValue);
-            }
-            if (value instanceof LocalDateTime castedValue) {
-                buildComparePredicate(filterType, searchField, castedValue);
-            }
-            if (value instanceof ZonedDateTime castedValue) {
-                buildComparePredicate(filterType, searchField, castedValue);
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (clearInterval > 0 && position > 0 && position % clearInterval == 0) {
+                // Changes of the consumer would be discarded by the detach
+                entityManager.flush();
+                returnedEntities.forEach(entityManager::detach);
+                returnedEntities.clear();
             }
-            if (value instanceof OffsetDateTime castedValue) {
-                buildComparePredicate(filterType, searchField, castedValue);
+
+            if (!scrollableResults.next()) {
+                return false;
             }
-        }
 
-        private <K extends Comparable<K>> void buildComparePredicate(
-                FilterType filterType, SearchField searchField, K value) {
-            switch (filterType) {
-                case GREATER_THAN ->
-                    predicate = builder.and(predicate, builder.greaterThan(getPath(searchField), value));
-                case GREATER_THAN_OR_EQUAL ->
-                    predicate = builder.and(predicate, builder.greaterThanOrEqualTo(getPath(searchField), value));
-                case LESS_THAN -> predicate = builder.and(predicate, builder.lessThan(getPath(searchField), value));
-                case LESS_THAN_OR_EQUAL ->
-                    predicate = builder.and(predicate, builder.lessThanOrEqualTo(getPath(searchField), value));
-                default ->
-                    throw new HibernateSearchEngineException(
-                            String.format("Can't build compare predicate for filter type %s", filterType));
+            position++;
+            E entity = scrollableResults.get();
+            if (clearInterval > 0) {
+                returnedEntities.add(entity);
             }
+            action.accept(entity);
+            return true;
         }
 
-        private <Y> Path<Y> getPath(SearchField searchField) {
-            return joinHolder.getPath(root, searchField);
+        int getPosition() {
+            return (int) Math.min(position, Integer.MAX_VALUE);
         }
     }
 
-    private record SearchFilterPair(Filter filter, SearchField searchField) {}
-
-    private record SearchSortPair(Sort sort, SearchField searchField) {}
+    private record CachedSearchResult(
+            List<Object> ids,
+            long totalElements,
+            boolean totalElementsExact,
+            @Nullable String nextCursor,
+            Map<String, List<FacetValue>> facets) {}
+
+    /**
+     * Filters are compared as a set, as their order doesn't change the result
+     */
+    private record ResultCacheKey(
+            Class<?> entityClass,
+            int page,
+            int size,
+            boolean withoutTotals,
+            List<Sort> sorts,
+            Set<Filter> filters,
+            PaginationType pagination,
+            @Nullable String cursor,
+            CountStrategy countStrategy,
+            List<Facet> facets,
+            @Nullable FilterGroup filterGroup) {
+
+        static ResultCacheKey of(
+                Class<?> entityClass, SearchRequest searchRequest, CountStrategy defaultCountStrategy) {
+            boolean keysetPagination = KeysetPaging.isKeysetPagination(searchRequest);
+            return new ResultCacheKey(
+                    entityClass,
+                    keysetPagination ? 1 : searchRequest.page(),
+                    searchRequest.size(),
+                    searchRequest.withoutTotals(),
+                    Optional.ofNullable(searchRequest.sorts()).map(List::copyOf).orElseGet(Collections::emptyList),
+                    Optional.ofNullable(searchRequest.filters())
+                            .map(Set::copyOf)
+                            .orElseGet(Collections::emptySet),
+                    keysetPagination ? PaginationType.KEYSET : PaginationType.OFFSET,
+                    searchRequest.cursor(),
+                    Optional.ofNullable(searchRequest.countStrategy()).orElse(defaultCountStrategy),
+                    Optional.ofNullable(searchRequest.facets())
+                            .map(List::copyOf)
+                            .orElseGet(Collections::emptyList),
+                    searchRequest.filterGroup());
+        }
+    }
 }
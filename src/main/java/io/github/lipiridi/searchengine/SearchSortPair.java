@@ -0,0 +1,11 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.dto.Sort;
+
+/**
+ * Sort of a search request with its resolved search field
+ *
+ * @param nullable whether nulls of the keyset sort key are ordered explicitly, see
+ *     {@link PredicateBuilder#addSorts}. Sorts of offset pagination keep the database order of nulls.
+ */
+record SearchSortPair(Sort sort, SearchField searchField, boolean nullable) {}
@@ -0,0 +1,3 @@
+package io.github.lipiridi.searchengine;
+
+record TotalCount(long value, boolean exact) {}
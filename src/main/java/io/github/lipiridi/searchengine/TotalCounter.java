@@ -0,0 +1,264 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.count.RowCountEstimator;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.execution.SearchExecutor;
+import io.github.lipiridi.searchengine.metrics.SearchMetrics;
+import io.github.lipiridi.searchengine.metrics.SearchPhase;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Counts the total elements of searches by the count strategy, through the count cache and, with parallel count, on
+ * a virtual thread that overlaps with the page query
+ */
+class TotalCounter {
+
+    private final SearchEngineProperties searchEngineProperties;
+    private final SearchFieldRegistry searchFieldRegistry;
+    private final SearchQueryCompiler searchQueryCompiler;
+    private final PredicateBuilder predicateBuilder;
+    private final RowCountEstimator rowCountEstimator;
+    private final SearchMetrics searchMetrics;
+    private final SearchExecutor searchExecutor;
+    private final SearchResultCache countCache;
+    private final Executor countExecutor;
+
+    TotalCounter(
+            SearchEngineProperties searchEngineProperties,
+            SearchFieldRegistry searchFieldRegistry,
+            SearchQueryCompiler searchQueryCompiler,
+            PredicateBuilder predicateBuilder,
+            RowCountEstimator rowCountEstimator,
+            SearchMetrics searchMetrics,
+            SearchExecutor searchExecutor,
+            SearchResultCache countCache,
+            Executor countExecutor) {
+        this.searchEngineProperties = searchEngineProperties;
+        this.searchFieldRegistry = searchFieldRegistry;
+        this.searchQueryCompiler = searchQueryCompiler;
+        this.predicateBuilder = predicateBuilder;
+        this.rowCountEstimator = rowCountEstimator;
+        this.searchMetrics = searchMetrics;
+        this.searchExecutor = searchExecutor;
+        this.countCache = countCache;
+        this.countExecutor = countExecutor;
+    }
+
+    /**
+     * Counts on a virtual thread in a detached session of the search executor, as the persistence context of the
+     * caller can't be shared between threads. Uncommitted changes of the caller's transaction are not visible to the
+     * count.
+     */
+    <E> PendingCount countTotalAsync(
+            Class<E> entityClass, SearchFilters searchFilters, boolean distinctNeeded, CountStrategy countStrategy) {
+        Duration countTimeout = searchEngineProperties.getCountTimeout();
+        AtomicReference<SharedSessionContract> countSessionHolder = new AtomicReference<>();
+        CompletableFuture<TotalCount> future = CompletableFuture.supplyAsync(
+                () -> searchExecutor.executeDetached(countSession -> {
+                    countSessionHolder.set(countSession);
+                    try {
+                        return countTotal(
+                                countSession, entityClass, searchFilters, distinctNeeded, countStrategy, countTimeout);
+                    } finally {
+                        countSessionHolder.set(null);
+                    }
+                }),
+                countExecutor);
+        return new PendingCount(future, countSessionHolder);
+    }
+
+    /**
+     * Waits for the count by the count timeout. A count that is still running is cancelled on the database, as
+     * interrupting the thread doesn't stop a JDBC statement.
+     */
+    TotalCount awaitTotalCount(PendingCount pendingCount) {
+        Duration countTimeout = searchEngineProperties.getCountTimeout();
+        CompletableFuture<TotalCount> totalCountFuture = pendingCount.future();
+        try {
+            return countTimeout == null
+                    ? totalCountFuture.get()
+                    : totalCountFuture.get(countTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pendingCount.cancel();
+            return new TotalCount(SearchResponse.UNKNOWN_TOTAL_ELEMENTS, false);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw new HibernateSearchEngineException(
+                    "Unable to count total elements: %s".formatted(e.getCause().getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pendingCount.cancel();
+            throw new HibernateSearchEngineException("Interrupted while counting total elements");
+        }
+    }
+
+    <E> TotalCount countTotal(
+            SharedSessionContract countSession,
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            boolean distinctNeeded,
+            CountStrategy countStrategy,
+            @Nullable Duration queryTimeout) {
+        return searchMetrics.recordPhase(
+                SearchPhase.COUNT_QUERY, entityClass, searchFilters.hasCollectionFilters(), () -> {
+                    if (!countCache.isEnabled()) {
+                        return countTotalByStrategy(
+                                countSession, entityClass, searchFilters, distinctNeeded, countStrategy, queryTimeout);
+                    }
+
+                    // Totals don't depend on the page and sorts, so all pages of a search share the same entry
+                    return countCache.get(
+                            new CountCacheKey(
+                                    entityClass,
+                                    Set.copyOf(searchFilters.searchFilterPairs()),
+                                    searchFilters.filterGroup(),
+                                    countStrategy),
+                            searchFieldRegistry.getQueriedEntityTypes(
+                                    entityClass,
+                                    searchFilters.getAllSearchFilterPairs().stream()
+                                            .map(SearchFilterPair::searchField)
+                                            .toList()),
+                            () -> countTotalByStrategy(
+                                    countSession,
+                                    entityClass,
+                                    searchFilters,
+                                    distinctNeeded,
+                                    countStrategy,
+                                    queryTimeout));
+                });
+    }
+
+    private <E> TotalCount countTotalByStrategy(
+            SharedSessionContract countSession,
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            boolean distinctNeeded,
+            CountStrategy countStrategy,
+            @Nullable Duration queryTimeout) {
+        return switch (countStrategy) {
+            case EXACT ->
+                new TotalCount(
+                        exactTotalCount(countSession, entityClass, searchFilters, distinctNeeded, queryTimeout), true);
+            case CAPPED -> cappedTotalCount(countSession, entityClass, searchFilters, distinctNeeded, queryTimeout);
+            case ESTIMATED ->
+                estimatedTotalCount(countSession, entityClass, searchFilters, distinctNeeded, queryTimeout);
+        };
+    }
+
+    /**
+     * Fetches at most cap + 1 ids instead of counting all matching rows
+     */
+    private <E> TotalCount cappedTotalCount(
+            SharedSessionContract countSession,
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            boolean distinctNeeded,
+            @Nullable Duration queryTimeout) {
+        CompiledQuery<Object> compiledQuery =
+                searchQueryCompiler.getIdQuery(entityClass, searchFilters, distinctNeeded);
+
+        int countCap = searchEngineProperties.getCountCap();
+        TypedQuery<Object> query = searchQueryCompiler.createQuery(
+                countSession, compiledQuery, predicateBuilder.getParameterValues(searchFilters));
+        query.setMaxResults(countCap + 1);
+        SearchQueryCompiler.setQueryTimeout(query, queryTimeout);
+
+        int count = query.getResultList().size();
+        return count > countCap ? new TotalCount(countCap, false) : new TotalCount(count, true);
+    }
+
+    /**
+     * Database statistics are kept per table, so only requests without filters can be estimated
+     */
+    private <E> TotalCount estimatedTotalCount(
+            SharedSessionContract countSession,
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            boolean distinctNeeded,
+            @Nullable Duration queryTimeout) {
+        if (searchFilters.isEmpty()) {
+            Long estimate = estimateRowCount(countSession, entityClass);
+            if (estimate != null) {
+                return new TotalCount(estimate, false);
+            }
+        }
+
+        return cappedTotalCount(countSession, entityClass, searchFilters, distinctNeeded, queryTimeout);
+    }
+
+    /**
+     * Row count estimators read the statistics by an entity manager, which stateless sessions are not
+     */
+    @Nullable
+    private Long estimateRowCount(SharedSessionContract countSession, Class<?> entityClass) {
+        if (countSession instanceof EntityManager countEntityManager) {
+            return rowCountEstimator.estimate(countEntityManager, entityClass);
+        }
+
+        EntityManager countEntityManager = countSession.getFactory().createEntityManager();
+        try {
+            return rowCountEstimator.estimate(countEntityManager, entityClass);
+        } finally {
+            countEntityManager.close();
+        }
+    }
+
+    private <E> long exactTotalCount(
+            SharedSessionContract countSession,
+            Class<E> entityClass,
+            SearchFilters searchFilters,
+            boolean distinctNeeded,
+            @Nullable Duration queryTimeout) {
+        CompiledQuery<Long> compiledQuery =
+                searchQueryCompiler.getCountQuery(entityClass, searchFilters, distinctNeeded);
+
+        TypedQuery<Long> query = searchQueryCompiler.createQuery(
+                countSession, compiledQuery, predicateBuilder.getParameterValues(searchFilters));
+        SearchQueryCompiler.setQueryTimeout(query, queryTimeout);
+
+        return query.getSingleResult();
+    }
+
+    /**
+     * Count that runs in a detached session, the session is set while the count queries are executed
+     */
+    record PendingCount(
+            CompletableFuture<TotalCount> future, AtomicReference<SharedSessionContract> countSessionHolder) {
+
+        void cancel() {
+            future.cancel(true);
+            if (countSessionHolder.get() instanceof SharedSessionContractImplementor countSession) {
+                try {
+                    countSession.getJdbcCoordinator().cancelLastQuery();
+                } catch (RuntimeException e) {
+                    // The count finished or its session was closed in the meantime
+                }
+            }
+        }
+    }
+
+    /**
+     * Filters are resolved to search fields, so that searches with custom search fields don't share entries
+     */
+    private record CountCacheKey(
+            Class<?> entityClass,
+            Set<SearchFilterPair> searchFilterPairs,
+            @Nullable FilterTree filterGroup,
+            CountStrategy countStrategy) {}
+}
@@ -1,11 +1,25 @@
 package io.github.lipiridi.searchengine.config;
 
+import io.github.lipiridi.searchengine.SearchFieldRegistry;
 import io.github.lipiridi.searchengine.SearchService;
+import io.github.lipiridi.searchengine.count.RowCountEstimator;
+import io.github.lipiridi.searchengine.execution.SearchExecutor;
+import io.github.lipiridi.searchengine.metrics.MicrometerSearchMetrics;
+import io.github.lipiridi.searchengine.metrics.SearchMetrics;
+import io.github.lipiridi.searchengine.text.FullTextFunction;
+import io.github.lipiridi.searchengine.text.SearchEngineFunctionContributor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
 @AutoConfiguration
 @EnableConfigurationProperties(SearchEngineProperties.class)
@@ -13,7 +27,82 @@ public class SearchEngineConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public SearchService searchService(EntityManager entityManager, SearchEngineProperties searchEngineProperties) {
-        return new SearchService(entityManager, searchEngineProperties);
+    public SearchFieldRegistry searchFieldRegistry(
+            EntityManagerFactory entityManagerFactory, SearchEngineProperties searchEngineProperties) {
+        return new SearchFieldRegistry(
+                entityManagerFactory.getMetamodel(), searchEngineProperties.getNamingConvention());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RowCountEstimator rowCountEstimator(EntityManagerFactory entityManagerFactory) {
+        return RowCountEstimator.forEntityManagerFactory(entityManagerFactory);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public FullTextFunction fullTextFunction(EntityManagerFactory entityManagerFactory) {
+        return FullTextFunction.forEntityManagerFactory(entityManagerFactory);
+    }
+
+    /**
+     * Passes the text search configuration to the functions registered by {@link SearchEngineFunctionContributor}
+     */
+    @Bean
+    public HibernatePropertiesCustomizer searchEngineHibernatePropertiesCustomizer(
+            SearchEngineProperties searchEngineProperties) {
+        return hibernateProperties -> hibernateProperties.put(
+                SearchEngineFunctionContributor.TEXT_SEARCH_CONFIG_SETTING,
+                searchEngineProperties.getTextSearchConfig());
+    }
+
+    /**
+     * Define a bean of {@link SearchExecutor#readOnlySession} with the entity manager factory of a read replica to route
+     * searches to the replica
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public SearchExecutor searchExecutor(EntityManager entityManager, SearchEngineProperties searchEngineProperties) {
+        return searchEngineProperties.isStatelessSession()
+                ? SearchExecutor.statelessSession(entityManager.getEntityManagerFactory())
+                : SearchExecutor.forEntityManager(entityManager);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SearchService searchService(
+            EntityManager entityManager,
+            SearchEngineProperties searchEngineProperties,
+            SearchFieldRegistry searchFieldRegistry,
+            RowCountEstimator rowCountEstimator,
+            ObjectProvider<SearchMetrics> searchMetrics,
+            FullTextFunction fullTextFunction,
+            SearchExecutor searchExecutor) {
+        return new SearchService(
+                entityManager,
+                searchEngineProperties,
+                searchFieldRegistry,
+                rowCountEstimator,
+                searchMetrics.getIfAvailable(() -> SearchMetrics.NOOP),
+                fullTextFunction,
+                searchExecutor);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MicrometerConfiguration {
+
+        // Registries are looked up on creation instead of @ConditionalOnBean, which depends on auto-configuration order
+        @Bean
+        @ConditionalOnMissingBean
+        public SearchMetrics searchMetrics(
+                ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<ObservationRegistry> observationRegistry) {
+            MeterRegistry registry = meterRegistry.getIfUnique();
+            if (registry == null) {
+                return SearchMetrics.NOOP;
+            }
+
+            return new MicrometerSearchMetrics(registry, observationRegistry.getIfUnique());
+        }
     }
 }
@@ -1,5 +1,11 @@
 package io.github.lipiridi.searchengine.config;
 
+import io.github.lipiridi.searchengine.CountStrategy;
+import jakarta.annotation.Nullable;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "spring.jpa.hibernate.search-engine")
@@ -7,6 +13,33 @@ public class SearchEngineProperties {
 
     private int maxPageSize = 100;
     private NamingConvention namingConvention = NamingConvention.CAMEL_CASE;
+    private int queryPlanCacheSize = 256;
+    private boolean parallelCount;
+
+    @Nullable
+    private Duration countTimeout;
+
+    private CountStrategy countStrategy = CountStrategy.EXACT;
+    private int countCap = 1000;
+    private boolean existsSubqueries = true;
+    private int streamFetchSize = 500;
+    private int streamClearInterval = 1000;
+    private int resultCacheSize;
+    private Duration resultCacheTtl = Duration.ofMinutes(1);
+    private int countCacheSize;
+    private Duration countCacheTtl = Duration.ofMinutes(5);
+    private int inListPaddingThreshold = 8;
+    private int multiSearchConcurrency = 4;
+    private int maxFacetValues = 100;
+    private String textSearchConfig = "simple";
+    private long maxQueryCost;
+    private Map<String, Long> maxQueryCostByEntity = new HashMap<>();
+    private long maxQueryCostWithTotals;
+    private Map<String, List<String>> batchFetchCollections = new HashMap<>();
+    private boolean statelessSession;
+
+    @Nullable
+    private Duration queryTimeout;
 
     public int getMaxPageSize() {
         return maxPageSize;
@@ -24,6 +57,184 @@ public class SearchEngineProperties {
         this.namingConvention = namingConvention;
     }
 
+    public int getQueryPlanCacheSize() {
+        return queryPlanCacheSize;
+    }
+
+    public void setQueryPlanCacheSize(int queryPlanCacheSize) {
+        this.queryPlanCacheSize = queryPlanCacheSize;
+    }
+
+    public boolean isParallelCount() {
+        return parallelCount;
+    }
+
+    public void setParallelCount(boolean parallelCount) {
+        this.parallelCount = parallelCount;
+    }
+
+    @Nullable
+    public Duration getCountTimeout() {
+        return countTimeout;
+    }
+
+    public void setCountTimeout(@Nullable Duration countTimeout) {
+        this.countTimeout = countTimeout;
+    }
+
+    public CountStrategy getCountStrategy() {
+        return countStrategy;
+    }
+
+    public void setCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+    }
+
+    public int getCountCap() {
+        return countCap;
+    }
+
+    public void setCountCap(int countCap) {
+        this.countCap = countCap;
+    }
+
+    public boolean isExistsSubqueries() {
+        return existsSubqueries;
+    }
+
+    public void setExistsSubqueries(boolean existsSubqueries) {
+        this.existsSubqueries = existsSubqueries;
+    }
+
+    public int getStreamFetchSize() {
+        return streamFetchSize;
+    }
+
+    public void setStreamFetchSize(int streamFetchSize) {
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    public int getStreamClearInterval() {
+        return streamClearInterval;
+    }
+
+    public void setStreamClearInterval(int streamClearInterval) {
+        this.streamClearInterval = streamClearInterval;
+    }
+
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    public void setResultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+    }
+
+    public Duration getResultCacheTtl() {
+        return resultCacheTtl;
+    }
+
+    public void setResultCacheTtl(Duration resultCacheTtl) {
+        this.resultCacheTtl = resultCacheTtl;
+    }
+
+    public int getCountCacheSize() {
+        return countCacheSize;
+    }
+
+    public void setCountCacheSize(int countCacheSize) {
+        this.countCacheSize = countCacheSize;
+    }
+
+    public Duration getCountCacheTtl() {
+        return countCacheTtl;
+    }
+
+    public void setCountCacheTtl(Duration countCacheTtl) {
+        this.countCacheTtl = countCacheTtl;
+    }
+
+    public int getInListPaddingThreshold() {
+        return inListPaddingThreshold;
+    }
+
+    public void setInListPaddingThreshold(int inListPaddingThreshold) {
+        this.inListPaddingThreshold = inListPaddingThreshold;
+    }
+
+    public int getMultiSearchConcurrency() {
+        return multiSearchConcurrency;
+    }
+
+    public void setMultiSearchConcurrency(int multiSearchConcurrency) {
+        this.multiSearchConcurrency = multiSearchConcurrency;
+    }
+
+    public int getMaxFacetValues() {
+        return maxFacetValues;
+    }
+
+    public void setMaxFacetValues(int maxFacetValues) {
+        this.maxFacetValues = maxFacetValues;
+    }
+
+    public String getTextSearchConfig() {
+        return textSearchConfig;
+    }
+
+    public void setTextSearchConfig(String textSearchConfig) {
+        this.textSearchConfig = textSearchConfig;
+    }
+
+    public long getMaxQueryCost() {
+        return maxQueryCost;
+    }
+
+    public void setMaxQueryCost(long maxQueryCost) {
+        this.maxQueryCost = maxQueryCost;
+    }
+
+    public Map<String, Long> getMaxQueryCostByEntity() {
+        return maxQueryCostByEntity;
+    }
+
+    public void setMaxQueryCostByEntity(Map<String, Long> maxQueryCostByEntity) {
+        this.maxQueryCostByEntity = maxQueryCostByEntity;
+    }
+
+    public long getMaxQueryCostWithTotals() {
+        return maxQueryCostWithTotals;
+    }
+
+    public void setMaxQueryCostWithTotals(long maxQueryCostWithTotals) {
+        this.maxQueryCostWithTotals = maxQueryCostWithTotals;
+    }
+
+    public Map<String, List<String>> getBatchFetchCollections() {
+        return batchFetchCollections;
+    }
+
+    public void setBatchFetchCollections(Map<String, List<String>> batchFetchCollections) {
+        this.batchFetchCollections = batchFetchCollections;
+    }
+
+    public boolean isStatelessSession() {
+        return statelessSession;
+    }
+
+    public void setStatelessSession(boolean statelessSession) {
+        this.statelessSession = statelessSession;
+    }
+
+    @Nullable
+    public Duration getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    public void setQueryTimeout(@Nullable Duration queryTimeout) {
+        this.queryTimeout = queryTimeout;
+    }
+
     public enum NamingConvention {
         CAMEL_CASE,
         SNAKE_CASE,
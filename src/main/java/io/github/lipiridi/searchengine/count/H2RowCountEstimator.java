@@ -0,0 +1,38 @@
+package io.github.lipiridi.searchengine.count;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * Reads the row count estimate that H2 keeps for every table in {@code INFORMATION_SCHEMA.TABLES}
+ */
+public class H2RowCountEstimator implements RowCountEstimator {
+
+    private static final String ESTIMATE_QUERY = "select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES "
+            + "where upper(TABLE_SCHEMA) = upper(?1) and upper(TABLE_NAME) = upper(?2)";
+
+    @Nullable
+    @Override
+    public Long estimate(EntityManager entityManager, Class<?> entityClass) {
+        String tableName =
+                RowCountEstimator.getTableName(entityManager, entityClass).replace("\"", "");
+        int schemaDelimiterIndex = tableName.lastIndexOf('.');
+        String schema = schemaDelimiterIndex < 0
+                ? String.valueOf(
+                        entityManager.createNativeQuery("select SCHEMA()").getSingleResult())
+                : tableName.substring(tableName.lastIndexOf('.', schemaDelimiterIndex - 1) + 1, schemaDelimiterIndex);
+
+        List<?> result = entityManager
+                .createNativeQuery(ESTIMATE_QUERY)
+                .setParameter(1, schema)
+                .setParameter(2, tableName.substring(schemaDelimiterIndex + 1))
+                .getResultList();
+
+        if (result.isEmpty() || !(result.getFirst() instanceof Number estimate)) {
+            return null;
+        }
+
+        return estimate.longValue();
+    }
+}
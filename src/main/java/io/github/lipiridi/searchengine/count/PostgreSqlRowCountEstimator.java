@@ -0,0 +1,30 @@
+package io.github.lipiridi.searchengine.count;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * Reads the planner estimate from {@code pg_class.reltuples}, which is maintained by VACUUM and ANALYZE
+ */
+public class PostgreSqlRowCountEstimator implements RowCountEstimator {
+
+    private static final String ESTIMATE_QUERY =
+            "select cast(reltuples as bigint) from pg_class where oid = to_regclass(?1)";
+
+    @Nullable
+    @Override
+    public Long estimate(EntityManager entityManager, Class<?> entityClass) {
+        List<?> result = entityManager
+                .createNativeQuery(ESTIMATE_QUERY)
+                .setParameter(1, RowCountEstimator.getTableName(entityManager, entityClass))
+                .getResultList();
+
+        // Tables that were never analyzed have negative reltuples
+        if (result.isEmpty() || !(result.getFirst() instanceof Number estimate) || estimate.longValue() < 0) {
+            return null;
+        }
+
+        return estimate.longValue();
+    }
+}
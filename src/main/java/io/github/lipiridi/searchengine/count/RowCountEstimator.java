@@ -0,0 +1,59 @@
+package io.github.lipiridi.searchengine.count;
+
+import io.github.lipiridi.searchengine.HibernateSearchEngineException;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Dialect specific hook that reads the row count estimate of the entity table from the database statistics
+ */
+@FunctionalInterface
+public interface RowCountEstimator {
+
+    /**
+     * @return estimated number of rows in the entity table or null when the database has no statistics for it
+     */
+    @Nullable
+    Long estimate(EntityManager entityManager, Class<?> entityClass);
+
+    static RowCountEstimator unsupported() {
+        return (entityManager, entityClass) -> null;
+    }
+
+    static RowCountEstimator forEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        Dialect dialect = entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+
+        if (dialect instanceof PostgreSQLDialect) {
+            return new PostgreSqlRowCountEstimator();
+        }
+        if (dialect instanceof H2Dialect) {
+            return new H2RowCountEstimator();
+        }
+
+        return unsupported();
+    }
+
+    static String getTableName(EntityManager entityManager, Class<?> entityClass) {
+        EntityPersister entityPersister = entityManager
+                .getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(entityClass);
+
+        if (entityPersister instanceof AbstractEntityPersister abstractEntityPersister) {
+            return abstractEntityPersister.getTableName();
+        }
+
+        throw new HibernateSearchEngineException("Unable to resolve table name of entity %s".formatted(entityClass));
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.lipiridi.searchengine.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record Facet(
+        @NotBlank String field,
+        // Ignores the request's filters on the facet field, so that other values can be counted for multi-select
+        boolean disjunctive) {
+
+    public Facet(String field) {
+        this(field, false);
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.lipiridi.searchengine.dto;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Number of matching entities with the value of a facet field. Entities without a value are counted with null.
+ */
+public record FacetValue(@Nullable Object value, long count) {}
@@ -0,0 +1,24 @@
+package io.github.lipiridi.searchengine.dto;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+public record FilterGroup(
+        @NotNull Operator operator,
+        @Nullable List<@Valid @NotNull Filter> filters,
+        // Nested groups are combined with the filters of this group by its operator
+        @Nullable List<@Valid @NotNull FilterGroup> groups) {
+
+    public FilterGroup(Operator operator, List<Filter> filters) {
+        this(operator, filters, null);
+    }
+
+    public enum Operator {
+        AND,
+        OR,
+        // Negates the conjunction of the filters and groups
+        NOT
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.lipiridi.searchengine.dto;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Result of one search of a multi search, either the response or the exception the search failed with
+ */
+public record MultiSearchResult<E>(@Nullable SearchResponse<E> response, @Nullable RuntimeException error) {
+
+    public static <E> MultiSearchResult<E> success(SearchResponse<E> response) {
+        return new MultiSearchResult<>(response, null);
+    }
+
+    public static <E> MultiSearchResult<E> failure(RuntimeException error) {
+        return new MultiSearchResult<>(null, error);
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -1,5 +1,8 @@
 package io.github.lipiridi.searchengine.dto;
 
+import io.github.lipiridi.searchengine.CountStrategy;
+import io.github.lipiridi.searchengine.PaginationType;
+import jakarta.annotation.Nullable;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -10,4 +13,111 @@ public record SearchRequest(
         @Min(1) int size,
         boolean withoutTotals,
         List<@Valid @NotNull Sort> sorts,
-        List<@Valid @NotNull Filter> filters) {}
+        List<@Valid @NotNull Filter> filters,
+        // Leave null in order to use offset pagination
+        @Nullable PaginationType pagination,
+        // Continuation token from the previous keyset page, leave null to request the first page
+        @Nullable String cursor,
+        // Leave null in order to use the strategy from the configuration
+        @Nullable CountStrategy countStrategy,
+        // Values of the facet fields are counted over all results matching the filters
+        @Nullable List<@Valid @NotNull Facet> facets,
+        // Combined with the filters by AND, allows OR and NOT between filters
+        @Nullable @Valid FilterGroup filterGroup,
+        // Name of a @SearchFetchProfile or a named entity graph, leave null to fetch the eager associations
+        @Nullable String fetchProfile) {
+
+    public SearchRequest(int page, int size, boolean withoutTotals, List<Sort> sorts, List<Filter> filters) {
+        this(page, size, withoutTotals, sorts, filters, null, null, null, null, null, null);
+    }
+
+    public SearchRequest withPagination(@Nullable PaginationType pagination) {
+        return new SearchRequest(
+                page,
+                size,
+                withoutTotals,
+                sorts,
+                filters,
+                pagination,
+                cursor,
+                countStrategy,
+                facets,
+                filterGroup,
+                fetchProfile);
+    }
+
+    public SearchRequest withCursor(@Nullable String cursor) {
+        return new SearchRequest(
+                page,
+                size,
+                withoutTotals,
+                sorts,
+                filters,
+                pagination,
+                cursor,
+                countStrategy,
+                facets,
+                filterGroup,
+                fetchProfile);
+    }
+
+    public SearchRequest withCountStrategy(@Nullable CountStrategy countStrategy) {
+        return new SearchRequest(
+                page,
+                size,
+                withoutTotals,
+                sorts,
+                filters,
+                pagination,
+                cursor,
+                countStrategy,
+                facets,
+                filterGroup,
+                fetchProfile);
+    }
+
+    public SearchRequest withFacets(@Nullable List<Facet> facets) {
+        return new SearchRequest(
+                page,
+                size,
+                withoutTotals,
+                sorts,
+                filters,
+                pagination,
+                cursor,
+                countStrategy,
+                facets,
+                filterGroup,
+                fetchProfile);
+    }
+
+    public SearchRequest withFilterGroup(@Nullable FilterGroup filterGroup) {
+        return new SearchRequest(
+                page,
+                size,
+                withoutTotals,
+                sorts,
+                filters,
+                pagination,
+                cursor,
+                countStrategy,
+                facets,
+                filterGroup,
+                fetchProfile);
+    }
+
+    public SearchRequest withFetchProfile(@Nullable String fetchProfile) {
+        return new SearchRequest(
+                page,
+                size,
+                withoutTotals,
+                sorts,
+                filters,
+                pagination,
+                cursor,
+                countStrategy,
+                facets,
+                filterGroup,
+                fetchProfile);
+    }
+}
@@ -1,10 +1,72 @@
 package io.github.lipiridi.searchengine.dto;
 
+import jakarta.annotation.Nullable;
 import java.util.List;
+import java.util.Map;
 
-public record SearchResponse<T>(int page, int size, int elements, long totalElements, List<T> data) {
+public record SearchResponse<T>(
+        int page,
+        int size,
+        int elements,
+        long totalElements,
+        List<T> data,
+        // Cursor of the next keyset page, null when there are no more results or offset pagination is used
+        @Nullable String nextCursor,
+        // False when total elements are capped, estimated, unknown or not requested
+        boolean totalElementsExact,
+        // Values of the requested facets by facet field, most frequent first
+        Map<String, List<FacetValue>> facets) {
+
+    /**
+     * Total elements value when the count didn't finish in the configured timeout
+     */
+    public static final long UNKNOWN_TOTAL_ELEMENTS = -1;
+
+    public SearchResponse(int page, int size, int elements, long totalElements, List<T> data) {
+        this(page, size, elements, totalElements, data, null, true);
+    }
+
+    public SearchResponse(
+            int page,
+            int size,
+            int elements,
+            long totalElements,
+            List<T> data,
+            @Nullable String nextCursor,
+            boolean totalElementsExact) {
+        this(page, size, elements, totalElements, data, nextCursor, totalElementsExact, Map.of());
+    }
 
     public SearchResponse(SearchRequest searchRequest, int elements, long totalElements, List<T> data) {
-        this(searchRequest.page(), searchRequest.size(), elements, totalElements, data);
+        this(searchRequest, elements, totalElements, data, null, true);
+    }
+
+    public SearchResponse(
+            SearchRequest searchRequest,
+            int elements,
+            long totalElements,
+            List<T> data,
+            @Nullable String nextCursor,
+            boolean totalElementsExact) {
+        this(searchRequest, elements, totalElements, data, nextCursor, totalElementsExact, Map.of());
+    }
+
+    public SearchResponse(
+            SearchRequest searchRequest,
+            int elements,
+            long totalElements,
+            List<T> data,
+            @Nullable String nextCursor,
+            boolean totalElementsExact,
+            Map<String, List<FacetValue>> facets) {
+        this(
+                searchRequest.page(),
+                searchRequest.size(),
+                elements,
+                totalElements,
+                data,
+                nextCursor,
+                totalElementsExact,
+                facets);
     }
 }
@@ -0,0 +1,6 @@
+package io.github.lipiridi.searchengine.dto;
+
+/**
+ * One search of a multi search. Specs with equal requests and entity classes are executed once.
+ */
+public record SearchSpec<E>(SearchRequest searchRequest, Class<E> entityClass) {}
@@ -0,0 +1,67 @@
+package io.github.lipiridi.searchengine.execution;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.function.Function;
+import org.hibernate.Session;
+import org.hibernate.SharedSessionContract;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.EntityManagerProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Executes searches in the entity manager of the search service. Parallel queries use their own read-only entity
+ * manager, as the persistence context of the caller can't be shared between threads, so uncommitted changes of the
+ * caller's transaction are not visible to them.
+ *
+ * <p>Searches join the transaction or the entity manager bound to the caller. Without them, a spring managed entity
+ * manager would open a new entity manager for every query, so every search gets its own read-only one instead of a
+ * transaction.
+ */
+public class EntityManagerSearchExecutor implements SearchExecutor {
+
+    private final EntityManager entityManager;
+
+    public EntityManagerSearchExecutor(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public <T> T execute(Function<SharedSessionContract, T> action) {
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        if (!(entityManager instanceof EntityManagerProxy)
+                || TransactionSynchronizationManager.hasResource(entityManagerFactory)) {
+            return action.apply(entityManager.unwrap(Session.class));
+        }
+
+        EntityManager searchEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(
+                entityManagerFactory, new EntityManagerHolder(searchEntityManager));
+        try {
+            Session session = searchEntityManager.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            return action.apply(session);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            searchEntityManager.close();
+        }
+    }
+
+    @Override
+    public EntityManagerFactory getEntityManagerFactory() {
+        return entityManager.getEntityManagerFactory();
+    }
+
+    @Override
+    public <T> T executeDetached(Function<SharedSessionContract, T> action) {
+        EntityManager readOnlyEntityManager =
+                entityManager.getEntityManagerFactory().createEntityManager();
+        try {
+            Session session = readOnlyEntityManager.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            return action.apply(session);
+        } finally {
+            readOnlyEntityManager.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.lipiridi.searchengine.execution;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.function.Function;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+
+/**
+ * Executes every search in its own read-only session, which is usually opened by the entity manager factory of a read
+ * replica. Lazy associations of the results can't be loaded after the search, they have to be fetched by a fetch
+ * profile.
+ */
+public class ReadOnlySessionSearchExecutor implements SearchExecutor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final SessionFactory sessionFactory;
+
+    public ReadOnlySessionSearchExecutor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Override
+    public EntityManagerFactory getEntityManagerFactory() {
+        return entityManagerFactory;
+    }
+
+    @Override
+    public <T> T execute(Function<SharedSessionContract, T> action) {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            return action.apply(session);
+        }
+    }
+
+    @Override
+    public <T> T executeDetached(Function<SharedSessionContract, T> action) {
+        return execute(action);
+    }
+}
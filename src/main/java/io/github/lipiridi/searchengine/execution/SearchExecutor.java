@@ -0,0 +1,58 @@
+package io.github.lipiridi.searchengine.execution;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.function.Function;
+import org.hibernate.SharedSessionContract;
+
+/**
+ * Provides the sessions that execute the queries of searches, so that searches can be routed to a read replica or
+ * executed without a persistence context
+ */
+public interface SearchExecutor {
+
+    /**
+     * Runs the queries of one search on the calling thread
+     */
+    <T> T execute(Function<SharedSessionContract, T> action);
+
+    /**
+     * Runs queries that are executed on another thread in parallel to the search, e.g. the count query, in a session
+     * that is not shared with the caller
+     */
+    <T> T executeDetached(Function<SharedSessionContract, T> action);
+
+    /**
+     * @return factory of the sessions, criteria queries are built by it, or null to build them by the factory of the
+     *     search service's entity manager
+     */
+    @Nullable
+    default EntityManagerFactory getEntityManagerFactory() {
+        return null;
+    }
+
+    /**
+     * Executes searches in the given entity manager, so that the results belong to the persistence context of the
+     * caller
+     */
+    static SearchExecutor forEntityManager(EntityManager entityManager) {
+        return new EntityManagerSearchExecutor(entityManager);
+    }
+
+    /**
+     * Executes every search in its own read-only session of the factory, e.g. of a read replica. The results are
+     * detached when the search returns.
+     */
+    static SearchExecutor readOnlySession(EntityManagerFactory entityManagerFactory) {
+        return new ReadOnlySessionSearchExecutor(entityManagerFactory);
+    }
+
+    /**
+     * Executes every search in a stateless session of the factory, the results are not tracked by a persistence
+     * context
+     */
+    static SearchExecutor statelessSession(EntityManagerFactory entityManagerFactory) {
+        return new StatelessSessionSearchExecutor(entityManagerFactory);
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.lipiridi.searchengine.execution;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.function.Function;
+import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+
+/**
+ * Executes every search in a stateless session, so that the results are neither tracked nor dirty checked by a
+ * persistence context. Lazy associations of the results can't be loaded, they have to be fetched by a fetch profile.
+ */
+public class StatelessSessionSearchExecutor implements SearchExecutor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final SessionFactory sessionFactory;
+
+    public StatelessSessionSearchExecutor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Override
+    public EntityManagerFactory getEntityManagerFactory() {
+        return entityManagerFactory;
+    }
+
+    @Override
+    public <T> T execute(Function<SharedSessionContract, T> action) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return action.apply(session);
+        }
+    }
+
+    @Override
+    public <T> T executeDetached(Function<SharedSessionContract, T> action) {
+        return execute(action);
+    }
+}
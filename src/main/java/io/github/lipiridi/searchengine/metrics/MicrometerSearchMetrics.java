@@ -0,0 +1,89 @@
+package io.github.lipiridi.searchengine.metrics;
+
+import io.github.lipiridi.searchengine.HibernateSearchEngineException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.Nullable;
+import java.util.function.Supplier;
+
+/**
+ * Records search phases as observations when an {@link ObservationRegistry} is given, so that they produce both
+ * timers and tracing spans, otherwise as timers. Rejections, result sizes and page depth are always recorded in the
+ * {@link MeterRegistry}.
+ */
+public class MicrometerSearchMetrics implements SearchMetrics {
+
+    public static final String PHASE_METRIC = "search.engine.phase";
+    public static final String REJECTED_METRIC = "search.engine.rejected";
+    public static final String RESULT_SIZE_METRIC = "search.engine.result.size";
+    public static final String PAGE_DEPTH_METRIC = "search.engine.page.depth";
+
+    private final MeterRegistry meterRegistry;
+
+    @Nullable
+    private final ObservationRegistry observationRegistry;
+
+    public MicrometerSearchMetrics(MeterRegistry meterRegistry) {
+        this(meterRegistry, null);
+    }
+
+    public MicrometerSearchMetrics(MeterRegistry meterRegistry, @Nullable ObservationRegistry observationRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public <T> T recordPhase(SearchPhase phase, Class<?> entityClass, boolean collectionFilters, Supplier<T> action) {
+        String phaseName = phase.name().toLowerCase();
+        String entityName = entityClass.getSimpleName();
+        String collectionFiltersValue = String.valueOf(collectionFilters);
+
+        if (observationRegistry != null && !observationRegistry.isNoop()) {
+            return Observation.createNotStarted(PHASE_METRIC, observationRegistry)
+                    .contextualName("search " + phaseName)
+                    .lowCardinalityKeyValue("phase", phaseName)
+                    .lowCardinalityKeyValue("entity", entityName)
+                    .lowCardinalityKeyValue("collection.filters", collectionFiltersValue)
+                    .observe(action);
+        }
+
+        return Timer.builder(PHASE_METRIC)
+                .tag("phase", phaseName)
+                .tag("entity", entityName)
+                .tag("collection.filters", collectionFiltersValue)
+                .register(meterRegistry)
+                .record(action);
+    }
+
+    @Override
+    public void recordRejected(Class<?> entityClass, HibernateSearchEngineException exception) {
+        Throwable cause = exception.getCause();
+        Counter.builder(REJECTED_METRIC)
+                .tag("entity", entityClass.getSimpleName())
+                .tag("cause", cause == null ? "none" : cause.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void recordResult(Class<?> entityClass, int resultSize, int page) {
+        String entityName = entityClass.getSimpleName();
+        DistributionSummary.builder(RESULT_SIZE_METRIC)
+                .tag("entity", entityName)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(resultSize);
+
+        if (page > 0) {
+            DistributionSummary.builder(PAGE_DEPTH_METRIC)
+                    .tag("entity", entityName)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(page);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.lipiridi.searchengine.metrics;
+
+import io.github.lipiridi.searchengine.HibernateSearchEngineException;
+import java.util.function.Supplier;
+
+/**
+ * Instrumentation hooks of {@link io.github.lipiridi.searchengine.SearchService}. All methods do nothing by default.
+ */
+public interface SearchMetrics {
+
+    SearchMetrics NOOP = new SearchMetrics() {};
+
+    /**
+     * Runs the phase of a search
+     *
+     * @param collectionFilters whether the search filters by fields in joined collections
+     */
+    default <T> T recordPhase(SearchPhase phase, Class<?> entityClass, boolean collectionFilters, Supplier<T> action) {
+        return action.get();
+    }
+
+    /**
+     * Called when a search request is rejected
+     */
+    default void recordRejected(Class<?> entityClass, HibernateSearchEngineException exception) {}
+
+    /**
+     * Called after a successful search
+     *
+     * @param page page number of the request, or 0 for keyset pagination
+     */
+    default void recordResult(Class<?> entityClass, int resultSize, int page) {}
+}
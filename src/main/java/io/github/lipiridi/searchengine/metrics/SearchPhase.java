@@ -0,0 +1,33 @@
+package io.github.lipiridi.searchengine.metrics;
+
+public enum SearchPhase {
+    /**
+     * Validation of the request fields and conversion of the filter values. Collection filters are not known yet at
+     * this point, so the phase is always reported without them
+     */
+    VALIDATION,
+    /**
+     * Building of a criteria query that was not found in the query plan cache
+     */
+    CRITERIA_BUILDING,
+    /**
+     * Query of the requested page, including criteria building on a cache miss
+     */
+    PAGE_QUERY,
+    /**
+     * Query of the total elements by the count strategy
+     */
+    COUNT_QUERY,
+    /**
+     * Queries of the value counts of the requested facets
+     */
+    FACET_QUERY,
+    /**
+     * Queries that initialize the batch collections of the fetched entities
+     */
+    COLLECTION_QUERY,
+    /**
+     * Mapping of the fetched entities by the mapper of the request
+     */
+    MAPPING
+}
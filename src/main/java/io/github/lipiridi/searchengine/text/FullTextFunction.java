@@ -0,0 +1,43 @@
+package io.github.lipiridi.searchengine.text;
+
+import io.github.lipiridi.searchengine.HibernateSearchEngineException;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Dialect specific hook that matches a text field against the query of a {@code FULL_TEXT} filter
+ */
+@FunctionalInterface
+public interface FullTextFunction {
+
+    Predicate create(CriteriaBuilder criteriaBuilder, Expression<String> path, Expression<String> query);
+
+    static FullTextFunction unsupported() {
+        return (criteriaBuilder, path, query) -> {
+            throw new HibernateSearchEngineException(
+                    "Full text search is not supported by the database, define a FullTextFunction bean");
+        };
+    }
+
+    static FullTextFunction forEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        Dialect dialect = entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+
+        if (dialect instanceof PostgreSQLDialect) {
+            return new PostgreSqlFullTextFunction();
+        }
+        if (dialect instanceof H2Dialect) {
+            return new H2FullTextFunction();
+        }
+
+        return unsupported();
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.lipiridi.searchengine.text;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * H2 full text search works through table functions that can't be used in a predicate, so the query is matched as a
+ * case-insensitive substring. Meant for tests against an in-memory database.
+ */
+public class H2FullTextFunction implements FullTextFunction {
+
+    @Override
+    public Predicate create(CriteriaBuilder criteriaBuilder, Expression<String> path, Expression<String> query) {
+        return criteriaBuilder.like(
+                criteriaBuilder.lower(path),
+                criteriaBuilder.concat(criteriaBuilder.concat("%", criteriaBuilder.lower(query)), "%"));
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.lipiridi.searchengine.text;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Renders {@code to_tsvector(config, field) @@ plainto_tsquery(config, query)}, which uses a GIN index on
+ * {@code to_tsvector(config, field)}. The config is set by the {@code text-search-config} property.
+ */
+public class PostgreSqlFullTextFunction implements FullTextFunction {
+
+    @Override
+    public Predicate create(CriteriaBuilder criteriaBuilder, Expression<String> path, Expression<String> query) {
+        return criteriaBuilder.isTrue(criteriaBuilder.function(
+                SearchEngineFunctionContributor.FULL_TEXT_FUNCTION, Boolean.class, path, query));
+    }
+}
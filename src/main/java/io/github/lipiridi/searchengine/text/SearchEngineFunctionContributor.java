@@ -0,0 +1,52 @@
+package io.github.lipiridi.searchengine.text;
+
+import io.github.lipiridi.searchengine.HibernateSearchEngineException;
+import java.util.regex.Pattern;
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the functions of the dialect specific filters. It is loaded by Hibernate through the service loader.
+ */
+public class SearchEngineFunctionContributor implements FunctionContributor {
+
+    public static final String FULL_TEXT_FUNCTION = "search_engine_full_text";
+
+    /**
+     * Hibernate setting with the text search configuration, it is set from the search engine properties
+     */
+    public static final String TEXT_SEARCH_CONFIG_SETTING = "hibernate.search_engine.text_search_config";
+
+    private static final String DEFAULT_TEXT_SEARCH_CONFIG = "simple";
+    private static final Pattern TEXT_SEARCH_CONFIG_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_.]*");
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        if (!(functionContributions.getDialect() instanceof PostgreSQLDialect)) {
+            return;
+        }
+
+        String textSearchConfig = functionContributions
+                .getServiceRegistry()
+                .requireService(ConfigurationService.class)
+                .getSetting(TEXT_SEARCH_CONFIG_SETTING, String.class, DEFAULT_TEXT_SEARCH_CONFIG);
+        // The config is rendered as a literal, so that the predicate matches the expression of the index
+        if (!TEXT_SEARCH_CONFIG_PATTERN.matcher(textSearchConfig).matches()) {
+            throw new HibernateSearchEngineException(
+                    "Invalid text search configuration '%s'".formatted(textSearchConfig));
+        }
+
+        functionContributions
+                .getFunctionRegistry()
+                .registerPattern(
+                        FULL_TEXT_FUNCTION,
+                        "(to_tsvector('%1$s', ?1) @@ plainto_tsquery('%1$s', ?2))".formatted(textSearchConfig),
+                        functionContributions
+                                .getTypeConfiguration()
+                                .getBasicTypeRegistry()
+                                .resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.lipiridi.searchengine.util;
+
+import io.github.lipiridi.searchengine.HibernateSearchEngineException;
+import io.github.lipiridi.searchengine.SearchField;
+import jakarta.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public final class CursorUtils {
+
+    private static final String DELIMITER = ".";
+    // Not a Base64 character, so it can't be confused with an encoded value
+    private static final String NULL_VALUE = "~";
+
+    private CursorUtils() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static String encode(List<String> values) {
+        return values.stream()
+                .map(value -> value == null
+                        ? NULL_VALUE
+                        : Base64.getUrlEncoder()
+                                .withoutPadding()
+                                .encodeToString(value.getBytes(StandardCharsets.UTF_8)))
+                .collect(Collectors.joining(DELIMITER));
+    }
+
+    public static List<String> decode(String cursor) {
+        try {
+            return Arrays.stream(cursor.split("\\" + DELIMITER, -1))
+                    .map(value -> NULL_VALUE.equals(value)
+                            ? null
+                            : new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8))
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            throw new HibernateSearchEngineException("Invalid cursor '%s'".formatted(cursor), e);
+        }
+    }
+
+    @Nullable
+    public static String toCursorValue(@Nullable Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Enum<?> enumValue) {
+            return enumValue.name();
+        }
+
+        return value.toString();
+    }
+
+    @Nullable
+    public static Object fromCursorValue(@Nullable String cursorValue, SearchField searchField) {
+        if (cursorValue == null) {
+            return null;
+        }
+
+        // Instants are kept with full precision, unlike filter values that are passed as epoch millis
+        if (Instant.class.equals(searchField.fieldType())) {
+            try {
+                return Instant.parse(cursorValue);
+            } catch (DateTimeParseException e) {
+                throw new HibernateSearchEngineException("Invalid cursor value %s".formatted(cursorValue), e);
+            }
+        }
+
+        return FieldConvertUtils.getConvertedValue(cursorValue, searchField);
+    }
+}
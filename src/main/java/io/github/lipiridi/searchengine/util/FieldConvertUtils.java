@@ -11,6 +11,7 @@ import jakarta.annotation.Nullable;
 import java.util.AbstractMap;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -25,6 +26,19 @@ public class FieldConvertUtils {
             .collect(Collectors.groupingBy(
                     Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toSet())));
 
+    private static final ClassValue<Function<String, Object>> valueConverters = new ClassValue<>() {
+        @Override
+        protected Function<String, Object> computeValue(Class<?> fieldType) {
+            var convertFunction = convertFunction(fieldType);
+            if (convertFunction == null) {
+                throw new HibernateSearchEngineException(
+                        "Unable to find convert function for field type %s".formatted(fieldType));
+            }
+
+            return convertFunction;
+        }
+    };
+
     private FieldConvertUtils() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
@@ -36,15 +50,20 @@ public class FieldConvertUtils {
 
         Set<FilterType> existingFiltersByClass =
                 allowedFiltersByClass.getOrDefault(getCastClass(searchField.fieldType()), Collections.emptySet());
+        boolean declared = !CollectionUtils.isEmpty(allowedFilterTypes);
         if (!existingFiltersByClass.contains(filterType)
-                || (!CollectionUtils.isEmpty(allowedFilterTypes) && !allowedFilterTypes.contains(filterType))) {
-            var availableFilters =
-                    CollectionUtils.isEmpty(allowedFilterTypes) ? existingFiltersByClass : allowedFilterTypes;
+                || (declared && !allowedFilterTypes.contains(filterType))
+                || (!declared && filterType.isDeclarationRequired())) {
+            var availableFilters = declared
+                    ? allowedFilterTypes
+                    : existingFiltersByClass.stream()
+                            .filter(existingFilter -> !existingFilter.isDeclarationRequired())
+                            .collect(Collectors.toSet());
             throw new HibernateSearchEngineException("Not allowed filter type for field %s. Available filters: %s"
                     .formatted(filter.field(), availableFilters));
         }
 
-        if (!filterType.isNullAllowed() && filter.value() == null) {
+        if (!filterType.isNullAllowed() && CollectionUtils.isEmpty(filter.value())) {
             throw new HibernateSearchEngineException("Filter type '%s' requires a value. Invalid field: '%s'"
                     .formatted(filterType.name(), filter.field()));
         }
@@ -65,27 +84,61 @@ public class FieldConvertUtils {
     }
 
     public static Object getConvertedValue(String originalValue, SearchField searchField) {
-        Class<?> fieldType = searchField.fieldType();
-        var convertFunction = convertFunction(fieldType);
-        if (convertFunction == null) {
-            throw new HibernateSearchEngineException(
-                    "Unable to find convert function for field type %s".formatted(fieldType));
-        }
+        return getConvertedValue(originalValue, searchField, getValueConverter(searchField.fieldType()));
+    }
+
+    public static Object getConvertedValue(
+            String originalValue, SearchField searchField, Function<String, Object> valueConverter) {
         try {
-            return convertFunction.apply(originalValue);
+            return valueConverter.apply(originalValue);
         } catch (Exception e) {
             throw new HibernateSearchEngineException(
-                    "Unable to convert search field %s with value %s".formatted(searchField.id(), originalValue));
+                    "Unable to convert search field %s with value %s".formatted(searchField.id(), originalValue), e);
         }
     }
 
+    /**
+     * Returns the convert function of the field type. It is resolved once per type, so the type dispatch doesn't run
+     * for every filter value
+     */
+    public static Function<String, Object> getValueConverter(Class<?> fieldType) {
+        return valueConverters.get(fieldType);
+    }
+
     @Nullable
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public static Function<String, Object> convertFunction(Class<?> entityClass) {
-        if (Enum.class.isAssignableFrom(entityClass)) {
-            return value -> Enum.valueOf((Class<? extends Enum>) entityClass, value.toUpperCase());
+        if (entityClass.isEnum()) {
+            return enumConvertFunction(entityClass);
         }
 
         return ReflectionUtils.CLASS_CAST_FUNCTIONS.get(entityClass);
     }
+
+    /**
+     * Looks the constants up by name, in upper or lower case without converting the value, other values are upper
+     * cased first like {@link Enum#valueOf} is called with
+     */
+    private static Function<String, Object> enumConvertFunction(Class<?> enumClass) {
+        Map<String, Object> constants = new HashMap<>();
+        for (Object constant : enumClass.getEnumConstants()) {
+            String name = ((Enum<?>) constant).name();
+            if (name.equals(name.toUpperCase())) {
+                constants.put(name, constant);
+                constants.putIfAbsent(name.toLowerCase(), constant);
+            }
+        }
+
+        return value -> {
+            Object constant = constants.get(value);
+            if (constant == null) {
+                constant = constants.get(value.toUpperCase());
+            }
+            if (constant == null) {
+                throw new IllegalArgumentException(
+                        "No enum constant %s.%s".formatted(enumClass.getCanonicalName(), value));
+            }
+
+            return constant;
+        };
+    }
 }
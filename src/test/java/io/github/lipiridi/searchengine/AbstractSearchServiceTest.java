@@ -0,0 +1,95 @@
+package io.github.lipiridi.searchengine;
+
+import io.github.lipiridi.searchengine.model.Attribute;
+import io.github.lipiridi.searchengine.model.Image;
+import io.github.lipiridi.searchengine.model.Owner;
+import io.github.lipiridi.searchengine.model.Status;
+import io.github.lipiridi.searchengine.model.TestApplication;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.Set;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Seeds every application context with 50 test entities:
+ *
+ * <ul>
+ *   <li>{@code description} is {@code item i}, {@code sortOrder} is {@code i % 7} and {@code createdAt} grows with i
+ *   <li>{@code status} cycles through the statuses and {@code enabled} is set for even i
+ *   <li>{@code image} is null for every 4th entity, {@code owner} for every 5th, the owners are {@code first} with
+ *       the tags {@code red} and {@code blue} and {@code second} with the tag {@code red}
+ *   <li>{@code attributes} contains {@code attr0}..{@code attr(i % 3 - 1)}, {@code labels} contains
+ *       {@code label(i % 4)} unless i is divisible by 5
+ * </ul>
+ */
+@SpringBootTest(classes = TestApplication.class)
+abstract class AbstractSearchServiceTest {
+
+    protected static final int ENTITY_COUNT = 50;
+
+    @Autowired
+    protected SearchService searchService;
+
+    @Autowired
+    protected EntityManager entityManager;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seed() {
+        Long count = transactionTemplate.execute(status -> entityManager
+                .createQuery("select count(e) from TestEntity e", Long.class)
+                .getSingleResult());
+        if (count != null && count > 0) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Image[] images = {new Image("alpha"), new Image("beta"), new Image("gamma")};
+            Owner[] owners = {new Owner("first"), new Owner("second")};
+            owners[0].getTags().addAll(Set.of("red", "blue"));
+            owners[1].getTags().add("red");
+            for (Image image : images) {
+                entityManager.persist(image);
+            }
+            for (Owner owner : owners) {
+                entityManager.persist(owner);
+            }
+
+            for (int i = 0; i < ENTITY_COUNT; i++) {
+                TestEntity testEntity = new TestEntity();
+                testEntity.setDescription("item " + i);
+                testEntity.setNotes(i % 2 == 0 ? "Quick brown fox " + i : "lazy_dog " + i);
+                testEntity.setSortOrder(i % 7);
+                testEntity.setCreatedAt(Instant.ofEpochMilli(1_000_000L + i));
+                testEntity.setEnabled(i % 2 == 0);
+                testEntity.setStatus(Status.values()[i % 3]);
+                testEntity.setImage(i % 4 == 0 ? null : images[i % 3]);
+                testEntity.setOwner(i % 5 == 0 ? null : owners[i % 2]);
+                for (int a = 0; a < i % 3; a++) {
+                    Attribute attribute = new Attribute("attr" + a);
+                    entityManager.persist(attribute);
+                    testEntity.getAttributes().add(attribute);
+                }
+                if (i % 5 != 0) {
+                    testEntity.getLabels().add("label" + (i % 4));
+                }
+                entityManager.persist(testEntity);
+            }
+        });
+    }
+
+    protected Statistics getStatistics() {
+        return entityManager
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+}
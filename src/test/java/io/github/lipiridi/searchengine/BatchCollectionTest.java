@@ -0,0 +1,72 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+class BatchCollectionTest extends AbstractSearchServiceTest {
+
+    @Test
+    void batchCollectionsFollowTheProfile() {
+        GraphBuilder graphBuilder = new GraphBuilder(entityManager.getEntityManagerFactory());
+
+        assertThat(graphBuilder.getBatchCollections(TestEntity.class, "withCollections"))
+                .containsExactly("attributes", "labels");
+        assertThat(graphBuilder.getBatchCollections(TestEntity.class, "TestEntity.graph"))
+                .containsExactly("attributes");
+        assertThat(graphBuilder.getBatchCollections(TestEntity.class, null)).isEmpty();
+        assertThatThrownBy(() -> graphBuilder.getBatchCollections(TestEntity.class, "withNonCollection"))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageContaining("only contain collections");
+    }
+
+    @Test
+    void batchCollectionsOfEntitiesAreConfigurable() {
+        GraphBuilder graphBuilder =
+                new GraphBuilder(entityManager.getEntityManagerFactory(), Map.of("TestEntity", List.of("labels")));
+
+        assertThat(graphBuilder.getBatchCollections(TestEntity.class, null)).containsExactly("labels");
+    }
+
+    @Test
+    void collectionsOfThePageAreLoadedInBatches() {
+        LoadStatistics batchLoad = search("withCollections");
+        LoadStatistics lazyLoad = search("withImage");
+
+        assertThat(batchLoad.entities()).isEqualTo(20);
+        assertThat(batchLoad.statementsAfterAccess()).isEqualTo(batchLoad.statementsAfterSearch());
+        assertThat(batchLoad.statementsAfterSearch()).isLessThanOrEqualTo(4);
+        assertThat(lazyLoad.elements()).isEqualTo(batchLoad.elements());
+        assertThat(lazyLoad.statementsAfterAccess()).isGreaterThan(lazyLoad.statementsAfterSearch() + 2);
+    }
+
+    private LoadStatistics search(String fetchProfile) {
+        Statistics statistics = getStatistics();
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            List<TestEntity> testEntities = searchService
+                    .search(
+                            new SearchRequest(1, 20, true, List.of(), List.of()).withFetchProfile(fetchProfile),
+                            TestEntity.class)
+                    .data();
+            long statementsAfterSearch = statistics.getPrepareStatementCount();
+
+            int elements = 0;
+            for (TestEntity testEntity : testEntities) {
+                elements += testEntity.getAttributes().size()
+                        + testEntity.getLabels().size();
+            }
+
+            return new LoadStatistics(
+                    testEntities.size(), elements, statementsAfterSearch, statistics.getPrepareStatementCount());
+        });
+    }
+
+    private record LoadStatistics(int entities, int elements, long statementsAfterSearch, long statementsAfterAccess) {}
+}
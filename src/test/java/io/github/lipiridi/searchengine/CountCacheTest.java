@@ -0,0 +1,111 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.Attribute;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.query.SortDirection;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(
+        properties = {
+            "spring.jpa.hibernate.search-engine.count-cache-size=100",
+            "spring.jpa.hibernate.search-engine.result-cache-size=100",
+            "spring.jpa.hibernate.search-engine.parallel-count=true"
+        })
+class CountCacheTest extends AbstractSearchServiceTest {
+
+    private static final List<Filter> FILTERS = List.of(
+            new Filter("description", FilterType.LIKE, "zzz"),
+            new Filter("attributesName", FilterType.IS_NOT_NULL, (Set<String>) null));
+
+    @Test
+    void pagesAndSortsShareTheCount() {
+        SearchResultCache countCache = searchService.getCountCache();
+        long hitCount = countCache.getHitCount();
+        long missCount = countCache.getMissCount();
+
+        long firstTotal = searchService
+                .search(
+                        new SearchRequest(1, 5, false, List.of(new Sort("id", SortDirection.ASCENDING)), FILTERS),
+                        TestEntity.class)
+                .totalElements();
+        long secondTotal = searchService
+                .search(
+                        new SearchRequest(
+                                2, 5, false, List.of(new Sort("sortOrder", SortDirection.ASCENDING)), FILTERS),
+                        TestEntity.class)
+                .totalElements();
+
+        assertThat(countCache.getMissCount()).isEqualTo(missCount + 1);
+        assertThat(countCache.getHitCount()).isEqualTo(hitCount + 1);
+        assertThat(firstTotal).isEqualTo(secondTotal).isZero();
+        assertThat(searchService.totalElements(new SearchRequest(1, 5, false, List.of(), FILTERS), TestEntity.class))
+                .isZero();
+    }
+
+    @Test
+    void entityChangesInvalidateCounts() {
+        assertThat(count(searchService)).isZero();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Attribute attribute = new Attribute("attr");
+            entityManager.persist(attribute);
+            TestEntity testEntity = new TestEntity();
+            testEntity.setDescription("zzz");
+            testEntity.getAttributes().add(attribute);
+            entityManager.persist(testEntity);
+        });
+        assertThat(count(searchService)).isEqualTo(1);
+
+        removeCreatedEntities();
+        assertThat(count(searchService)).isZero();
+    }
+
+    @Test
+    void searchServicesWithBothCachesShareTheFactory() {
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setCountCacheSize(100);
+        searchEngineProperties.setResultCacheSize(100);
+        SearchService otherSearchService = new SearchService(entityManager, searchEngineProperties);
+        assertThat(count(otherSearchService)).isZero();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TestEntity testEntity = entityManager.find(TestEntity.class, 2L);
+            testEntity.setDescription("zzz");
+        });
+        assertThat(count(otherSearchService)).isEqualTo(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TestEntity testEntity = entityManager.find(TestEntity.class, 2L);
+            testEntity.setDescription("item 1");
+        });
+        assertThat(count(otherSearchService)).isZero();
+    }
+
+    private long count(SearchService searchService) {
+        return searchService
+                .search(new SearchRequest(1, 5, false, List.of(), FILTERS), TestEntity.class)
+                .totalElements();
+    }
+
+    private void removeCreatedEntities() {
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("select e from TestEntity e where e.description = 'zzz'", TestEntity.class)
+                .getResultList()
+                .forEach(testEntity -> {
+                    List<Attribute> attributes = new ArrayList<>(testEntity.getAttributes());
+                    testEntity.getAttributes().clear();
+                    entityManager.remove(testEntity);
+                    attributes.forEach(entityManager::remove);
+                }));
+    }
+}
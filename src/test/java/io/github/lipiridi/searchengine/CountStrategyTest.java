@@ -0,0 +1,57 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.jpa.hibernate.search-engine.count-cap=10")
+class CountStrategyTest extends AbstractSearchServiceTest {
+
+    @Test
+    void exactCountIsTheDefault() {
+        SearchResponse<TestEntity> searchResponse = search(null, List.of());
+
+        assertThat(searchResponse.totalElements()).isEqualTo(ENTITY_COUNT);
+        assertThat(searchResponse.totalElementsExact()).isTrue();
+    }
+
+    @Test
+    void cappedCountStopsAtTheCap() {
+        SearchResponse<TestEntity> capped = search(CountStrategy.CAPPED, List.of());
+        assertThat(capped.totalElements()).isEqualTo(10);
+        assertThat(capped.totalElementsExact()).isFalse();
+
+        SearchResponse<TestEntity> belowCap =
+                search(CountStrategy.CAPPED, List.of(new Filter("sortOrder", FilterType.EQUAL, "6")));
+        assertThat(belowCap.totalElements()).isEqualTo(7);
+        assertThat(belowCap.totalElementsExact()).isTrue();
+
+        SearchResponse<TestEntity> distinct =
+                search(CountStrategy.CAPPED, List.of(new Filter("attributesName", FilterType.IS_NOT_NULL, (Set<String>)
+                        null)));
+        assertThat(distinct.totalElements()).isEqualTo(10);
+    }
+
+    @Test
+    void estimatedCountFallsBackToCappedCountWithFilters() {
+        SearchResponse<TestEntity> estimated = search(CountStrategy.ESTIMATED, List.of());
+        assertThat(estimated.totalElements()).isPositive();
+        assertThat(estimated.totalElementsExact()).isFalse();
+
+        SearchResponse<TestEntity> filtered =
+                search(CountStrategy.ESTIMATED, List.of(new Filter("sortOrder", FilterType.EQUAL, "6")));
+        assertThat(filtered.totalElements()).isEqualTo(7);
+    }
+
+    private SearchResponse<TestEntity> search(CountStrategy countStrategy, List<Filter> filters) {
+        return searchService.search(
+                new SearchRequest(1, 5, false, List.of(), filters).withCountStrategy(countStrategy), TestEntity.class);
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.query.SortDirection;
+import org.junit.jupiter.api.Test;
+
+class ExistsSubqueriesTest extends AbstractSearchServiceTest {
+
+    @Test
+    void existsSubqueriesAreEnabledByDefault() {
+        assertThat(new SearchEngineProperties().isExistsSubqueries()).isTrue();
+    }
+
+    @Test
+    void existsSubqueriesMatchJoins() {
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setExistsSubqueries(false);
+        SearchService joinSearchService = new SearchService(entityManager, searchEngineProperties);
+
+        List<List<Filter>> filterCases = List.of(
+                List.of(new Filter("attributesName", FilterType.EQUAL, "attr1")),
+                List.of(new Filter("attributesName", FilterType.IS_NULL, (Set<String>) null)),
+                List.of(new Filter("attributesName", FilterType.NOT_EQUAL, "attr0")),
+                List.of(
+                        new Filter("attributesName", FilterType.EQUAL, "attr1"),
+                        new Filter("attributesName", FilterType.LIKE, "attr")),
+                List.of(
+                        new Filter("attributesName", FilterType.EQUAL, "attr1"),
+                        new Filter("attributesName", FilterType.EQUAL, "attr0")),
+                List.of(
+                        new Filter("sortOrder", FilterType.GREATER_THAN, "3"),
+                        new Filter("labels", FilterType.IN, Set.of("label1", "label2")),
+                        new Filter("attributesName", FilterType.EQUAL, "attr1")),
+                List.of(new Filter("labels", FilterType.IS_NULL, (Set<String>) null)));
+
+        assertSameResults(joinSearchService, filterCases);
+    }
+
+    @Test
+    void collectionsBehindToOneAssociationsGetTheirOwnSubquery() {
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setExistsSubqueries(false);
+        SearchService joinSearchService = new SearchService(entityManager, searchEngineProperties);
+
+        List<List<Filter>> filterCases = List.of(
+                List.of(new Filter("ownerTags", FilterType.EQUAL, "blue")),
+                List.of(
+                        new Filter("ownerTags", FilterType.EQUAL, "red"),
+                        new Filter("ownerTags", FilterType.EQUAL, "blue")),
+                List.of(
+                        new Filter("ownerName", FilterType.EQUAL, "second"),
+                        new Filter("ownerTags", FilterType.EQUAL, "red"),
+                        new Filter("attributesName", FilterType.EQUAL, "attr1")),
+                List.of(new Filter("ownerTags", FilterType.IS_NULL, (Set<String>) null)));
+
+        assertSameResults(joinSearchService, filterCases);
+        assertThat(searchIds(searchService, filterCases.get(2))).isNotEmpty();
+    }
+
+    private void assertSameResults(SearchService joinSearchService, List<List<Filter>> filterCases) {
+        for (List<Filter> filters : filterCases) {
+            assertThat(searchIds(searchService, filters))
+                    .as("%s", filters)
+                    .containsExactlyElementsOf(searchIds(joinSearchService, filters));
+        }
+    }
+
+    private static List<Long> searchIds(SearchService searchService, List<Filter> filters) {
+        SearchRequest searchRequest =
+                new SearchRequest(1, 100, false, List.of(new Sort("id", SortDirection.ASCENDING)), filters);
+
+        SearchResponse<Long> searchResponse = searchService.search(searchRequest, TestEntity.class, TestEntity::getId);
+
+        assertThat(searchResponse.totalElements())
+                .isEqualTo(searchResponse.data().size());
+        return searchResponse.data();
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.dto.Facet;
+import io.github.lipiridi.searchengine.dto.FacetValue;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.Status;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.query.SortDirection;
+import org.junit.jupiter.api.Test;
+
+class FacetTest extends AbstractSearchServiceTest {
+
+    private static final Filter ACTIVE_FILTER = new Filter("status", FilterType.IN, Set.of("active"));
+
+    private static final Filter LABEL_FILTER = new Filter("labels", FilterType.EQUAL, "label1");
+
+    @Test
+    void facetsCountTheFilteredEntities() {
+        SearchResponse<TestEntity> searchResponse = searchService.search(
+                request(List.of(new Facet("status"), new Facet("labels"), new Facet("imageName")), ACTIVE_FILTER),
+                TestEntity.class);
+
+        assertThat(counts(searchResponse.facets().get("status"))).isEqualTo(Map.of(Status.ACTIVE, 17L));
+        for (String label : List.of("label0", "label1", "label2", "label3")) {
+            assertThat(counts(searchResponse.facets().get("labels")).getOrDefault(label, 0L))
+                    .as(label)
+                    .isEqualTo(count(ACTIVE_FILTER, new Filter("labels", FilterType.EQUAL, label)));
+        }
+        assertThat(counts(searchResponse.facets().get("imageName")).get(null))
+                .isEqualTo(count(ACTIVE_FILTER, new Filter("imageName", FilterType.IS_NULL, (Set<String>) null)));
+    }
+
+    @Test
+    void multiSelectFacetsIgnoreTheFiltersOfTheirField() {
+        SearchResponse<TestEntity> searchResponse = searchService.search(
+                request(List.of(new Facet("status", true), new Facet("labels", true)), ACTIVE_FILTER, LABEL_FILTER),
+                TestEntity.class);
+
+        List<FacetValue> statusValues = searchResponse.facets().get("status");
+        for (Status status : Status.values()) {
+            assertThat(counts(statusValues).getOrDefault(status, 0L))
+                    .isEqualTo(count(LABEL_FILTER, new Filter("status", FilterType.EQUAL, status.name())));
+        }
+        assertThat(statusValues.get(0).count())
+                .isGreaterThanOrEqualTo(statusValues.get(1).count());
+        assertThat(counts(searchResponse.facets().get("labels")).get("label2"))
+                .isEqualTo(count(ACTIVE_FILTER, new Filter("labels", FilterType.EQUAL, "label2")));
+    }
+
+    @Test
+    void invalidFacetsAreRejected() {
+        assertThatThrownBy(() -> searchService.search(
+                        request(List.of(new Facet("status"), new Facet("status", true))), TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class);
+        assertThatThrownBy(() -> searchService.search(request(List.of(new Facet("unknown"))), TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class);
+        assertThat(searchService.search(request(null), TestEntity.class).facets())
+                .isEmpty();
+    }
+
+    private static SearchRequest request(List<Facet> facets, Filter... filters) {
+        return new SearchRequest(
+                        1, 10, false, List.of(new Sort("createdAt", SortDirection.ASCENDING)), List.of(filters))
+                .withFacets(facets);
+    }
+
+    private long count(Filter... filters) {
+        return searchService
+                .search(new SearchRequest(1, 10, false, List.of(), List.of(filters)), TestEntity.class)
+                .totalElements();
+    }
+
+    private static Map<Object, Long> counts(List<FacetValue> facetValues) {
+        Map<Object, Long> counts = new HashMap<>();
+        facetValues.forEach(facetValue -> counts.put(facetValue.value(), facetValue.count()));
+        return counts;
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+class FetchProfileTest extends AbstractSearchServiceTest {
+
+    @Test
+    void fetchPlansFollowTheProfile() {
+        GraphBuilder graphBuilder = new GraphBuilder(entityManager.getEntityManagerFactory());
+
+        assertThat(graphBuilder.getFetchPlan(TestEntity.class, null))
+                .containsExactly(new GraphBuilder.FetchNode("image", List.of()));
+        assertThat(graphBuilder.getFetchPlan(TestEntity.class, "TestEntity.graph"))
+                .containsExactly(new GraphBuilder.FetchNode("image", List.of()));
+        assertThat(graphBuilder.getFetchPlan(TestEntity.class, "bare")).isEmpty();
+    }
+
+    @Test
+    void builderWithoutFactoryResolvesItFromTheQuery() {
+        GraphBuilder graphBuilder = new GraphBuilder();
+        CriteriaQuery<TestEntity> criteriaQuery =
+                entityManager.getCriteriaBuilder().createQuery(TestEntity.class);
+        Root<TestEntity> root = criteriaQuery.from(TestEntity.class);
+
+        graphBuilder.addEagerJoins(root, TestEntity.class);
+
+        assertThat(root.getFetches())
+                .extracting(fetch -> fetch.getAttribute().getName())
+                .containsExactly("image");
+        assertThat(graphBuilder.getFetchPlan(TestEntity.class, "bare")).isEmpty();
+    }
+
+    @Test
+    void profilesDecideWhatIsFetchedWithThePage() {
+        assertThat(countStatements(null)).isEqualTo(1);
+        assertThat(countStatements("withImage")).isEqualTo(1);
+        // The collection of the entity graph is loaded by a batch query
+        assertThat(countStatements("TestEntity.graph")).isEqualTo(2);
+        // Images are loaded separately, as they aren't fetched by the page query
+        assertThat(countStatements("bare")).isGreaterThan(1);
+    }
+
+    @Test
+    void invalidProfilesAreRejected() {
+        assertThatThrownBy(() -> countStatements("unknown")).isInstanceOf(HibernateSearchEngineException.class);
+        assertThatThrownBy(() -> countStatements("withCollection"))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageContaining("single valued");
+    }
+
+    private long countStatements(String fetchProfile) {
+        Statistics statistics = getStatistics();
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> searchService.search(
+                new SearchRequest(1, 20, true, List.of(), List.of()).withFetchProfile(fetchProfile), TestEntity.class));
+        return statistics.getPrepareStatementCount();
+    }
+}
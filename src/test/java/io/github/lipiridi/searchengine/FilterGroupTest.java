@@ -0,0 +1,116 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.dto.Facet;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.FilterGroup;
+import io.github.lipiridi.searchengine.dto.FilterGroup.Operator;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+class FilterGroupTest extends AbstractSearchServiceTest {
+
+    @Test
+    void groupsCombineTheirFilters() {
+        assertThat(count(new FilterGroup(
+                        Operator.OR,
+                        List.of(
+                                new Filter("status", FilterType.EQUAL, "NEW"),
+                                new Filter("status", FilterType.EQUAL, "ACTIVE")))))
+                .isEqualTo(34);
+        assertThat(count(new FilterGroup(Operator.NOT, List.of(new Filter("enabled", FilterType.EQUAL, "true")))))
+                .isEqualTo(25);
+        assertThat(count(new FilterGroup(Operator.OR, List.of(), List.of(new FilterGroup(Operator.NOT, List.of())))))
+                .isEqualTo(ENTITY_COUNT);
+    }
+
+    @Test
+    void collectionFiltersOfGroupsCountEntitiesOnce() {
+        FilterGroup sortOrderOrLabel = new FilterGroup(
+                Operator.OR,
+                List.of(
+                        new Filter("sortOrder", FilterType.EQUAL, "0"),
+                        new Filter("labels", FilterType.EQUAL, "label1")));
+
+        assertThat(count(sortOrderOrLabel)).isEqualTo(16);
+        assertThat(count(new FilterGroup(Operator.NOT, List.of(new Filter("labels", FilterType.EQUAL, "label1")))))
+                .isEqualTo(40);
+        assertThat(count(new FilterGroup(
+                        Operator.AND,
+                        List.of(new Filter("enabled", FilterType.EQUAL, "true")),
+                        List.of(sortOrderOrLabel))))
+                .isEqualTo(4);
+    }
+
+    @Test
+    void groupsApplyToPagesAndFacets() {
+        SearchResponse<TestEntity> searchResponse = search(
+                List.of(new Filter("status", FilterType.EQUAL, "NEW")),
+                new FilterGroup(
+                        Operator.OR,
+                        List.of(
+                                new Filter("description", FilterType.EQUAL, "item 0"),
+                                new Filter("description", FilterType.EQUAL, "item 3"),
+                                new Filter("description", FilterType.EQUAL, "item 1"))));
+
+        assertThat(searchResponse.totalElements()).isEqualTo(2);
+        assertThat(searchResponse.data()).hasSize(2);
+        assertThat(searchResponse.facets().get("status")).hasSize(1);
+        assertThatThrownBy(() ->
+                        count(new FilterGroup(Operator.OR, List.of(new Filter("unknown", FilterType.EQUAL, "x")))))
+                .isInstanceOf(HibernateSearchEngineException.class);
+    }
+
+    @Test
+    void contradictionsDontQueryTheDatabase() {
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        SearchResponse<TestEntity> searchResponse = search(
+                List.of(new Filter("enabled", FilterType.EQUAL, "true")),
+                new FilterGroup(Operator.AND, List.of(new Filter("enabled", FilterType.EQUAL, "false"))));
+        assertThat(searchResponse.totalElements()).isZero();
+        assertThat(searchResponse.data()).isEmpty();
+        assertThat(searchResponse.facets()).containsEntry("status", List.of());
+
+        searchResponse = search(
+                List.of(
+                        new Filter("sortOrder", FilterType.EQUAL, "1"),
+                        new Filter("sortOrder", FilterType.IN, Set.of("2", "3"))),
+                null);
+        assertThat(searchResponse.totalElements()).isZero();
+        search(
+                List.of(new Filter("sortOrder", FilterType.IS_NULL, Set.of("x"))),
+                new FilterGroup(Operator.OR, List.of(new Filter("sortOrder", FilterType.EQUAL, "1"))));
+
+        assertThat(statistics.getQueryExecutionCount()).isZero();
+    }
+
+    @Test
+    void overlappingListsAreNotContradictions() {
+        SearchResponse<TestEntity> searchResponse = search(
+                List.of(new Filter("sortOrder", FilterType.IN, Set.of("1", "2"))),
+                new FilterGroup(Operator.OR, List.of(new Filter("sortOrder", FilterType.IN, Set.of("2", "3")))));
+
+        assertThat(searchResponse.totalElements()).isEqualTo(7);
+    }
+
+    private SearchResponse<TestEntity> search(List<Filter> filters, FilterGroup filterGroup) {
+        return searchService.search(
+                new SearchRequest(1, 100, false, List.of(), filters)
+                        .withFacets(List.of(new Facet("status")))
+                        .withFilterGroup(filterGroup),
+                TestEntity.class);
+    }
+
+    private long count(FilterGroup filterGroup) {
+        return search(List.of(), filterGroup).totalElements();
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hibernate.query.SortDirection;
+import org.junit.jupiter.api.Test;
+
+class InListFilterTest extends AbstractSearchServiceTest {
+
+    @Test
+    void listsOfDifferentSizesShareTheCompiledQuery() {
+        assertThat(count(new Filter("id", FilterType.IN, ids(3)))).isEqualTo(3);
+
+        QueryPlanCache queryPlanCache = searchService.getQueryPlanCache();
+        long hitCount = queryPlanCache.getHitCount();
+        assertThat(count(new Filter("id", FilterType.IN, ids(20)))).isEqualTo(20);
+        assertThat(count(new Filter("id", FilterType.IN, ids(3000)))).isEqualTo(ENTITY_COUNT);
+
+        assertThat(queryPlanCache.getHitCount()).isGreaterThanOrEqualTo(hitCount + 4);
+    }
+
+    @Test
+    void listFiltersMatchTheirValues() {
+        assertThat(count(new Filter("id", FilterType.NOT_IN, ids(13)))).isEqualTo(37);
+        assertThat(count(
+                        new Filter("status", FilterType.IN, Set.of("active", "NEW")),
+                        new Filter("id", FilterType.NOT_IN, ids(9))))
+                .isEqualTo(28);
+        assertThat(count(new Filter(
+                        "labels",
+                        FilterType.IN,
+                        Set.of("label1", "label2", "label3", "x1", "x2", "x3", "x4", "x5", "x6", "x7"))))
+                .isEqualTo(30);
+    }
+
+    @Test
+    void emptyListIsRejected() {
+        assertThatThrownBy(() -> count(new Filter("id", FilterType.IN, Set.of())))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageContaining("requires a value");
+        assertThatThrownBy(() -> count(new Filter("labels", FilterType.NOT_IN, Set.of())))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageContaining("requires a value");
+    }
+
+    private long count(Filter... filters) {
+        return searchService
+                .search(
+                        new SearchRequest(
+                                1,
+                                100,
+                                false,
+                                List.of(new Sort("createdAt", SortDirection.ASCENDING)),
+                                List.of(filters)),
+                        TestEntity.class)
+                .totalElements();
+    }
+
+    private static Set<String> ids(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(String::valueOf).collect(Collectors.toSet());
+    }
+}
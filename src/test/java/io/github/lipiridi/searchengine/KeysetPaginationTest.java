@@ -0,0 +1,166 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.Hibernate;
+import org.hibernate.query.SortDirection;
+import org.junit.jupiter.api.Test;
+
+class KeysetPaginationTest extends AbstractSearchServiceTest {
+
+    @Test
+    void keysetPagesMatchOffsetOrder() {
+        List<Sort> sorts = List.of(
+                new Sort("imageName", SortDirection.DESCENDING),
+                new Sort("sortOrder", SortDirection.ASCENDING),
+                new Sort("createdAt", SortDirection.DESCENDING));
+        List<Filter> filters = List.of(new Filter("imageName", FilterType.IS_NOT_NULL, (Set<String>) null));
+
+        List<Long> expected = searchIds(new SearchRequest(1, 100, false, sorts, filters));
+        List<Long> keysetIds = new ArrayList<>();
+        int pages = collectKeysetPages(sorts, filters, 7, keysetIds);
+
+        assertThat(expected).hasSize(37);
+        assertThat(keysetIds).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo(6);
+    }
+
+    @Test
+    void nullSortValuesAreOrderedLast() {
+        List<Long> ascendingIds = new ArrayList<>();
+        collectKeysetPages(List.of(new Sort("ownerName", SortDirection.ASCENDING)), List.of(), 4, ascendingIds);
+
+        List<Long> withOwner = searchIds(new SearchRequest(
+                1,
+                100,
+                false,
+                List.of(new Sort("ownerName", SortDirection.ASCENDING), new Sort("id", SortDirection.ASCENDING)),
+                List.of(new Filter("ownerName", FilterType.IS_NOT_NULL, (Set<String>) null))));
+        List<Long> withoutOwner = searchIds(new SearchRequest(
+                1,
+                100,
+                false,
+                List.of(new Sort("id", SortDirection.ASCENDING)),
+                List.of(new Filter("ownerName", FilterType.IS_NULL, (Set<String>) null))));
+
+        assertThat(withoutOwner).hasSize(10);
+        List<Long> expectedAscending = new ArrayList<>(withOwner);
+        expectedAscending.addAll(withoutOwner);
+        assertThat(ascendingIds).containsExactlyElementsOf(expectedAscending);
+
+        List<Long> descendingIds = new ArrayList<>();
+        collectKeysetPages(List.of(new Sort("ownerName", SortDirection.DESCENDING)), List.of(), 4, descendingIds);
+
+        assertThat(descendingIds).hasSize(ENTITY_COUNT).doesNotHaveDuplicates();
+        assertThat(descendingIds.subList(0, withoutOwner.size())).containsExactlyElementsOf(withoutOwner);
+    }
+
+    @Test
+    void cursorIsReadWithoutLoadingAssociations() {
+        SearchRequest searchRequest = new SearchRequest(
+                        1, 5, true, List.of(new Sort("ownerName", SortDirection.ASCENDING)), List.of())
+                .withPagination(PaginationType.KEYSET);
+
+        getStatistics().clear();
+        SearchResponse<TestEntity> searchResponse = searchService.search(searchRequest, TestEntity.class);
+
+        assertThat(searchResponse.nextCursor()).isNotNull();
+        assertThat(Hibernate.isInitialized(searchResponse.data().getLast().getOwner()))
+                .isFalse();
+        assertThat(getStatistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keysetPagesOfStatelessSessions() {
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setStatelessSession(true);
+        SearchService statelessSearchService = new SearchService(entityManager, searchEngineProperties);
+
+        List<Long> ids = new ArrayList<>();
+        collectKeysetPages(
+                statelessSearchService, List.of(new Sort("ownerName", SortDirection.ASCENDING)), List.of(), 7, ids);
+
+        assertThat(ids).hasSize(ENTITY_COUNT).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void cursorOfOtherSortsIsRejected() {
+        SearchResponse<TestEntity> searchResponse = searchService.search(
+                new SearchRequest(1, 5, false, List.of(new Sort("description", SortDirection.ASCENDING)), List.of())
+                        .withPagination(PaginationType.KEYSET),
+                TestEntity.class);
+
+        SearchRequest otherSorts = new SearchRequest(
+                        1, 5, false, List.of(new Sort("sortOrder", SortDirection.ASCENDING)), List.of())
+                .withPagination(PaginationType.KEYSET)
+                .withCursor(searchResponse.nextCursor());
+        assertThatThrownBy(() -> searchService.search(otherSorts, TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class);
+
+        SearchRequest invalidCursor = new SearchRequest(1, 5, false, List.of(), List.of()).withCursor("abc");
+        assertThatThrownBy(() -> searchService.search(invalidCursor, TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        List<Sort> sorts = List.of(new Sort("description", SortDirection.ASCENDING));
+        for (String cursor : List.of("~", "~.~", "~.~.~", "...", "!!!")) {
+            SearchRequest searchRequest = new SearchRequest(1, 5, false, sorts, List.of())
+                    .withPagination(PaginationType.KEYSET)
+                    .withCursor(cursor);
+            assertThatThrownBy(() -> searchService.search(searchRequest, TestEntity.class))
+                    .isInstanceOf(HibernateSearchEngineException.class);
+        }
+    }
+
+    @Test
+    void collectionSortIsRejected() {
+        SearchRequest searchRequest = new SearchRequest(
+                        1, 5, false, List.of(new Sort("labels", SortDirection.ASCENDING)), List.of())
+                .withPagination(PaginationType.KEYSET);
+
+        assertThatThrownBy(() -> searchService.search(searchRequest, TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageContaining("labels");
+    }
+
+    private List<Long> searchIds(SearchRequest searchRequest) {
+        return searchService
+                .search(searchRequest, TestEntity.class, TestEntity::getId)
+                .data();
+    }
+
+    private int collectKeysetPages(List<Sort> sorts, List<Filter> filters, int size, List<Long> ids) {
+        return collectKeysetPages(searchService, sorts, filters, size, ids);
+    }
+
+    private int collectKeysetPages(
+            SearchService searchService, List<Sort> sorts, List<Filter> filters, int size, List<Long> ids) {
+        int pages = 0;
+        String cursor = null;
+        do {
+            SearchResponse<Long> searchResponse = searchService.search(
+                    new SearchRequest(1, size, false, sorts, filters)
+                            .withPagination(PaginationType.KEYSET)
+                            .withCursor(cursor),
+                    TestEntity.class,
+                    TestEntity::getId);
+            ids.addAll(searchResponse.data());
+            cursor = searchResponse.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        return pages;
+    }
+}
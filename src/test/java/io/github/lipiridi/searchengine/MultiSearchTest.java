@@ -0,0 +1,78 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.MultiSearchResult;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchSpec;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.Image;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.query.SortDirection;
+import org.junit.jupiter.api.Test;
+
+class MultiSearchTest extends AbstractSearchServiceTest {
+
+    private static final SearchRequest ACTIVE_REQUEST = request(new Filter("status", FilterType.EQUAL, "active"));
+
+    private static final SearchRequest LABEL_REQUEST = request(new Filter("labels", FilterType.EQUAL, "label1"));
+
+    @Test
+    void resultsFollowTheOrderOfTheSpecs() {
+        List<SearchSpec<?>> searchSpecs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            searchSpecs.add(new SearchSpec<>(i % 2 == 0 ? ACTIVE_REQUEST : LABEL_REQUEST, TestEntity.class));
+        }
+        searchSpecs.add(new SearchSpec<>(new SearchRequest(1, 10, false, List.of(), List.of()), Image.class));
+
+        List<MultiSearchResult<?>> results = searchService.multiSearch(searchSpecs);
+
+        assertThat(results).hasSize(11);
+        assertThat(results.get(0).response().data().stream()
+                        .map(testEntity -> ((TestEntity) testEntity).getId())
+                        .toList())
+                .isEqualTo(searchService
+                        .search(ACTIVE_REQUEST, TestEntity.class, TestEntity::getId)
+                        .data());
+        assertThat(results.get(0).response().totalElements()).isEqualTo(17);
+        assertThat(results.get(1).response().totalElements()).isEqualTo(10);
+        assertThat(results.get(10).response().totalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void identicalSpecsShareTheResponse() {
+        List<MultiSearchResult<?>> results = searchService.multiSearch(List.of(
+                new SearchSpec<>(ACTIVE_REQUEST, TestEntity.class),
+                new SearchSpec<>(ACTIVE_REQUEST, TestEntity.class)));
+
+        assertThat(results.get(0).response()).isSameAs(results.get(1).response());
+    }
+
+    @Test
+    void failedSearchDoesntFailTheOthers() {
+        SearchRequest invalidRequest = request(new Filter("unknown", FilterType.EQUAL, "x"));
+
+        List<MultiSearchResult<?>> results = searchService.multiSearch(List.of(
+                new SearchSpec<>(invalidRequest, TestEntity.class), new SearchSpec<>(LABEL_REQUEST, TestEntity.class)));
+
+        assertThat(results.get(0).isSuccessful()).isFalse();
+        assertThat(results.get(0).error()).isInstanceOf(HibernateSearchEngineException.class);
+        assertThat(results.get(1).isSuccessful()).isTrue();
+    }
+
+    @Test
+    void multiSearchRunsWithinTransaction() {
+        List<MultiSearchResult<?>> results = transactionTemplate.execute(
+                status -> searchService.multiSearch(List.of(new SearchSpec<>(ACTIVE_REQUEST, TestEntity.class))));
+
+        assertThat(results).singleElement().matches(MultiSearchResult::isSuccessful);
+    }
+
+    private static SearchRequest request(Filter filter) {
+        return new SearchRequest(
+                1, 10, false, List.of(new Sort("createdAt", SortDirection.ASCENDING)), List.of(filter));
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.count.RowCountEstimator;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.execution.SearchExecutor;
+import io.github.lipiridi.searchengine.metrics.SearchMetrics;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import io.github.lipiridi.searchengine.text.FullTextFunction;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.query.Query;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(
+        properties = {
+            "spring.jpa.hibernate.search-engine.parallel-count=true",
+            "spring.jpa.hibernate.search-engine.count-timeout=5s"
+        })
+class ParallelCountTest extends AbstractSearchServiceTest {
+
+    @Test
+    void countIsExecutedAlongsideThePageQuery() {
+        SearchRequest searchRequest = new SearchRequest(
+                1, 10, false, List.of(), List.of(new Filter("attributesName", FilterType.EQUAL, "attr1")));
+
+        SearchResponse<TestEntity> searchResponse = searchService.search(searchRequest, TestEntity.class);
+
+        assertThat(searchResponse.totalElements()).isEqualTo(16);
+        assertThat(searchResponse.totalElementsExact()).isTrue();
+        assertThat(searchResponse.data()).hasSize(10);
+    }
+
+    @Test
+    void countSeesCommittedData() {
+        long totalElements = transactionTemplate.execute(status -> searchService
+                .search(new SearchRequest(1, 10, false, List.of(), List.of()), TestEntity.class)
+                .totalElements());
+
+        assertThat(totalElements).isEqualTo(ENTITY_COUNT);
+    }
+
+    @Test
+    void countThatExceedsTheTimeoutIsReportedAsUnknown() {
+        CountDownLatch countReleased = new CountDownLatch(1);
+        SearchExecutor searchExecutor = new DelegatingSearchExecutor(SearchExecutor.forEntityManager(entityManager)) {
+            @Override
+            public <T> T executeDetached(Function<SharedSessionContract, T> action) {
+                await(countReleased);
+                return super.executeDetached(action);
+            }
+        };
+
+        try {
+            SearchResponse<TestEntity> searchResponse =
+                    transactionTemplate.execute(status -> createSearchService(searchExecutor, Duration.ofMillis(100))
+                            .search(new SearchRequest(1, 10, false, List.of(), List.of()), TestEntity.class));
+
+            assertThat(searchResponse.totalElements()).isEqualTo(SearchResponse.UNKNOWN_TOTAL_ELEMENTS);
+            assertThat(searchResponse.totalElementsExact()).isFalse();
+            assertThat(searchResponse.data()).hasSize(10);
+        } finally {
+            countReleased.countDown();
+        }
+    }
+
+    @Test
+    void countRunsWhileThePageQueryRuns() {
+        CountDownLatch pageStarted = new CountDownLatch(1);
+        AtomicBoolean pageRunning = new AtomicBoolean();
+        AtomicBoolean countOverlapped = new AtomicBoolean();
+        SearchExecutor searchExecutor = new DelegatingSearchExecutor(SearchExecutor.forEntityManager(entityManager)) {
+            @Override
+            public <T> T execute(Function<SharedSessionContract, T> action) {
+                pageRunning.set(true);
+                pageStarted.countDown();
+                try {
+                    return super.execute(action);
+                } finally {
+                    pageRunning.set(false);
+                }
+            }
+
+            @Override
+            public <T> T executeDetached(Function<SharedSessionContract, T> action) {
+                await(pageStarted);
+                countOverlapped.set(pageRunning.get());
+                return super.executeDetached(action);
+            }
+        };
+
+        SearchResponse<TestEntity> searchResponse =
+                transactionTemplate.execute(status -> createSearchService(searchExecutor, Duration.ofSeconds(5))
+                        .search(new SearchRequest(1, 10, false, List.of(), List.of()), TestEntity.class));
+
+        assertThat(searchResponse.totalElements()).isEqualTo(ENTITY_COUNT);
+        assertThat(countOverlapped).isTrue();
+    }
+
+    @Test
+    void subSecondTimeoutsAreRoundedUpToWholeSeconds() {
+        transactionTemplate.executeWithoutResult(status -> {
+            TypedQuery<TestEntity> query = entityManager.createQuery("select e from TestEntity e", TestEntity.class);
+            SearchQueryCompiler.setQueryTimeout(query, Duration.ofMillis(200));
+            assertThat(query.unwrap(Query.class).getTimeout()).isEqualTo(1);
+
+            SearchQueryCompiler.setQueryTimeout(query, Duration.ofMillis(2001));
+            assertThat(query.unwrap(Query.class).getTimeout()).isEqualTo(3);
+        });
+    }
+
+    private SearchService createSearchService(SearchExecutor searchExecutor, Duration countTimeout) {
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setParallelCount(true);
+        searchEngineProperties.setCountTimeout(countTimeout);
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        return new SearchService(
+                entityManager,
+                searchEngineProperties,
+                new SearchFieldRegistry(entityManager.getMetamodel(), searchEngineProperties.getNamingConvention()),
+                RowCountEstimator.forEntityManagerFactory(entityManagerFactory),
+                SearchMetrics.NOOP,
+                FullTextFunction.forEntityManagerFactory(entityManagerFactory),
+                searchExecutor);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Latch was not released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class DelegatingSearchExecutor implements SearchExecutor {
+
+        private final SearchExecutor delegate;
+
+        DelegatingSearchExecutor(SearchExecutor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <T> T execute(Function<SharedSessionContract, T> action) {
+            return delegate.execute(action);
+        }
+
+        @Override
+        public <T> T executeDetached(Function<SharedSessionContract, T> action) {
+            return delegate.executeDetached(action);
+        }
+
+        @Override
+        public EntityManagerFactory getEntityManagerFactory() {
+            return delegate.getEntityManagerFactory();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.query.SortDirection;
+import org.junit.jupiter.api.Test;
+
+class ProjectionTest extends AbstractSearchServiceTest {
+
+    private static final List<Sort> SORTS = List.of(new Sort("id", SortDirection.ASCENDING));
+
+    record TestEntityView(Long id, String description, int sortOrder) {}
+
+    @Test
+    void recordProjectionsMatchEntities() {
+        SearchRequest searchRequest = new SearchRequest(2, 5, false, SORTS, List.of());
+
+        SearchResponse<TestEntityView> projections =
+                searchService.searchProjections(searchRequest, TestEntity.class, TestEntityView.class);
+
+        assertThat(projections.data())
+                .extracting(TestEntityView::id)
+                .containsExactlyElementsOf(searchIds(searchRequest));
+        assertThat(projections.totalElements()).isEqualTo(ENTITY_COUNT);
+    }
+
+    @Test
+    void collectionFiltersKeepProjectionsDistinct() {
+        SearchRequest searchRequest = new SearchRequest(
+                1, 100, false, SORTS, List.of(new Filter("attributesName", FilterType.IS_NOT_NULL, (Set<String>)
+                        null)));
+
+        SearchResponse<TestEntityView> projections =
+                searchService.searchProjections(searchRequest, TestEntity.class, TestEntityView.class);
+
+        List<Long> ids = searchIds(searchRequest);
+        assertThat(projections.data()).extracting(TestEntityView::id).containsExactlyElementsOf(ids);
+        assertThat(projections.totalElements()).isEqualTo(ids.size());
+    }
+
+    @Test
+    void mapProjectionsContainTheSelectedFields() {
+        SearchResponse<Map<String, Object>> projections = searchService.searchProjections(
+                new SearchRequest(1, 5, false, SORTS, List.of()),
+                TestEntity.class,
+                List.of("id", "status", "imageName"));
+
+        assertThat(projections.data()).hasSize(5);
+        assertThat(projections.data().getFirst()).containsOnlyKeys("id", "status", "imageName");
+    }
+
+    @Test
+    void collectionFieldsCantBeSelected() {
+        SearchRequest searchRequest = new SearchRequest(1, 5, false, SORTS, List.of());
+
+        assertThatThrownBy(() ->
+                        searchService.searchProjections(searchRequest, TestEntity.class, List.of("attributesName")))
+                .isInstanceOf(HibernateSearchEngineException.class);
+    }
+
+    private List<Long> searchIds(SearchRequest searchRequest) {
+        return searchService
+                .search(searchRequest, TestEntity.class, TestEntity::getId)
+                .data();
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.model.Image;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(
+        properties = {
+            "spring.jpa.hibernate.search-engine.max-query-cost=50",
+            "spring.jpa.hibernate.search-engine.max-query-cost-by-entity.Image=5",
+            "spring.jpa.hibernate.search-engine.max-query-cost-with-totals=25",
+            "spring.jpa.hibernate.search-engine.query-timeout=3s"
+        })
+class QueryCostTest extends AbstractSearchServiceTest {
+
+    @Test
+    void cheapRequestsAreExecutedWithTotals() {
+        SearchResponse<TestEntity> searchResponse = search(1);
+
+        assertThat(searchResponse.totalElements()).isEqualTo(ENTITY_COUNT);
+        assertThat(searchResponse.totalElementsExact()).isTrue();
+    }
+
+    @Test
+    void totalsAreSkippedAboveTheTotalsLimit() {
+        SearchResponse<TestEntity> searchResponse = search(1, like("item"), like("ite"), like("it"));
+
+        assertThat(searchResponse.totalElements()).isEqualTo(-1);
+        assertThat(searchResponse.totalElementsExact()).isFalse();
+        assertThat(searchResponse.data()).hasSize(10);
+        assertThat(search(1, like("item"), like("ite"), like("it"), new Filter("imageName", FilterType.LIKE, "a"))
+                        .data())
+                .isNotEmpty();
+    }
+
+    @Test
+    void expensiveRequestsAreRejected() {
+        assertThatThrownBy(() -> search(1, like("item"), like("ite"), like("it"), like("i"), like("e"), like("m")))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageContaining("cost 60");
+        assertThat(search(61).data()).isEmpty();
+    }
+
+    @Test
+    void limitsOfEntitiesOverrideTheDefault() {
+        SearchRequest deepRequest = new SearchRequest(61, 10, false, List.of(), List.of());
+        assertThatThrownBy(() -> searchService.search(deepRequest, Image.class))
+                .isInstanceOf(HibernateSearchEngineException.class);
+
+        SearchRequest allowedRequest = new SearchRequest(51, 10, false, List.of(), List.of());
+        assertThat(searchService.search(allowedRequest, Image.class).data()).isEmpty();
+    }
+
+    @Test
+    void entityListsAndTotalsAreScored() {
+        SearchRequest expensiveRequest = new SearchRequest(
+                1,
+                10,
+                false,
+                List.of(),
+                List.of(like("item"), like("ite"), like("it"), like("i"), like("e"), like("m")));
+        assertThatThrownBy(() -> searchService.fetchEntities(expensiveRequest, TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageContaining("cost 60");
+        assertThatThrownBy(() -> searchService.totalElements(expensiveRequest, TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageContaining("cost 60");
+
+        // Totals don't depend on the page
+        SearchRequest deepRequest = new SearchRequest(61, 10, false, List.of(), List.of());
+        assertThatThrownBy(() -> searchService.fetchEntities(deepRequest, Image.class))
+                .isInstanceOf(HibernateSearchEngineException.class);
+        assertThat(searchService.totalElements(deepRequest, Image.class)).isEqualTo(3);
+    }
+
+    private SearchResponse<TestEntity> search(int page, Filter... filters) {
+        return searchService.search(new SearchRequest(page, 10, false, List.of(), List.of(filters)), TestEntity.class);
+    }
+
+    private static Filter like(String value) {
+        return new Filter("description", FilterType.LIKE, value);
+    }
+}
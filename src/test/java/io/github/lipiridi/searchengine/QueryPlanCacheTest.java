@@ -0,0 +1,88 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import org.hibernate.query.SortDirection;
+import org.junit.jupiter.api.Test;
+
+class QueryPlanCacheTest extends AbstractSearchServiceTest {
+
+    @Test
+    void cachedQueriesApplyNewFilterValues() {
+        assertThat(count(new Filter("sortOrder", FilterType.GREATER_THAN, "3"))).isEqualTo(21);
+        assertThat(count(new Filter("sortOrder", FilterType.GREATER_THAN, "5"))).isEqualTo(7);
+        assertThat(count(new Filter("sortOrder", FilterType.LESS_THAN_OR_EQUAL, "0")))
+                .isEqualTo(8);
+        assertThat(count(new Filter("id", FilterType.NOT_IN, Set.of("1", "2")))).isEqualTo(48);
+        assertThat(count(new Filter("description", FilterType.LIKE, "ITEM 1"))).isEqualTo(11);
+        assertThat(count(new Filter("description", FilterType.NOT_LIKE, "item 1")))
+                .isEqualTo(39);
+        assertThat(count(new Filter("status", FilterType.EQUAL, "active"))).isEqualTo(17);
+        assertThat(count(new Filter("enabled", FilterType.NOT_EQUAL, "true"))).isEqualTo(25);
+        assertThat(count(new Filter("imageName", FilterType.EQUAL, "beta"))).isEqualTo(13);
+        assertThat(count(new Filter("imageName", FilterType.IS_NULL, (Set<String>) null)))
+                .isEqualTo(13);
+        assertThat(count(new Filter("labels", FilterType.EQUAL, "label1"))).isEqualTo(10);
+        assertThat(count(new Filter("createdAt", FilterType.GREATER_THAN_OR_EQUAL, "1000040")))
+                .isEqualTo(10);
+    }
+
+    @Test
+    void requestsOfTheSameShapeShareTheCompiledQueries() {
+        QueryPlanCache queryPlanCache = searchService.getQueryPlanCache();
+        count(new Filter("sortOrder", FilterType.GREATER_THAN, "3"));
+
+        long hitCount = queryPlanCache.getHitCount();
+        long missCount = queryPlanCache.getMissCount();
+        assertThat(count(new Filter("sortOrder", FilterType.GREATER_THAN, "1"))).isEqualTo(35);
+
+        // Page and count query
+        assertThat(queryPlanCache.getHitCount()).isEqualTo(hitCount + 2);
+        assertThat(queryPlanCache.getMissCount()).isEqualTo(missCount);
+    }
+
+    @Test
+    void compiledQueriesAreSharedBetweenConcurrentSearches() throws Exception {
+        count(new Filter("sortOrder", FilterType.GREATER_THAN, "0"));
+        QueryPlanCache queryPlanCache = searchService.getQueryPlanCache();
+        long missCount = queryPlanCache.getMissCount();
+
+        List<Callable<Long>> searches = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            int sortOrder = i % 7;
+            searches.add(() -> count(new Filter("sortOrder", FilterType.GREATER_THAN, String.valueOf(sortOrder))));
+        }
+
+        try (ExecutorService executorService = Executors.newFixedThreadPool(8)) {
+            List<Future<Long>> totals = executorService.invokeAll(searches);
+            for (int i = 0; i < totals.size(); i++) {
+                // sortOrder is i % 7 for 50 entities
+                int sortOrder = i % 7;
+                long expected = IntStream.range(0, ENTITY_COUNT)
+                        .filter(e -> e % 7 > sortOrder)
+                        .count();
+                assertThat(totals.get(i).get()).isEqualTo(expected);
+            }
+        }
+
+        assertThat(queryPlanCache.getMissCount()).isEqualTo(missCount);
+    }
+
+    private long count(Filter filter) {
+        SearchRequest searchRequest = new SearchRequest(
+                1, 100, false, List.of(new Sort("createdAt", SortDirection.ASCENDING)), List.of(filter));
+        return searchService.search(searchRequest, TestEntity.class).totalElements();
+    }
+}
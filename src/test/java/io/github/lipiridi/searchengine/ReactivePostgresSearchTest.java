@@ -0,0 +1,146 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Facet;
+import io.github.lipiridi.searchengine.dto.FacetValue;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.Attribute;
+import io.github.lipiridi.searchengine.model.Image;
+import io.github.lipiridi.searchengine.model.Owner;
+import io.github.lipiridi.searchengine.model.Status;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.query.SortDirection;
+import org.hibernate.reactive.mutiny.Mutiny;
+import org.hibernate.reactive.provider.ReactiveServiceRegistryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs the reactive search against a Hibernate Reactive session factory on PostgreSQL, skipped without Docker
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReactivePostgresSearchTest {
+
+    private static final int ENTITY_COUNT = 10;
+
+    private static final List<Sort> SORTS =
+            List.of(new Sort("sortOrder", SortDirection.ASCENDING), new Sort("id", SortDirection.ASCENDING));
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static SessionFactory sessionFactory;
+    private static EntityManager entityManager;
+    private static ReactiveSearchService reactiveSearchService;
+
+    /**
+     * Entity i has {@code sortOrder} and {@code status} i % 3, even entities have the attribute {@code attr} and the
+     * label {@code even}
+     */
+    @BeforeAll
+    static void createSessionFactory() {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(TestEntity.class)
+                .addAnnotatedClass(Image.class)
+                .addAnnotatedClass(Owner.class)
+                .addAnnotatedClass(Attribute.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, POSTGRES.getJdbcUrl())
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, POSTGRES.getUsername())
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, POSTGRES.getPassword())
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create");
+        StandardServiceRegistry serviceRegistry = new ReactiveServiceRegistryBuilder()
+                .applySettings(configuration.getProperties())
+                .build();
+        sessionFactory = configuration.buildSessionFactory(serviceRegistry);
+        Mutiny.SessionFactory mutinySessionFactory = sessionFactory.unwrap(Mutiny.SessionFactory.class);
+
+        Image image = new Image("reactiveImage");
+        List<Object> entities = new ArrayList<>(List.of(image));
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            TestEntity testEntity = new TestEntity();
+            testEntity.setDescription("item " + i);
+            testEntity.setSortOrder(i % 3);
+            testEntity.setCreatedAt(Instant.ofEpochMilli(1_000_000L + i));
+            testEntity.setStatus(Status.values()[i % 3]);
+            testEntity.setImage(image);
+            if (i % 2 == 0) {
+                Attribute attribute = new Attribute("attr");
+                entities.add(attribute);
+                testEntity.getAttributes().add(attribute);
+                testEntity.getLabels().add("even");
+            }
+            entities.add(testEntity);
+        }
+        mutinySessionFactory
+                .withTransaction(session -> session.persistAll(entities.toArray()))
+                .await()
+                .indefinitely();
+
+        // The entity manager only compiles the queries, they are executed by the Mutiny sessions
+        entityManager = sessionFactory.createEntityManager();
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setStreamFetchSize(4);
+        reactiveSearchService = new ReactiveSearchService(new SearchService(entityManager, searchEngineProperties));
+    }
+
+    @AfterAll
+    static void closeSessionFactory() {
+        if (sessionFactory != null) {
+            entityManager.close();
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    void searchIsExecutedInMutinySessions() {
+        SearchRequest searchRequest = new SearchRequest(
+                        1, 3, false, SORTS, List.of(new Filter("attributesName", FilterType.EQUAL, "attr")))
+                .withCountStrategy(CountStrategy.EXACT)
+                .withFacets(List.of(new Facet("status")))
+                .withFetchProfile("withCollections");
+
+        SearchResponse<TestEntity> searchResponse =
+                reactiveSearchService.search(searchRequest, TestEntity.class).block();
+
+        assertThat(searchResponse.totalElements()).isEqualTo(5);
+        assertThat(searchResponse.data())
+                .extracting(TestEntity::getDescription)
+                .containsExactly("item 0", "item 6", "item 4");
+        assertThat(searchResponse.data().getFirst().getImage().getName()).isEqualTo("reactiveImage");
+        assertThat(searchResponse.data().getFirst().getLabels()).containsExactly("even");
+        assertThat(searchResponse.facets().get("status"))
+                .extracting(FacetValue::count)
+                .containsExactlyInAnyOrder(2L, 1L, 2L);
+    }
+
+    @Test
+    void streamReadsAllKeysetPages() {
+        List<String> streamed = reactiveSearchService.stream(
+                        new SearchRequest(1, 1, false, SORTS, List.of()), TestEntity.class)
+                .map(TestEntity::getDescription)
+                .collectList()
+                .block();
+
+        assertThat(streamed)
+                .containsExactly(
+                        "item 0", "item 3", "item 6", "item 9", "item 1", "item 4", "item 7", "item 2", "item 5",
+                        "item 8");
+    }
+}
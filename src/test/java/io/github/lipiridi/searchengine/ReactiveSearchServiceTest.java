@@ -0,0 +1,140 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Facet;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import io.smallrye.mutiny.Uni;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaQuery;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.hibernate.query.SortDirection;
+import org.hibernate.reactive.mutiny.Mutiny;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * H2 has no reactive driver, so the Mutiny session is mocked by one that executes the queries in the entity manager.
+ * {@link ReactivePostgresSearchTest} covers a real session factory.
+ */
+class ReactiveSearchServiceTest extends AbstractSearchServiceTest {
+
+    private static final List<Sort> SORTS =
+            List.of(new Sort("sortOrder", SortDirection.ASCENDING), new Sort("id", SortDirection.ASCENDING));
+
+    private ReactiveSearchService reactiveSearchService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createReactiveSearchService() {
+        Mutiny.Session session = mock(Mutiny.Session.class);
+        when(session.createQuery(any(CriteriaQuery.class)))
+                .thenAnswer(invocation -> createQuery(invocation.getArgument(0)));
+
+        Mutiny.SessionFactory sessionFactory = mock(Mutiny.SessionFactory.class);
+        when(sessionFactory.withSession(any(Function.class)))
+                .thenAnswer(
+                        invocation -> ((Function<Mutiny.Session, Uni<?>>) invocation.getArgument(0)).apply(session));
+
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setStreamFetchSize(7);
+        reactiveSearchService =
+                new ReactiveSearchService(new SearchService(entityManager, searchEngineProperties), sessionFactory);
+    }
+
+    @Test
+    void searchMatchesTheBlockingSearch() {
+        SearchRequest searchRequest = new SearchRequest(
+                        2, 5, false, SORTS, List.of(new Filter("attributesName", FilterType.EQUAL, "attr1")))
+                .withFacets(List.of(new Facet("status")));
+
+        SearchResponse<Long> expected = searchService.search(searchRequest, TestEntity.class, TestEntity::getId);
+        SearchResponse<Long> searchResponse = transactionTemplate.execute(status -> reactiveSearchService
+                .search(searchRequest, TestEntity.class, TestEntity::getId)
+                .block());
+
+        assertThat(searchResponse.data()).containsExactlyElementsOf(expected.data());
+        assertThat(searchResponse.totalElements()).isEqualTo(expected.totalElements());
+        assertThat(searchResponse.facets()).isEqualTo(expected.facets());
+    }
+
+    @Test
+    void streamReadsAllKeysetPages() {
+        List<Long> expected = searchService
+                .search(new SearchRequest(1, 100, false, SORTS, List.of()), TestEntity.class, TestEntity::getId)
+                .data();
+
+        List<Long> streamed = transactionTemplate.execute(status -> reactiveSearchService.stream(
+                        new SearchRequest(1, 1, false, SORTS, List.of()), TestEntity.class)
+                .map(TestEntity::getId)
+                .collectList()
+                .block());
+
+        assertThat(streamed).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void contradictionsAreAnsweredWithoutSession() {
+        SearchRequest searchRequest = new SearchRequest(
+                1,
+                5,
+                false,
+                SORTS,
+                List.of(
+                        new Filter("sortOrder", FilterType.EQUAL, "1"),
+                        new Filter("sortOrder", FilterType.IN, Set.of("2", "3"))));
+
+        SearchResponse<TestEntity> searchResponse =
+                reactiveSearchService.search(searchRequest, TestEntity.class).block();
+
+        assertThat(searchResponse.data()).isEmpty();
+        assertThat(searchResponse.totalElements()).isZero();
+    }
+
+    @Test
+    void invalidRequestsAreSignalledByTheMono() {
+        SearchRequest searchRequest =
+                new SearchRequest(1, 5, false, List.of(), List.of(new Filter("unknown", FilterType.EQUAL, "x")));
+
+        var searchResponse = reactiveSearchService.search(searchRequest, TestEntity.class);
+
+        assertThatThrownBy(searchResponse::block).isInstanceOf(HibernateSearchEngineException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mutiny.SelectionQuery<Object> createQuery(CriteriaQuery<Object> criteriaQuery) {
+        TypedQuery<Object> query = entityManager.createQuery(criteriaQuery);
+        return mock(Mutiny.SelectionQuery.class, invocation -> switch (invocation
+                .getMethod()
+                .getName()) {
+            case "setParameter" -> {
+                query.setParameter((Parameter<Object>) invocation.getArgument(0), invocation.getArgument(1));
+                yield invocation.getMock();
+            }
+            case "setFirstResult" -> {
+                query.setFirstResult(invocation.getArgument(0));
+                yield invocation.getMock();
+            }
+            case "setMaxResults" -> {
+                query.setMaxResults(invocation.getArgument(0));
+                yield invocation.getMock();
+            }
+            case "getResultList" -> Uni.createFrom().item(query::getResultList);
+            case "getSingleResult" -> Uni.createFrom().item(query::getSingleResult);
+            default ->
+                throw new UnsupportedOperationException(invocation.getMethod().getName());
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import org.hibernate.query.SortDirection;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.jpa.hibernate.search-engine.stateless-session=true")
+class SearchConnectionTest extends AbstractSearchServiceTest {
+
+    private static final SearchRequest SEARCH_REQUEST = new SearchRequest(
+                    1,
+                    10,
+                    false,
+                    List.of(new Sort("id", SortDirection.ASCENDING)),
+                    List.of(new Filter("attributesName", FilterType.EQUAL, "attr1")))
+            .withCountStrategy(CountStrategy.EXACT);
+
+    @Test
+    void statelessSearchesDontOpenTransactionOfThePrimaryEntityManager() {
+        Statistics statistics = getStatistics();
+
+        long connectCount = statistics.getConnectCount();
+        assertThat(searchService.search(SEARCH_REQUEST, TestEntity.class).data())
+                .isNotEmpty();
+        assertThat(statistics.getConnectCount() - connectCount).isEqualTo(1);
+
+        connectCount = statistics.getConnectCount();
+        assertThat(searchService.totalElements(SEARCH_REQUEST, TestEntity.class))
+                .isPositive();
+        assertThat(searchService.fetchEntities(SEARCH_REQUEST, TestEntity.class))
+                .isNotEmpty();
+        assertThat(statistics.getConnectCount() - connectCount).isEqualTo(2);
+    }
+}
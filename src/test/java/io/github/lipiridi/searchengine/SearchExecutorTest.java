@@ -0,0 +1,194 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.count.RowCountEstimator;
+import io.github.lipiridi.searchengine.dto.Facet;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.execution.SearchExecutor;
+import io.github.lipiridi.searchengine.metrics.SearchMetrics;
+import io.github.lipiridi.searchengine.model.Attribute;
+import io.github.lipiridi.searchengine.model.Image;
+import io.github.lipiridi.searchengine.model.Status;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import io.github.lipiridi.searchengine.text.FullTextFunction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.query.SortDirection;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+class SearchExecutorTest extends AbstractSearchServiceTest {
+
+    private static final int REPLICA_ENTITY_COUNT = 3;
+
+    private EntityManagerFactory replicaEntityManagerFactory;
+
+    @BeforeEach
+    void createReplica() {
+        var entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", ""));
+        entityManagerFactoryBean.setPackagesToScan(TestEntity.class.getPackageName());
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        replicaEntityManagerFactory = entityManagerFactoryBean.getObject();
+
+        EntityManager replicaEntityManager = replicaEntityManagerFactory.createEntityManager();
+        replicaEntityManager.getTransaction().begin();
+        Image image = new Image("replicaImage");
+        replicaEntityManager.persist(image);
+        for (int i = 0; i < REPLICA_ENTITY_COUNT; i++) {
+            Attribute attribute = new Attribute("replicaAttribute" + i);
+            replicaEntityManager.persist(attribute);
+            TestEntity testEntity = new TestEntity();
+            testEntity.setDescription("replica " + i);
+            testEntity.setImage(image);
+            testEntity.setStatus(Status.NEW);
+            testEntity.getAttributes().add(attribute);
+            testEntity.getLabels().add("replicaLabel");
+            replicaEntityManager.persist(testEntity);
+        }
+        replicaEntityManager.getTransaction().commit();
+        replicaEntityManager.close();
+    }
+
+    @AfterEach
+    void closeReplica() {
+        replicaEntityManagerFactory.close();
+    }
+
+    @Test
+    void searchesAreExecutedOnTheReplica() {
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setParallelCount(true);
+        SearchService replicaSearchService = createSearchService(
+                searchEngineProperties, SearchExecutor.readOnlySession(replicaEntityManagerFactory));
+
+        SearchResponse<TestEntity> searchResponse = transactionTemplate.execute(status -> replicaSearchService.search(
+                request("withCollections", List.of(new Filter("status", FilterType.EQUAL, Set.of("NEW")))),
+                TestEntity.class));
+
+        assertThat(searchResponse.totalElements()).isEqualTo(REPLICA_ENTITY_COUNT);
+        assertThat(searchResponse.data())
+                .extracting(TestEntity::getDescription)
+                .containsExactly("replica 0", "replica 1", "replica 2");
+        TestEntity testEntity = searchResponse.data().getFirst();
+        assertThat(testEntity.getImage().getName()).isEqualTo("replicaImage");
+        assertThat(testEntity.getAttributes()).hasSize(1);
+        assertThat(testEntity.getLabels()).containsExactly("replicaLabel");
+    }
+
+    @Test
+    void countsFetchesAndProjectionsAreExecutedOnTheReplica() {
+        SearchService replicaSearchService = createSearchService(
+                new SearchEngineProperties(), SearchExecutor.readOnlySession(replicaEntityManagerFactory));
+        SearchRequest searchRequest = request(null, List.of());
+
+        Long totalElements = transactionTemplate.execute(
+                status -> replicaSearchService.totalElements(searchRequest, TestEntity.class));
+        List<TestEntity> testEntities = transactionTemplate.execute(
+                status -> replicaSearchService.fetchEntities(searchRequest, TestEntity.class));
+        List<Map<String, Object>> projections = transactionTemplate.execute(status -> replicaSearchService
+                .searchProjections(searchRequest, TestEntity.class, List.of("description"))
+                .data());
+
+        assertThat(totalElements).isEqualTo(REPLICA_ENTITY_COUNT);
+        assertThat(testEntities).hasSize(REPLICA_ENTITY_COUNT);
+        assertThat(projections).hasSize(REPLICA_ENTITY_COUNT);
+        assertThat(searchService.search(searchRequest, TestEntity.class).totalElements())
+                .isEqualTo(ENTITY_COUNT);
+    }
+
+    @Test
+    void cachedSearchesLoadEntitiesFromTheReplica() {
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setResultCacheSize(10);
+        SearchService replicaSearchService = createSearchService(
+                searchEngineProperties, SearchExecutor.readOnlySession(replicaEntityManagerFactory));
+        SearchRequest searchRequest = request(null, List.of());
+
+        for (int i = 0; i < 2; i++) {
+            SearchResponse<TestEntity> searchResponse =
+                    transactionTemplate.execute(status -> replicaSearchService.search(searchRequest, TestEntity.class));
+            assertThat(searchResponse.data()).hasSize(REPLICA_ENTITY_COUNT);
+        }
+        assertThat(replicaSearchService.getSearchResultCache().getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void statelessSessionsReturnDetachedEntities() {
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setStatelessSession(true);
+        searchEngineProperties.setCountStrategy(CountStrategy.ESTIMATED);
+        SearchService statelessSearchService = createSearchService(
+                searchEngineProperties, SearchExecutor.statelessSession(entityManager.getEntityManagerFactory()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            SearchResponse<TestEntity> searchResponse =
+                    statelessSearchService.search(request("withCollections", List.of()), TestEntity.class);
+
+            assertThat(searchResponse.data()).hasSize(20);
+            assertThat(searchResponse.totalElements()).isPositive();
+            assertThat(searchResponse.data()).noneMatch(entityManager::contains);
+            assertThat(searchResponse.data().get(2).getAttributes()).hasSize(2);
+        });
+
+        SearchService propertiesSearchService = new SearchService(entityManager, searchEngineProperties);
+        transactionTemplate.executeWithoutResult(status -> assertThat(propertiesSearchService
+                        .search(request(null, List.of()), TestEntity.class)
+                        .data())
+                .noneMatch(entityManager::contains));
+    }
+
+    @Test
+    void everySearchUsesOneConnection() {
+        Statistics statistics = getStatistics();
+        SearchRequest searchRequest = request(null, List.of())
+                .withCountStrategy(CountStrategy.EXACT)
+                .withFacets(List.of(new Facet("status")));
+
+        long connectCount = statistics.getConnectCount();
+        assertThat(searchService.search(searchRequest, TestEntity.class).totalElements())
+                .isEqualTo(ENTITY_COUNT);
+        assertThat(statistics.getConnectCount() - connectCount).isEqualTo(1);
+
+        SearchService replicaSearchService = createSearchService(
+                new SearchEngineProperties(), SearchExecutor.readOnlySession(replicaEntityManagerFactory));
+        connectCount = statistics.getConnectCount();
+        assertThat(replicaSearchService.search(searchRequest, TestEntity.class).totalElements())
+                .isEqualTo(REPLICA_ENTITY_COUNT);
+        assertThat(statistics.getConnectCount()).isEqualTo(connectCount);
+    }
+
+    private SearchService createSearchService(
+            SearchEngineProperties searchEngineProperties, SearchExecutor searchExecutor) {
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        return new SearchService(
+                entityManager,
+                searchEngineProperties,
+                new SearchFieldRegistry(entityManager.getMetamodel(), searchEngineProperties.getNamingConvention()),
+                RowCountEstimator.forEntityManagerFactory(entityManagerFactory),
+                SearchMetrics.NOOP,
+                FullTextFunction.forEntityManagerFactory(entityManagerFactory),
+                searchExecutor);
+    }
+
+    private static SearchRequest request(String fetchProfile, List<Filter> filters) {
+        return new SearchRequest(1, 20, false, List.of(new Sort("id", SortDirection.ASCENDING)), filters)
+                .withFetchProfile(fetchProfile);
+    }
+}
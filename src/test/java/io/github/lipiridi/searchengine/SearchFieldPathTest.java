@@ -0,0 +1,60 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.model.Image;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class SearchFieldPathTest extends AbstractSearchServiceTest {
+
+    @Autowired
+    private SearchFieldRegistry searchFieldRegistry;
+
+    @Test
+    void pathsOfSearchFieldsAreResolvedAtStartup() {
+        Map<String, SearchField> searchFieldMap = searchFieldRegistry.getSearchFieldMap(TestEntity.class);
+
+        SearchFieldPath imagePath =
+                searchFieldRegistry.getSearchFieldPath(TestEntity.class, searchFieldMap.get("imageName"));
+        assertThat(imagePath.joinPaths()).containsExactly("image");
+        assertThat(imagePath.entityTypes()).containsExactly(Image.class);
+        assertThat(searchFieldRegistry
+                        .getSearchFieldPath(TestEntity.class, searchFieldMap.get("labels"))
+                        .joinPaths())
+                .containsExactly("labels");
+        assertThat(searchFieldRegistry
+                        .getSearchFieldPath(TestEntity.class, searchFieldMap.get("description"))
+                        .joinPaths())
+                .isEmpty();
+    }
+
+    @Test
+    void pathsOfCustomSearchFieldsAreResolvedOnDemand() {
+        SearchField searchField = new SearchField("custom", "image.name", String.class, false);
+
+        assertThat(searchFieldRegistry
+                        .getSearchFieldPath(TestEntity.class, searchField)
+                        .segments())
+                .containsExactly("image", "name");
+    }
+
+    @Test
+    void idSearchFieldIsRegisteredOnce() {
+        SearchField idSearchField = searchFieldRegistry.getIdSearchField(TestEntity.class);
+
+        assertThat(idSearchField).isSameAs(searchFieldRegistry.getIdSearchField(TestEntity.class));
+        assertThat(idSearchField.path()).isEqualTo("id");
+        assertThat(idSearchField.fieldType()).isEqualTo(Long.class);
+        assertThat(searchFieldRegistry
+                        .getSearchFieldPath(TestEntity.class, idSearchField)
+                        .joinPaths())
+                .isEmpty();
+        assertThatThrownBy(() -> searchFieldRegistry.getIdSearchField(String.class))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageContaining("not an entity");
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties.NamingConvention;
+import io.github.lipiridi.searchengine.model.Attribute;
+import io.github.lipiridi.searchengine.model.Image;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class SearchFieldRegistryTest extends AbstractSearchServiceTest {
+
+    @Test
+    void searchFieldsOfAllEntitiesAreCollectedAtStartup() {
+        assertThat(searchService.getCollectedSearchFields())
+                .containsKeys(TestEntity.class, Image.class, Attribute.class);
+        assertThat(searchService.getCollectedSearchFields(TestEntity.class))
+                .extracting(SearchField::id)
+                .contains("imageName", "ownerName", "attributesName", "labels");
+    }
+
+    @Test
+    void lookupsReturnTheCollectedInstances() {
+        SearchFieldRegistry searchFieldRegistry =
+                new SearchFieldRegistry(entityManager.getMetamodel(), NamingConvention.CAMEL_CASE);
+        Map<String, SearchField> searchFieldMap = searchFieldRegistry.getSearchFieldMap(TestEntity.class);
+        SearchField imageName = searchFieldMap.get("imageName");
+
+        assertThat(searchFieldRegistry.getSearchFieldMap(TestEntity.class)).isSameAs(searchFieldMap);
+        assertThat(searchFieldRegistry.getSearchFieldPath(TestEntity.class, imageName))
+                .isSameAs(searchFieldRegistry.getSearchFieldPath(TestEntity.class, imageName));
+        assertThat(searchFieldRegistry.getValueConverter(imageName))
+                .isSameAs(searchFieldRegistry.getValueConverter(imageName));
+        assertThat(searchFieldRegistry.getSearchFields().get(TestEntity.class))
+                .containsExactlyInAnyOrderElementsOf(searchFieldMap.values());
+    }
+
+    @Test
+    void concurrentFirstAccessSeesTheSameSearchFields() throws Exception {
+        SearchFieldRegistry searchFieldRegistry =
+                new SearchFieldRegistry(entityManager.getMetamodel(), NamingConvention.CAMEL_CASE);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Map<String, SearchField>>> lookups = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            lookups.add(() -> {
+                start.await();
+                return searchFieldRegistry.getSearchFieldMap(TestEntity.class);
+            });
+        }
+
+        try (ExecutorService executorService = Executors.newFixedThreadPool(16)) {
+            List<Future<Map<String, SearchField>>> searchFieldMaps = new ArrayList<>();
+            lookups.forEach(lookup -> searchFieldMaps.add(executorService.submit(lookup)));
+            start.countDown();
+
+            Map<String, SearchField> first = searchFieldMaps.getFirst().get();
+            for (Future<Map<String, SearchField>> searchFieldMap : searchFieldMaps) {
+                assertThat(searchFieldMap.get()).isSameAs(first);
+            }
+        }
+    }
+
+    @Test
+    void registriesOfDifferentNamingConventionsAreSeparate() {
+        SearchFieldRegistry snakeCaseRegistry =
+                new SearchFieldRegistry(entityManager.getMetamodel(), NamingConvention.SNAKE_CASE);
+
+        assertThat(snakeCaseRegistry.getSearchFieldMap(TestEntity.class))
+                .containsKeys("image_name", "owner_name")
+                .doesNotContainKeys("imageName", "ownerName");
+        assertThat(searchService.getCollectedSearchFields(TestEntity.class))
+                .extracting(SearchField::id)
+                .contains("imageName")
+                .doesNotContain("image_name");
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void searchFieldCreatorKeepsTheCreatedSearchFields() {
+        SearchFieldCreator searchFieldCreator = new SearchFieldCreator(NamingConvention.CAMEL_CASE);
+        List<SearchField> searchFields = searchFieldCreator.createFromClass(Image.class);
+
+        assertThat(searchFieldCreator.getCollectedSearchFields()).containsOnlyKeys(Image.class);
+        assertThat(searchFieldCreator.getCollectedSearchFields().get(Image.class))
+                .isSameAs(searchFields);
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+@Import(SearchMetricsTest.MeterRegistryConfiguration.class)
+class SearchMetricsTest extends AbstractSearchServiceTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clearMeters() {
+        meterRegistry.clear();
+    }
+
+    @Test
+    void searchPhasesAreTimed() {
+        searchService.search(
+                new SearchRequest(
+                        2, 5, false, List.of(), List.of(new Filter("attributesName", FilterType.EQUAL, "attr1"))),
+                TestEntity.class,
+                TestEntity::getId);
+
+        assertThat(phaseTimerCount("page_query")).isEqualTo(1);
+        assertThat(phaseTimerCount("count_query")).isEqualTo(1);
+        assertThat(phaseTimerCount("mapping")).isEqualTo(1);
+        assertThat(meterRegistry
+                        .get("search.engine.phase")
+                        .tag("phase", "page_query")
+                        .tag("collection.filters", "true")
+                        .timer()
+                        .count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("search.engine.page.depth").summary().totalAmount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void rejectedRequestsAreCounted() {
+        SearchRequest searchRequest =
+                new SearchRequest(1, 5, false, List.of(), List.of(new Filter("sortOrder", FilterType.EQUAL, "x")));
+
+        assertThatThrownBy(() -> searchService.search(searchRequest, TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class);
+        assertThat(meterRegistry
+                        .get("search.engine.rejected")
+                        .tag("cause", "NumberFormatException")
+                        .counter()
+                        .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void entityListsAndTotalsAreInstrumented() {
+        SearchRequest searchRequest = new SearchRequest(
+                1, 5, false, List.of(), List.of(new Filter("attributesName", FilterType.EQUAL, "attr1")));
+
+        searchService.fetchEntities(searchRequest, TestEntity.class);
+        searchService.totalElements(searchRequest, TestEntity.class);
+
+        assertThat(phaseTimerCount("validation")).isEqualTo(2);
+        assertThat(phaseTimerCount("page_query")).isEqualTo(1);
+        assertThat(phaseTimerCount("count_query")).isEqualTo(1);
+        assertThat(meterRegistry.get("search.engine.result.size").summary().totalAmount())
+                .isEqualTo(5);
+
+        SearchRequest invalidRequest =
+                new SearchRequest(1, 5, false, List.of(), List.of(new Filter("sortOrder", FilterType.EQUAL, "x")));
+        assertThatThrownBy(() -> searchService.totalElements(invalidRequest, TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class);
+        assertThat(meterRegistry.get("search.engine.rejected").counter().count())
+                .isEqualTo(1);
+    }
+
+    private long phaseTimerCount(String phase) {
+        return meterRegistry.get("search.engine.phase").tag("phase", phase).timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    @TestConfiguration
+    static class MeterRegistryConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.dto.Facet;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.FilterGroup;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import org.hibernate.query.SortDirection;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+class SearchQueryCompilerTest extends AbstractSearchServiceTest {
+
+    @Test
+    void searchIsPreparedWithoutConnection() {
+        SearchQueryCompiler searchQueryCompiler = searchService.getSearchQueryCompiler();
+        SearchRequest searchRequest = new SearchRequest(
+                        2,
+                        5,
+                        false,
+                        List.of(new Sort("description", SortDirection.ASCENDING)),
+                        List.of(new Filter("sortOrder", FilterType.GREATER_THAN, "3")))
+                .withCountStrategy(CountStrategy.EXACT)
+                .withFacets(List.of(new Facet("status")));
+
+        Statistics statistics = getStatistics();
+        long connectCount = statistics.getConnectCount();
+        PreparedSearch<TestEntity> preparedSearch = searchQueryCompiler.prepareSearch(searchRequest, TestEntity.class);
+
+        assertThat(statistics.getConnectCount()).isEqualTo(connectCount);
+        assertThat(preparedSearch.emptyResponse()).isNull();
+        PreparedQuery<?> pageQuery = preparedSearch.pageQuery();
+        assertThat(pageQuery).isNotNull();
+        assertThat(pageQuery.parameterValues()).containsExactly(3);
+        assertThat(pageQuery.firstResult()).isEqualTo(5);
+        assertThat(pageQuery.maxResults()).isEqualTo(5);
+        assertThat(preparedSearch.countQuery()).isNotNull();
+        assertThat(preparedSearch.facetQueries()).containsOnlyKeys("status");
+    }
+
+    @Test
+    void contradictingFiltersArePreparedAsEmptyResponse() {
+        FilterGroup filterGroup = new FilterGroup(
+                FilterGroup.Operator.AND,
+                List.of(
+                        new Filter("status", FilterType.EQUAL, "active"),
+                        new Filter("status", FilterType.EQUAL, "new")));
+        SearchRequest searchRequest = new SearchRequest(1, 5, false, List.of(), List.of())
+                .withFacets(List.of(new Facet("status")))
+                .withFilterGroup(filterGroup);
+
+        PreparedSearch<TestEntity> preparedSearch =
+                searchService.getSearchQueryCompiler().prepareSearch(searchRequest, TestEntity.class);
+
+        assertThat(preparedSearch.pageQuery()).isNull();
+        assertThat(preparedSearch.emptyResponse()).isNotNull();
+        assertThat(preparedSearch.emptyResponse().facets()).containsOnlyKeys("status");
+    }
+
+    @Test
+    void invalidRequestIsRejectedBeforeCompilation() {
+        QueryPlanCache queryPlanCache = searchService.getQueryPlanCache();
+        long missCount = queryPlanCache.getMissCount();
+        SearchRequest searchRequest =
+                new SearchRequest(1, 5, false, List.of(), List.of(new Filter("unknown", FilterType.EQUAL, "1")));
+
+        assertThatThrownBy(() -> searchService.getSearchQueryCompiler().prepareSearch(searchRequest, TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class);
+        assertThat(queryPlanCache.getMissCount()).isEqualTo(missCount);
+    }
+}
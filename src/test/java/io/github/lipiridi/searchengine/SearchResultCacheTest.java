@@ -0,0 +1,117 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.Attribute;
+import io.github.lipiridi.searchengine.model.Image;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import org.hibernate.query.SortDirection;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.jpa.hibernate.search-engine.result-cache-size=100")
+class SearchResultCacheTest extends AbstractSearchServiceTest {
+
+    private static final List<Sort> SORTS = List.of(new Sort("id", SortDirection.ASCENDING));
+
+    @Test
+    void hitsOnlyLoadTheEntitiesOfThePage() {
+        SearchResultCache searchResultCache = searchService.getSearchResultCache();
+        Filter imageFilter = new Filter("imageName", FilterType.EQUAL, "gamma");
+        Filter sortOrderFilter = new Filter("sortOrder", FilterType.GREATER_THAN, "-1");
+        SearchResponse<TestEntity> searchResponse = searchService.search(
+                new SearchRequest(1, 100, false, SORTS, List.of(imageFilter, sortOrderFilter)), TestEntity.class);
+
+        long hitCount = searchResultCache.getHitCount();
+        long missCount = searchResultCache.getMissCount();
+        Statistics statistics = getStatistics();
+        statistics.clear();
+        SearchResponse<Long> cachedResponse = searchService.search(
+                new SearchRequest(1, 100, false, SORTS, List.of(sortOrderFilter, imageFilter)),
+                TestEntity.class,
+                TestEntity::getId);
+
+        assertThat(searchResultCache.getHitCount()).isEqualTo(hitCount + 1);
+        assertThat(searchResultCache.getMissCount()).isEqualTo(missCount);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(cachedResponse.data())
+                .containsExactlyElementsOf(
+                        searchResponse.data().stream().map(TestEntity::getId).toList());
+        assertThat(cachedResponse.totalElements()).isEqualTo(searchResponse.totalElements());
+    }
+
+    @Test
+    void changesOfQueriedEntitiesInvalidateResults() {
+        List<Filter> filters = List.of(new Filter("imageName", FilterType.EQUAL, "beta"));
+        long totalElements = count(searchService, filters);
+
+        renameImage("beta", "beta2");
+        assertThat(count(searchService, filters)).isZero();
+
+        renameImage("beta2", "beta");
+        assertThat(count(searchService, filters)).isEqualTo(totalElements);
+    }
+
+    @Test
+    void collectionChangesInvalidateResultsOfTheOwner() {
+        List<Filter> filters = List.of(new Filter("attributesName", FilterType.EQUAL, "attrX"));
+        assertThat(count(searchService, filters)).isZero();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Attribute attribute = new Attribute("attrX");
+            entityManager.persist(attribute);
+            entityManager.find(TestEntity.class, 1L).getAttributes().add(attribute);
+        });
+        assertThat(count(searchService, filters)).isEqualTo(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TestEntity testEntity = entityManager.find(TestEntity.class, 1L);
+            Attribute attribute = testEntity.getAttributes().stream()
+                    .filter(candidate -> candidate.getName().equals("attrX"))
+                    .findFirst()
+                    .orElseThrow();
+            testEntity.getAttributes().remove(attribute);
+            entityManager.remove(attribute);
+        });
+        assertThat(count(searchService, filters)).isZero();
+    }
+
+    @Test
+    void searchServicesOfOneFactoryShareTheInvalidation() {
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setResultCacheSize(100);
+        SearchService otherSearchService = new SearchService(entityManager, searchEngineProperties);
+
+        List<Filter> filters = List.of(new Filter("imageName", FilterType.EQUAL, "alpha"));
+        long totalElements = count(otherSearchService, filters);
+        assertThat(count(searchService, filters)).isEqualTo(totalElements);
+
+        renameImage("alpha", "alpha2");
+        assertThat(count(otherSearchService, filters)).isZero();
+        assertThat(count(searchService, filters)).isZero();
+
+        renameImage("alpha2", "alpha");
+        assertThat(count(otherSearchService, filters)).isEqualTo(totalElements);
+    }
+
+    private long count(SearchService searchService, List<Filter> filters) {
+        return searchService
+                .search(new SearchRequest(1, 10, false, SORTS, filters), TestEntity.class)
+                .totalElements();
+    }
+
+    private void renameImage(String name, String newName) {
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("select i from Image i where i.name = :name", Image.class)
+                .setParameter("name", name)
+                .getSingleResult()
+                .setName(newName));
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.config.SearchEngineProperties;
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.Owner;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.hibernate.query.SortDirection;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+@TestPropertySource(
+        properties = {
+            "spring.jpa.hibernate.search-engine.stream-clear-interval=7",
+            "spring.jpa.hibernate.search-engine.stream-fetch-size=3"
+        })
+class StreamTest extends AbstractSearchServiceTest {
+
+    private static final List<Sort> SORTS =
+            List.of(new Sort("sortOrder", SortDirection.DESCENDING), new Sort("id", SortDirection.ASCENDING));
+
+    private static final List<Filter> FILTERS =
+            List.of(new Filter("attributesName", FilterType.IS_NOT_NULL, (Set<String>) null));
+
+    @Test
+    void streamIgnoresPagination() {
+        List<Long> expected = searchService
+                .search(new SearchRequest(1, 100, false, SORTS, FILTERS), TestEntity.class, TestEntity::getId)
+                .data();
+
+        SearchRequest searchRequest = new SearchRequest(3, 1, false, SORTS, FILTERS);
+        List<Long> streamed = transactionTemplate.execute(status -> {
+            try (Stream<TestEntity> testEntities = searchService.stream(searchRequest, TestEntity.class)) {
+                return testEntities.map(TestEntity::getId).toList();
+            }
+        });
+        assertThat(streamed).containsExactlyElementsOf(expected);
+
+        List<Long> consumed = new ArrayList<>();
+        searchService.forEach(searchRequest, TestEntity.class, testEntity -> consumed.add(testEntity.getId()));
+        assertThat(consumed).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void streamRequiresTransaction() {
+        assertThatThrownBy(() -> searchService.stream(new SearchRequest(1, 1, false, SORTS, FILTERS), TestEntity.class))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void changesMadeWhileStreamingAreNotDiscarded() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Owner owner = entityManager
+                    .createQuery("select o from Owner o where o.name = 'first'", Owner.class)
+                    .getSingleResult();
+            owner.setName("renamed");
+
+            try (Stream<TestEntity> testEntities =
+                    searchService.stream(new SearchRequest(1, 1, false, SORTS, List.of()), TestEntity.class)) {
+                testEntities.forEach(testEntity -> testEntity.setNotes("streamed"));
+            }
+
+            assertThat(entityManager
+                            .createQuery("select count(e) from TestEntity e where e.notes = 'streamed'", Long.class)
+                            .getSingleResult())
+                    .isEqualTo(ENTITY_COUNT);
+            assertThat(entityManager
+                            .createQuery("select count(o) from Owner o where o.name = 'renamed'", Long.class)
+                            .getSingleResult())
+                    .isEqualTo(1);
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void onlyStreamedEntitiesAreDetached() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Owner owner = entityManager
+                    .createQuery("select o from Owner o where o.name = 'first'", Owner.class)
+                    .getSingleResult();
+
+            List<TestEntity> streamed;
+            try (Stream<TestEntity> testEntities =
+                    searchService.stream(new SearchRequest(1, 1, false, SORTS, List.of()), TestEntity.class)) {
+                streamed = testEntities.toList();
+            }
+
+            assertThat(entityManager.contains(owner)).isTrue();
+            assertThat(entityManager.contains(streamed.getFirst())).isFalse();
+            assertThat(entityManager.contains(streamed.getLast())).isTrue();
+        });
+    }
+
+    @Test
+    void streamRejectsCursor() {
+        SearchRequest searchRequest = new SearchRequest(1, 1, false, SORTS, List.of())
+                .withPagination(PaginationType.KEYSET)
+                .withCursor("cursor");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThatThrownBy(() -> searchService.stream(searchRequest, TestEntity.class))
+                    .isInstanceOf(HibernateSearchEngineException.class)
+                    .hasMessageContaining("Cursor");
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void streamIsRejectedByQueryCostLimit() {
+        SearchEngineProperties searchEngineProperties = new SearchEngineProperties();
+        searchEngineProperties.setMaxQueryCost(1);
+        SearchService limitedSearchService = new SearchService(entityManager, searchEngineProperties);
+
+        // The offset of the page is ignored
+        SearchRequest searchRequest = new SearchRequest(1000, 100, false, SORTS, List.of());
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TestEntity> testEntities = limitedSearchService.stream(searchRequest, TestEntity.class)) {
+                assertThat(testEntities.count()).isEqualTo(ENTITY_COUNT);
+            }
+        });
+
+        // The join of the collection filter exceeds the limit
+        SearchRequest expensiveRequest = new SearchRequest(1, 100, false, SORTS, FILTERS);
+        assertThatThrownBy(() -> limitedSearchService.stream(expensiveRequest, TestEntity.class))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageContaining("too expensive");
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TextFilterTest extends AbstractSearchServiceTest {
+
+    @Test
+    void startsWithIsCaseSensitiveAndEscapesWildcards() {
+        assertThat(count(new Filter("description", FilterType.STARTS_WITH, "item 1")))
+                .isEqualTo(11);
+        assertThat(count(new Filter("description", FilterType.STARTS_WITH, "ITEM 1")))
+                .isZero();
+        assertThat(count(new Filter("notes", FilterType.STARTS_WITH, "lazy_"))).isEqualTo(25);
+        assertThat(count(new Filter("notes", FilterType.STARTS_WITH, "lazy%"))).isZero();
+    }
+
+    @Test
+    void equalIgnoreCaseAndFullTextMatchWholeValuesAndWords() {
+        assertThat(count(new Filter("description", FilterType.EQUAL_IGNORE_CASE, "ITEM 5")))
+                .isEqualTo(1);
+        assertThat(count(new Filter("notes", FilterType.FULL_TEXT, "BROWN"))).isEqualTo(25);
+    }
+
+    @Test
+    void undeclaredTextFiltersAreRejected() {
+        assertThatThrownBy(() -> count(new Filter("description", FilterType.FULL_TEXT, "x")))
+                .isInstanceOf(HibernateSearchEngineException.class)
+                .hasMessageNotContaining("FULL_TEXT");
+        assertThatThrownBy(() -> count(new Filter("notes", FilterType.EQUAL, "x")))
+                .isInstanceOf(HibernateSearchEngineException.class);
+    }
+
+    private long count(Filter filter) {
+        return searchService
+                .search(new SearchRequest(1, 10, false, List.of(), List.of(filter)), TestEntity.class)
+                .totalElements();
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.lipiridi.searchengine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.lipiridi.searchengine.dto.Filter;
+import io.github.lipiridi.searchengine.dto.SearchRequest;
+import io.github.lipiridi.searchengine.dto.SearchResponse;
+import io.github.lipiridi.searchengine.dto.Sort;
+import io.github.lipiridi.searchengine.model.TestEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.query.SortDirection;
+import org.junit.jupiter.api.Test;
+
+class TwoPhaseSearchTest extends AbstractSearchServiceTest {
+
+    private static final List<Sort> SORTS =
+            List.of(new Sort("sortOrder", SortDirection.DESCENDING), new Sort("id", SortDirection.ASCENDING));
+
+    private static final List<Filter> FILTERS =
+            List.of(new Filter("attributesName", FilterType.IS_NOT_NULL, (Set<String>) null));
+
+    @Test
+    void offsetPagesKeepTheIdQueryOrder() {
+        List<Object> expected = expectedIds();
+
+        List<Object> ids = new ArrayList<>();
+        for (int page = 1; page <= 10; page++) {
+            SearchResponse<TestEntity> searchResponse =
+                    searchService.search(new SearchRequest(page, 7, false, SORTS, FILTERS), TestEntity.class);
+            searchResponse.data().forEach(testEntity -> ids.add(testEntity.getId()));
+            assertThat(searchResponse.totalElements()).isEqualTo(expected.size());
+        }
+
+        assertThat(ids).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void keysetPagesKeepTheIdQueryOrder() {
+        List<Object> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            SearchResponse<TestEntity> searchResponse = searchService.search(
+                    new SearchRequest(1, 7, false, SORTS, FILTERS)
+                            .withPagination(PaginationType.KEYSET)
+                            .withCursor(cursor),
+                    TestEntity.class);
+            searchResponse.data().forEach(testEntity -> ids.add(testEntity.getId()));
+            cursor = searchResponse.nextCursor();
+        } while (cursor != null);
+
+        assertThat(ids).containsExactlyElementsOf(expectedIds());
+    }
+
+    private List<Object> expectedIds() {
+        List<Object> ids = searchService
+                .searchProjections(new SearchRequest(1, 100, false, SORTS, FILTERS), TestEntity.class, List.of("id"))
+                .data()
+                .stream()
+                .map(projection -> projection.get("id"))
+                .toList();
+        assertThat(ids).isNotEmpty().doesNotHaveDuplicates();
+        return ids;
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.lipiridi.searchengine.model;
+
+import io.github.lipiridi.searchengine.Searchable;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+@Entity
+public class Attribute {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Searchable
+    private Long id;
+
+    @Searchable
+    private String name;
+
+    protected Attribute() {}
+
+    public Attribute(String name) {
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.lipiridi.searchengine.model;
+
+import io.github.lipiridi.searchengine.Searchable;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import java.util.HashSet;
+import java.util.Set;
+
+@Entity
+public class Owner {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Searchable
+    private Long id;
+
+    @Searchable
+    private String name;
+
+    @Searchable
+    @ElementCollection
+    private Set<String> tags = new HashSet<>();
+
+    protected Owner() {}
+
+    public Owner(String name) {
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.lipiridi.searchengine.model;
+
+public enum Status {
+    NEW,
+    ACTIVE,
+    ARCHIVED
+}
@@ -0,0 +1,6 @@
+package io.github.lipiridi.searchengine.model;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class TestApplication {}
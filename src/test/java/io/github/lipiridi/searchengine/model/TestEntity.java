@@ -0,0 +1,159 @@
+package io.github.lipiridi.searchengine.model;
+
+import io.github.lipiridi.searchengine.FilterType;
+import io.github.lipiridi.searchengine.SearchFetchProfile;
+import io.github.lipiridi.searchengine.Searchable;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.OneToMany;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Entity
+@SearchFetchProfile(name = "bare")
+@SearchFetchProfile(name = "withImage", attributePaths = "image")
+@SearchFetchProfile(name = "withCollection", attributePaths = "attributes")
+@SearchFetchProfile(
+        name = "withCollections",
+        attributePaths = "image",
+        collections = {"attributes", "labels"})
+@SearchFetchProfile(name = "withNonCollection", collections = "image")
+@NamedEntityGraph(
+        name = "TestEntity.graph",
+        attributeNodes = {
+            @NamedAttributeNode("image"),
+            @NamedAttributeNode("attributes"),
+            @NamedAttributeNode("description")
+        })
+public class TestEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Searchable
+    private Long id;
+
+    @Searchable
+    private String description;
+
+    @Searchable(filterTypes = {FilterType.FULL_TEXT, FilterType.STARTS_WITH})
+    private String notes;
+
+    @Searchable
+    private int sortOrder;
+
+    @Searchable
+    private Instant createdAt;
+
+    @Searchable
+    private boolean enabled;
+
+    @Searchable
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Searchable
+    @ManyToOne
+    private Image image;
+
+    @Searchable
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Owner owner;
+
+    @Searchable
+    @OneToMany
+    @JoinColumn(name = "test_entity_id")
+    private Set<Attribute> attributes = new HashSet<>();
+
+    @Searchable
+    @ElementCollection
+    private List<String> labels = new ArrayList<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public int getSortOrder() {
+        return sortOrder;
+    }
+
+    public void setSortOrder(int sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Image getImage() {
+        return image;
+    }
+
+    public void setImage(Image image) {
+        this.image = image;
+    }
+
+    public Owner getOwner() {
+        return owner;
+    }
+
+    public void setOwner(Owner owner) {
+        this.owner = owner;
+    }
+
+    public Set<Attribute> getAttributes() {
+        return attributes;
+    }
+
+    public List<String> getLabels() {
+        return labels;
+    }
+}
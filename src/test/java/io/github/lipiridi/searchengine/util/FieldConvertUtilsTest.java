@@ -0,0 +1,36 @@
+package io.github.lipiridi.searchengine.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.lipiridi.searchengine.model.Status;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class FieldConvertUtilsTest {
+
+    @Test
+    void enumValuesAreConvertedIgnoringCase() {
+        Function<String, Object> valueConverter = FieldConvertUtils.getValueConverter(Status.class);
+
+        assertThat(valueConverter.apply("ACTIVE")).isEqualTo(Status.ACTIVE);
+        assertThat(valueConverter.apply("active")).isEqualTo(Status.ACTIVE);
+        assertThat(valueConverter.apply("Active")).isEqualTo(Status.ACTIVE);
+    }
+
+    @Test
+    void unknownEnumValuesAreRejected() {
+        Function<String, Object> valueConverter = FieldConvertUtils.getValueConverter(Status.class);
+
+        assertThatThrownBy(() -> valueConverter.apply("deleted"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("deleted");
+    }
+
+    @Test
+    void valueConvertersAreResolvedOncePerType() {
+        assertThat(FieldConvertUtils.getValueConverter(Status.class))
+                .isSameAs(FieldConvertUtils.getValueConverter(Status.class));
+        assertThat(FieldConvertUtils.getValueConverter(Long.class).apply("42")).isEqualTo(42L);
+    }
+}